@@ -0,0 +1,64 @@
+package com.org.pp.finAgent.benchmark;
+
+import com.org.pp.finAgent.configuration.TesseractConfig;
+import com.org.pp.finAgent.service.ocr.BandedOcrExecutor;
+import com.org.pp.finAgent.service.ocr.ImagePreprocessor;
+import com.org.pp.finAgent.service.ocr.TesseractPool;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.Word;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a single full-frame Tesseract pass with banded parallel OCR on the
+ * same screenshot. Requires a local Tesseract installation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class BandedOcrBenchmark {
+
+    private TesseractPool pool;
+    private BandedOcrExecutor banded;
+    private BufferedImage screenshot;
+
+    @Setup
+    public void setUp() {
+        pool = new TesseractPool(new TesseractConfig("", "eng", "eng"), ImagePreprocessor.disabled(), 0,
+                "fast-sparse");
+        banded = new BandedOcrExecutor(pool, true, 0, 64, 0);
+        screenshot = BenchmarkFixtures.firstScreenshot();
+    }
+
+    @TearDown
+    public void tearDown() {
+        banded.shutdown();
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Word> singlePass() {
+        return pool.withEngine(engine -> engine.getWords(screenshot, ITessAPI.TessPageIteratorLevel.RIL_WORD));
+    }
+
+    @Benchmark
+    public List<Word> bandedParallel() {
+        return banded.recognize(screenshot, ITessAPI.TessPageIteratorLevel.RIL_WORD, pool.defaultProfile());
+    }
+}
@@ -0,0 +1,92 @@
+package com.org.pp.finAgent.benchmark;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+
+/**
+ * Shared screenshot fixtures for the benchmarks.
+ *
+ * Real captures can be supplied with -Dfinagent.bench.screenshots=/path/to/pngs.
+ * Without it, a synthetic 4K "search results" page is rendered so the benchmarks
+ * still run on CI machines without a display.
+ */
+final class BenchmarkFixtures {
+
+    static final int WIDTH = 3840;
+    static final int HEIGHT = 2160;
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<BufferedImage> screenshots() {
+        String dir = System.getProperty("finagent.bench.screenshots");
+        if (dir == null || dir.isBlank()) {
+            return List.of(syntheticSearchPage());
+        }
+        List<BufferedImage> images = new ArrayList<>();
+        try (Stream<Path> files = Files.list(Path.of(dir))) {
+            for (Path file : files.filter(p -> p.toString().toLowerCase().endsWith(".png")).sorted().toList()) {
+                images.add(toIntRgb(ImageIO.read(file.toFile())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load benchmark screenshots from " + dir, e);
+        }
+        if (images.isEmpty()) {
+            throw new IllegalStateException("No .png screenshots found in " + dir);
+        }
+        return images;
+    }
+
+    static BufferedImage firstScreenshot() {
+        return screenshots().get(0);
+    }
+
+    /**
+     * Renders a page of dark body text with a blue link line every few rows,
+     * roughly matching the density of a Google results page.
+     */
+    static BufferedImage syntheticSearchPage() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, WIDTH, HEIGHT);
+            g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 28));
+            int row = 0;
+            for (int y = 80; y < HEIGHT - 40; y += 48, row++) {
+                boolean link = row % 4 == 0;
+                g.setColor(link ? new Color(0x1A0DAB) : new Color(0x202124));
+                String text = link
+                        ? "Bajaj Finance share price today live updates " + row
+                        : "Stock market news and analysis for investors, quarterly results and outlook " + row;
+                g.drawString(text, 200, y);
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static BufferedImage toIntRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage converted = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = converted.createGraphics();
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return converted;
+    }
+}
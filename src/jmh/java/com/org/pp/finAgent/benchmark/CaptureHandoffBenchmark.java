@@ -0,0 +1,61 @@
+package com.org.pp.finAgent.benchmark;
+
+import com.org.pp.finAgent.util.CapturedFrame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+
+/**
+ * Measures the per-call cost of getting a captured frame into the OCR layer.
+ * "pngTempFileRoundTrip" is the old captureToFile() + ImageIO.read path;
+ * "inMemoryHandoff" is the CapturedFrame path used by OCRController today.
+ * OCR itself is identical for both and is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CaptureHandoffBenchmark {
+
+    private BufferedImage screenshot;
+
+    @Setup
+    public void setUp() {
+        screenshot = BenchmarkFixtures.firstScreenshot();
+    }
+
+    @Benchmark
+    public BufferedImage pngTempFileRoundTrip() throws IOException {
+        Path tempFile = Files.createTempFile("finagent_capture_", ".png");
+        try {
+            ImageIO.write(screenshot, "png", tempFile.toFile());
+            return ImageIO.read(tempFile.toFile());
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Benchmark
+    public BufferedImage inMemoryHandoff() {
+        CapturedFrame frame = new CapturedFrame(screenshot,
+                new Rectangle(0, 0, screenshot.getWidth(), screenshot.getHeight()), System.nanoTime());
+        return frame.image();
+    }
+}
@@ -0,0 +1,87 @@
+package com.org.pp.finAgent.benchmark;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.org.pp.finAgent.automation.InputCommand;
+import com.org.pp.finAgent.automation.InputCommandCodec;
+import com.org.pp.finAgent.automation.InputCommandValidator;
+import com.org.pp.finAgent.automation.MouseMovement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of getting one click command from the caller to the input thread,
+ * leaving out the Robot itself. "jsonRoundTrip" is the old OCRController path:
+ * String.format a JSON command, then parse it back with Gson. "typedCommand" is
+ * the in-process path today: build a record and validate it. The protobuf
+ * benchmarks measure what an out-of-process driver pays per command, singly
+ * and in a batch of ten Ctrl+clicks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputCommandDispatchBenchmark {
+
+    private static final int BATCH_SIZE = 10;
+
+    private int x;
+    private int y;
+    private byte[] encodedBatch;
+
+    @Setup
+    public void setUp() {
+        List<InputCommand> batch = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(InputCommand.modifierClick(640 + i * 13, 220 + i * 96));
+        }
+        encodedBatch = InputCommandCodec.encodeBatch(batch);
+    }
+
+    // Vary the coordinates so no path can be folded into a constant
+    private void nextPoint() {
+        x = (x + 37) & 2047;
+        y = (y + 91) & 1023;
+    }
+
+    @Benchmark
+    public InputCommand jsonRoundTrip() {
+        nextPoint();
+        String commandJson = String.format(
+                "{\"action\":\"%s\", \"x\":%d, \"y\":%d, \"button\":\"LEFT\"}",
+                "MOVE_AND_CTRL_CLICK", x, y);
+        return MouseMovement.parseCommand(commandJson);
+    }
+
+    @Benchmark
+    public InputCommand typedCommand() {
+        nextPoint();
+        return InputCommandValidator.validate(InputCommand.modifierClick(x, y));
+    }
+
+    @Benchmark
+    public InputCommand protobufRoundTrip() throws InvalidProtocolBufferException {
+        nextPoint();
+        return InputCommandCodec.decode(InputCommandCodec.encode(InputCommand.modifierClick(x, y)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<InputCommand> protobufBatchDecode() throws InvalidProtocolBufferException {
+        return InputCommandCodec.decodeBatch(encodedBatch);
+    }
+}
@@ -0,0 +1,227 @@
+package com.org.pp.finAgent.benchmark;
+
+import com.org.pp.finAgent.automation.KeystrokeExecutor;
+import com.org.pp.finAgent.automation.KeystrokeProgram;
+import com.org.pp.finAgent.util.RobotProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.AWTException;
+import java.awt.Robot;
+import java.awt.event.KeyEvent;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JFrame;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+
+/**
+ * Typing throughput in characters per second: the old per-character path
+ * (a freshly built lookup map per character and the Robot's 50 ms auto-delay
+ * on every event) against compiled keystroke programs run with explicit
+ * pacing.
+ *
+ * "legacyLookup" and "compile" measure key lookup alone and run anywhere. The
+ * "type*" benchmarks send real key events into a text area in a window of
+ * their own, so they need a desktop session; after each iteration they report
+ * how much of the typed text actually arrived, which shows whether a pacing is
+ * too tight for the platform.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class KeystrokeTypingBenchmark {
+
+    // 64 characters, matching @OperationsPerInvocation
+    private static final String TEXT = "Quarterly revenue rose 4.2% (YoY) to $18.3B; see the Q3 reports.";
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public void legacyLookup(Blackhole blackhole) {
+        for (int i = 0; i < TEXT.length(); i++) {
+            char c = TEXT.charAt(i);
+            blackhole.consume(Character.isUpperCase(c) || legacyIsShiftRequired(c));
+            blackhole.consume(legacyKeyCode(c));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public KeystrokeProgram compile() {
+        return KeystrokeProgram.compile(TEXT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public void typeLegacy(TypingWindow window) {
+        Robot robot = window.robot;
+        robot.setAutoDelay(50);
+        for (int i = 0; i < TEXT.length(); i++) {
+            char c = TEXT.charAt(i);
+            boolean needsShift = Character.isUpperCase(c) || legacyIsShiftRequired(c);
+            int keyCode = legacyKeyCode(c);
+            if (keyCode == -1) {
+                continue;
+            }
+            if (needsShift) {
+                robot.keyPress(KeyEvent.VK_SHIFT);
+            }
+            robot.keyPress(keyCode);
+            robot.keyRelease(keyCode);
+            if (needsShift) {
+                robot.keyRelease(KeyEvent.VK_SHIFT);
+            }
+        }
+        window.typed(TEXT.length());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public void typeProgram(PacedTypist typist) {
+        typist.executor.run(KeystrokeProgram.compile(TEXT));
+        typist.window.typed(TEXT.length());
+    }
+
+    /**
+     * A focused window with an empty text area for the typing benchmarks.
+     */
+    @State(Scope.Benchmark)
+    public static class TypingWindow {
+        Robot robot;
+        private JFrame frame;
+        private JTextArea textArea;
+        private long expected;
+
+        @Setup(Level.Trial)
+        public void open() throws AWTException, InterruptedException, InvocationTargetException {
+            robot = RobotProvider.forDefaultScreen();
+            SwingUtilities.invokeAndWait(() -> {
+                frame = new JFrame("KeystrokeTypingBenchmark");
+                textArea = new JTextArea(40, 120);
+                frame.add(textArea);
+                frame.pack();
+                frame.setAlwaysOnTop(true);
+                frame.setVisible(true);
+                textArea.requestFocusInWindow();
+            });
+            robot.waitForIdle();
+            robot.delay(500); // Let the window manager hand over focus
+        }
+
+        @Setup(Level.Iteration)
+        public void clear() throws InterruptedException, InvocationTargetException {
+            SwingUtilities.invokeAndWait(() -> textArea.setText(""));
+            expected = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void report() throws InterruptedException, InvocationTargetException {
+            robot.waitForIdle();
+            int[] received = new int[1];
+            SwingUtilities.invokeAndWait(() -> received[0] = textArea.getDocument().getLength());
+            System.out.printf("%n%d of %d typed character(s) arrived%n", received[0], expected);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws InterruptedException, InvocationTargetException {
+            SwingUtilities.invokeAndWait(frame::dispose);
+        }
+
+        void typed(int characters) {
+            expected += characters;
+        }
+    }
+
+    /**
+     * A keystroke executor with a given pacing, typing into the shared window.
+     */
+    @State(Scope.Benchmark)
+    public static class PacedTypist {
+        @Param({ "0", "1", "5" })
+        public int eventDelayMillis;
+
+        TypingWindow window;
+        KeystrokeExecutor executor;
+
+        @Setup(Level.Trial)
+        public void setUp(TypingWindow window) {
+            this.window = window;
+            this.executor = new KeystrokeExecutor(window.robot, eventDelayMillis);
+        }
+    }
+
+    // The lookup KeyboardMovement used before keystroke programs, kept as the baseline
+
+    private static boolean legacyIsShiftRequired(char c) {
+        return "!@#$%^&*()_+{}|:\"<>?".indexOf(c) != -1;
+    }
+
+    private static int legacyKeyCode(char c) {
+        Map<Character, Integer> shiftCharMap = new HashMap<>();
+        shiftCharMap.put('!', KeyEvent.VK_1);
+        shiftCharMap.put('@', KeyEvent.VK_2);
+        shiftCharMap.put('#', KeyEvent.VK_3);
+        shiftCharMap.put('$', KeyEvent.VK_4);
+        shiftCharMap.put('%', KeyEvent.VK_5);
+        shiftCharMap.put('^', KeyEvent.VK_6);
+        shiftCharMap.put('&', KeyEvent.VK_7);
+        shiftCharMap.put('*', KeyEvent.VK_8);
+        shiftCharMap.put('(', KeyEvent.VK_9);
+        shiftCharMap.put(')', KeyEvent.VK_0);
+        shiftCharMap.put('_', KeyEvent.VK_MINUS);
+        shiftCharMap.put('+', KeyEvent.VK_EQUALS);
+        shiftCharMap.put('{', KeyEvent.VK_OPEN_BRACKET);
+        shiftCharMap.put('}', KeyEvent.VK_CLOSE_BRACKET);
+        shiftCharMap.put('|', KeyEvent.VK_BACK_SLASH);
+        shiftCharMap.put(':', KeyEvent.VK_SEMICOLON);
+        shiftCharMap.put('"', KeyEvent.VK_QUOTE);
+        shiftCharMap.put('<', KeyEvent.VK_COMMA);
+        shiftCharMap.put('>', KeyEvent.VK_PERIOD);
+        shiftCharMap.put('?', KeyEvent.VK_SLASH);
+        if (shiftCharMap.containsKey(c)) {
+            return shiftCharMap.get(c);
+        }
+        if (Character.isUpperCase(c)) {
+            return KeyEvent.VK_A + (c - 'A');
+        }
+        if (Character.isLowerCase(c)) {
+            return KeyEvent.VK_A + (Character.toUpperCase(c) - 'A');
+        }
+        if (Character.isDigit(c)) {
+            return KeyEvent.VK_0 + (c - '0');
+        }
+        return switch (c) {
+            case ' ' -> KeyEvent.VK_SPACE;
+            case '-' -> KeyEvent.VK_MINUS;
+            case '=' -> KeyEvent.VK_EQUALS;
+            case '[' -> KeyEvent.VK_OPEN_BRACKET;
+            case ']' -> KeyEvent.VK_CLOSE_BRACKET;
+            case '\\' -> KeyEvent.VK_BACK_SLASH;
+            case ';' -> KeyEvent.VK_SEMICOLON;
+            case '\'' -> KeyEvent.VK_QUOTE;
+            case ',' -> KeyEvent.VK_COMMA;
+            case '.' -> KeyEvent.VK_PERIOD;
+            case '/' -> KeyEvent.VK_SLASH;
+            case '`' -> KeyEvent.VK_BACK_QUOTE;
+            default -> -1;
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.org.pp.finAgent.benchmark;
+
+import com.org.pp.finAgent.configuration.TesseractConfig;
+import com.org.pp.finAgent.service.ocr.ImagePreprocessor;
+import com.org.pp.finAgent.service.ocr.OcrProfile;
+import com.org.pp.finAgent.service.ocr.TesseractPool;
+import com.org.pp.finAgent.util.ColorRegionDetector;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.Word;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways of finding links by color on a search results page:
+ * OCRing the whole page and then filtering words by color (the old
+ * clickAllBlueLinks path), against scanning for the link color first and OCRing
+ * only the regions it forms. The mask scan is also measured on its own. Requires
+ * a local Tesseract installation for the OCR benchmarks.
+ *
+ * The link color is taken from -Dfinagent.bench.link-color (default #1A0DAB, the
+ * color of the synthetic page's links).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class LinkDetectionBenchmark {
+
+    private final ColorRegionDetector detector = new ColorRegionDetector();
+    private int linkColor;
+    private TesseractPool pool;
+    private List<BufferedImage> screenshots;
+
+    @Setup
+    public void setUp() {
+        linkColor = Integer.decode(System.getProperty("finagent.bench.link-color", "#1A0DAB"));
+        pool = new TesseractPool(new TesseractConfig("", "eng", "eng"),
+                new ImagePreprocessor(true, true, 1.0, false, 15), 1, "fast-sparse");
+        pool.awaitReady();
+        screenshots = BenchmarkFixtures.screenshots();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        int regions = 0;
+        long regionPixels = 0;
+        long pagePixels = 0;
+        for (BufferedImage screenshot : screenshots) {
+            for (Rectangle region : detector.detect(screenshot, linkColor)) {
+                regions++;
+                regionPixels += (long) region.width * region.height;
+            }
+            pagePixels += (long) screenshot.getWidth() * screenshot.getHeight();
+        }
+        System.out.printf("%n%d link region(s) over %d screenshot(s), covering %.1f%% of the pixels%n",
+                regions, screenshots.size(), pagePixels == 0 ? 0 : 100.0 * regionPixels / pagePixels);
+        pool.shutdown();
+    }
+
+    /**
+     * The color scan alone.
+     */
+    @Benchmark
+    public void maskOnly(Blackhole blackhole) {
+        for (BufferedImage screenshot : screenshots) {
+            blackhole.consume(detector.detect(screenshot, linkColor));
+        }
+    }
+
+    /**
+     * The color scan plus single-line OCR of each region.
+     */
+    @Benchmark
+    public void maskFirst(Blackhole blackhole) {
+        for (BufferedImage screenshot : screenshots) {
+            for (Rectangle region : detector.detect(screenshot, linkColor)) {
+                BufferedImage line = screenshot.getSubimage(region.x, region.y, region.width, region.height);
+                blackhole.consume(ocr(line, OcrProfile.SINGLE_LINE));
+            }
+        }
+    }
+
+    /**
+     * OCR of the whole page, as before. Filtering the words by color afterwards
+     * costs little next to the OCR, so it is left out.
+     */
+    @Benchmark
+    public void ocrFirst(Blackhole blackhole) {
+        for (BufferedImage screenshot : screenshots) {
+            blackhole.consume(ocr(screenshot, OcrProfile.FAST_SPARSE));
+        }
+    }
+
+    private List<Word> ocr(BufferedImage image, OcrProfile profile) {
+        return pool.withEngine(profile, engine -> engine.getWords(image, ITessAPI.TessPageIteratorLevel.RIL_WORD));
+    }
+}
@@ -0,0 +1,90 @@
+package com.org.pp.finAgent.benchmark;
+
+import com.org.pp.finAgent.configuration.TesseractConfig;
+import com.org.pp.finAgent.service.ocr.ImagePreprocessor;
+import com.org.pp.finAgent.service.ocr.OcrProfile;
+import com.org.pp.finAgent.service.ocr.TesseractPool;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.Word;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares word-level OCR latency across {@link OcrProfile}s on the same
+ * screenshots, and prints each profile's word count and mean word confidence at
+ * the end of the trial. Each profile gets its own single-engine pool, with
+ * preprocessing at its defaults, so only the profile settings differ.
+ *
+ * The best-model profile loads the traineddata named by
+ * -PbenchBestTraineddata (default "eng"); point it at an installed
+ * tessdata_best file to compare the model variants too. Requires a local
+ * Tesseract installation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class OcrProfileBenchmark {
+
+    @Param({ "fast-sparse", "accurate-block", "single-line" })
+    public String profileName;
+
+    private OcrProfile profile;
+    private TesseractPool pool;
+    private List<BufferedImage> screenshots;
+
+    @Setup
+    public void setUp() {
+        profile = OcrProfile.named(profileName);
+        TesseractConfig config = new TesseractConfig("", "eng",
+                System.getProperty("finagent.bench.best-traineddata", "eng"));
+        pool = new TesseractPool(config, new ImagePreprocessor(true, true, 1.0, false, 15), 1, profileName);
+        pool.awaitReady();
+        screenshots = BenchmarkFixtures.screenshots();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        int words = 0;
+        double confidenceSum = 0;
+        for (BufferedImage screenshot : screenshots) {
+            for (Word word : ocr(screenshot)) {
+                words++;
+                confidenceSum += word.getConfidence();
+            }
+        }
+        System.out.printf("%n[%s] %d word(s) over %d screenshot(s), mean confidence %.1f%n",
+                profile, words, screenshots.size(), words == 0 ? 0 : confidenceSum / words);
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void ocr(Blackhole blackhole) {
+        for (BufferedImage screenshot : screenshots) {
+            blackhole.consume(ocr(screenshot));
+        }
+    }
+
+    private List<Word> ocr(BufferedImage screenshot) {
+        return pool.withEngine(profile,
+                engine -> engine.getWords(screenshot, ITessAPI.TessPageIteratorLevel.RIL_WORD));
+    }
+}
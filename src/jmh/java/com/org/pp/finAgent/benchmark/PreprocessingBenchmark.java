@@ -0,0 +1,103 @@
+package com.org.pp.finAgent.benchmark;
+
+import com.org.pp.finAgent.configuration.TesseractConfig;
+import com.org.pp.finAgent.service.ocr.ImagePreprocessor;
+import com.org.pp.finAgent.service.ocr.NativePixelBuffer;
+import com.org.pp.finAgent.service.ocr.TesseractPool;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.Word;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares OCR latency across preprocessing pipelines on the same screenshots,
+ * and prints the word count and mean word confidence of each pipeline at the
+ * end of the trial so accuracy can be compared alongside speed. "raw" is the old
+ * behaviour of handing the RGB capture straight to Tesseract. Requires a local
+ * Tesseract installation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class PreprocessingBenchmark {
+
+    @Param({ "raw", "grayscale", "threshold", "threshold-2x" })
+    public String pipeline;
+
+    private ImagePreprocessor preprocessor;
+    private final NativePixelBuffer scratch = new NativePixelBuffer();
+    private TesseractPool pool;
+    private List<BufferedImage> screenshots;
+
+    @Setup
+    public void setUp() {
+        preprocessor = switch (pipeline) {
+            case "raw" -> ImagePreprocessor.disabled();
+            case "grayscale" -> new ImagePreprocessor(true, true, 1.0, false, 15);
+            case "threshold" -> new ImagePreprocessor(true, true, 1.0, true, 15);
+            case "threshold-2x" -> new ImagePreprocessor(true, true, 2.0, true, 15);
+            default -> throw new IllegalArgumentException("Unknown pipeline: " + pipeline);
+        };
+        pool = new TesseractPool(new TesseractConfig("", "eng", "eng"), preprocessor, 1, "fast-sparse");
+        screenshots = BenchmarkFixtures.screenshots();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        int words = 0;
+        double confidenceSum = 0;
+        for (BufferedImage screenshot : screenshots) {
+            for (Word word : ocr(screenshot)) {
+                words++;
+                confidenceSum += word.getConfidence();
+            }
+        }
+        NativePixelBuffer.Stats handoff = pool.handoffStats();
+        System.out.printf("%n[%s] %d word(s) over %d screenshot(s), mean confidence %.1f, "
+                + "%.1f pixel copies per frame%n", pipeline, words, screenshots.size(), words == 0 ? 0 : confidenceSum / words, handoff.copiesPerFrame());
+        pool.shutdown();
+    }
+
+    /**
+     * Preprocessing alone, to separate its cost from Tesseract's.
+     */
+    @Benchmark
+    public void preprocessOnly(Blackhole blackhole) {
+        for (BufferedImage screenshot : screenshots) {
+            blackhole.consume(preprocessor.prepareInto(screenshot, scratch));
+        }
+    }
+
+    /**
+     * Preprocessing plus word-level OCR.
+     */
+    @Benchmark
+    public void ocr(Blackhole blackhole) {
+        for (BufferedImage screenshot : screenshots) {
+            blackhole.consume(ocr(screenshot));
+        }
+    }
+
+    private List<Word> ocr(BufferedImage screenshot) {
+        return pool.withEngine(engine -> engine.getWords(screenshot, ITessAPI.TessPageIteratorLevel.RIL_WORD));
+    }
+}
@@ -0,0 +1,75 @@
+package com.org.pp.finAgent.benchmark;
+
+import com.org.pp.finAgent.service.ocr.ImagePreprocessor;
+import com.org.pp.finAgent.service.ocr.NativePixelBuffer;
+import net.sourceforge.tess4j.util.ImageIOHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures getting a captured frame into the buffer TessBaseAPISetImage reads.
+ * "imageIoHelper" is tess4j's conversion, which the engines used before;
+ * "directRgba" and "directGray" fill the engine's reusable NativePixelBuffer
+ * straight from the capture raster. Copy and allocation counts per frame are
+ * printed at the end of the trial. OCR itself is left out, so no Tesseract
+ * installation is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TesseractHandoffBenchmark {
+
+    private BufferedImage screenshot;
+    private final ImagePreprocessor raw = ImagePreprocessor.disabled();
+    private final ImagePreprocessor grayscale = new ImagePreprocessor(true, true, 1.0, false, 15);
+    private final NativePixelBuffer rgbaBuffer = new NativePixelBuffer();
+    private final NativePixelBuffer grayBuffer = new NativePixelBuffer();
+
+    @Setup
+    public void setUp() {
+        screenshot = BenchmarkFixtures.firstScreenshot();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        print("directRgba", rgbaBuffer.getStats());
+        print("directGray", grayBuffer.getStats());
+    }
+
+    private static void print(String name, NativePixelBuffer.Stats stats) {
+        System.out.printf("%n[%s] %.2f copies/frame, %d allocation(s) (%d bytes) over %d frame(s)%n",
+                name, stats.copiesPerFrame(), stats.allocations(), stats.allocatedBytes(), stats.frames());
+    }
+
+    @Benchmark
+    public ByteBuffer imageIoHelper() {
+        return ImageIOHelper.getImageByteBuffer(screenshot);
+    }
+
+    @Benchmark
+    public ImagePreprocessor.Prepared directRgba() {
+        return raw.prepareInto(screenshot, rgbaBuffer);
+    }
+
+    @Benchmark
+    public ImagePreprocessor.Prepared directGray() {
+        return grayscale.prepareInto(screenshot, grayBuffer);
+    }
+}
@@ -15,7 +15,11 @@ import javafx.stage.Stage;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import java.util.logging.Logger;
+
 public class JavaFxApplication extends Application {
+    private static final Logger LOGGER = Logger.getLogger(JavaFxApplication.class.getName());
+
     private ConfigurableApplicationContext applicationContext;
     private AgentService agentService;
     private String currentPlan = null;
@@ -24,7 +28,10 @@ public class JavaFxApplication extends Application {
     @Override
     public void init() {
         // Bootstrap the Spring Boot application context
+        long start = System.currentTimeMillis();
         applicationContext = new SpringApplicationBuilder(FinAgentApplication.class).run();
+        // OCR engines keep warming up in the background; see TesseractPool
+        LOGGER.info("Spring context started in " + (System.currentTimeMillis() - start) + " ms.");
         // Get the service beans from the context
         this.agentService = applicationContext.getBean(AgentService.class);
     }
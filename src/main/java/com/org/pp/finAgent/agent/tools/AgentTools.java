@@ -3,6 +3,7 @@ package com.org.pp.finAgent.agent.tools;
 import com.org.pp.finAgent.automation.KeyboardMovement;
 import com.org.pp.finAgent.controller.OCRController;
 import com.org.pp.finAgent.util.ApplicationScanner;
+import com.org.pp.finAgent.util.ScreenSettleDetector;
 import dev.langchain4j.agent.tool.Tool;
 
 import java.util.ArrayList;
@@ -13,9 +14,15 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class AgentTools {
+    private static final long APP_LAUNCH_TIMEOUT_MILLIS = 8000;
+    // An action that repaints nothing within a second (the old fixed wait) is taken to have no visible effect
+    private static final long REPAINT_TIMEOUT_MILLIS = 1000;
+    private static final long REFRESH_MAX_WAIT_MILLIS = 3000;
+
     private final KeyboardMovement keyboardMovement;
     private final com.org.pp.finAgent.automation.MouseMovement mouseMovement;
     private final ApplicationScanner applicationScanner;
+    private final ScreenSettleDetector settleDetector;
     private final Map<String, String> applicationCache;
     private final boolean isWindows;
     private final boolean isMac;
@@ -25,6 +32,7 @@ public class AgentTools {
         this.keyboardMovement = keyboardMovement;
         this.mouseMovement = mouseMovement;
         this.applicationScanner = new ApplicationScanner();
+        this.settleDetector = new ScreenSettleDetector();
         String os = System.getProperty("os.name").toLowerCase();
         this.isWindows = os.contains("win");
         this.isMac = os.contains("mac");
@@ -41,14 +49,16 @@ public class AgentTools {
     }
 
     /**
-     * Waits for 1 second to allow the window to refresh after an action.
+     * Waits for the window to repaint after an action and then stop changing.
+     * Waiting for the screen to be quiet is not enough: right after a key press
+     * or click the application may not have started repainting yet, and the next
+     * read would see the old screen.
+     *
+     * @param beforeAction A sample taken before the action.
+     * @return How long the wait took and whether the screen settled.
      */
-    private void waitForWindowRefresh() {
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    private ScreenSettleDetector.SettleResult waitForWindowRefresh(long[] beforeAction) {
+        return settleDetector.waitForChangeSince(beforeAction, REPAINT_TIMEOUT_MILLIS, REFRESH_MAX_WAIT_MILLIS);
     }
 
     @Tool("Lists all installed applications on this machine. Returns a list of application names that can be launched.")
@@ -111,32 +121,34 @@ public class AgentTools {
 
             pb.start();
 
-            // Wait for the application to open
-            waitForWindowRefresh();
+            // Wait for the application window to appear and finish drawing
+            ScreenSettleDetector.SettleResult launchWait = settleDetector.waitForChangeThenStable(APP_LAUNCH_TIMEOUT_MILLIS);
 
             // If it's Chrome, open incognito window using Ctrl+Shift+N
             if (isChrome) {
-                Thread.sleep(500); // Extra wait for Chrome to fully load
+                long[] beforeAction = settleDetector.sampleNow();
                 keyboardMovement.pressKeyCombination(new String[] { isMac ? "CMD" : "CTRL", "SHIFT", "N" });
-                waitForWindowRefresh();
-                return "Successfully launched '" + matchedApp + "' and opened incognito window.";
+                ScreenSettleDetector.SettleResult incognitoWait = waitForWindowRefresh(beforeAction);
+                return "Successfully launched '" + matchedApp + "' and opened incognito window ("
+                        + launchWait.describe() + "; " + incognitoWait.describe() + ").";
             }
 
-            return "Successfully launched '" + matchedApp + "'.";
+            return "Successfully launched '" + matchedApp + "' (" + launchWait.describe() + ").";
         } catch (Exception e) {
             return "Error launching application: " + e.getMessage();
         }
     }
 
-    @Tool("Types the specified text at the current cursor position. The text will be typed character by character.")
+    @Tool("Types the specified text at the current cursor position. Short text is typed key by key; long text or text with accented or special characters is pasted through the clipboard.")
     public String typeText(String text) {
         try {
             if (text == null || text.isBlank()) {
                 return "Please provide text to type.";
             }
-            keyboardMovement.typeText(text);
-            waitForWindowRefresh();
-            return "Successfully typed: '" + text + "'";
+            long[] beforeAction = settleDetector.sampleNow();
+            KeyboardMovement.TypingResult typed = keyboardMovement.typeText(text);
+            ScreenSettleDetector.SettleResult wait = waitForWindowRefresh(beforeAction);
+            return "Successfully typed: '" + text + "' (" + typed.describe() + "; " + wait.describe() + ")";
         } catch (Exception e) {
             return "Error typing text: " + e.getMessage();
         }
@@ -148,9 +160,10 @@ public class AgentTools {
             if (key == null || key.isBlank()) {
                 return "Please provide a key to press.";
             }
+            long[] beforeAction = settleDetector.sampleNow();
             keyboardMovement.pressKey(key);
-            waitForWindowRefresh();
-            return "Successfully pressed key: " + key;
+            ScreenSettleDetector.SettleResult wait = waitForWindowRefresh(beforeAction);
+            return "Successfully pressed key: " + key + " (" + wait.describe() + ")";
         } catch (Exception e) {
             return "Error pressing key: " + e.getMessage();
         }
@@ -163,9 +176,10 @@ public class AgentTools {
                 return "Please provide a key combination (e.g., 'Ctrl+C').";
             }
             String[] keys = combination.split("\\+");
+            long[] beforeAction = settleDetector.sampleNow();
             keyboardMovement.pressKeyCombination(keys);
-            waitForWindowRefresh();
-            return "Successfully pressed key combination: " + combination;
+            ScreenSettleDetector.SettleResult wait = waitForWindowRefresh(beforeAction);
+            return "Successfully pressed key combination: " + combination + " (" + wait.describe() + ")";
         } catch (Exception e) {
             return "Error pressing key combination: " + e.getMessage();
         }
@@ -192,15 +206,17 @@ public class AgentTools {
             }
 
             // Execute the physical scroll
+            long[] beforeAction = settleDetector.sampleNow();
             mouseMovement.scroll(wheelAmount);
             
             // Update the absolute state tracker
             currentScrollState = targetPercentage;
             
-            waitForWindowRefresh();
+            ScreenSettleDetector.SettleResult wait = waitForWindowRefresh(beforeAction);
             
             String direction = relativeDifference > 0 ? "down" : "up";
-            return "Successfully scrolled " + direction + " to absolute position " + targetPercentage + "%.";
+            return "Successfully scrolled " + direction + " to absolute position " + targetPercentage + "% ("
+                    + wait.describe() + ").";
         } catch (Exception e) {
             return "Error while scrolling: " + e.getMessage();
         }
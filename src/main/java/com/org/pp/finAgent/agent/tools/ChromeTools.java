@@ -1,15 +1,27 @@
 package com.org.pp.finAgent.agent.tools;
 
+import com.org.pp.finAgent.automation.BatchClickExecutor;
 import com.org.pp.finAgent.automation.KeyboardMovement;
 import com.org.pp.finAgent.controller.OCRController;
+import com.org.pp.finAgent.service.ocr.OcrProfile;
+import com.org.pp.finAgent.service.ocr.ScreenLayout;
+import com.org.pp.finAgent.util.CaptureRegion;
+import com.org.pp.finAgent.util.ScreenSettleDetector;
 import com.org.pp.finAgent.util.WindowFocusHelper;
 import dev.langchain4j.agent.tool.Tool;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ChromeTools {
+    private static final int MAX_LISTED_ELEMENTS = 80;
+    // An action that repaints nothing within a second (the old fixed wait) is taken to have no visible effect
+    private static final long REPAINT_TIMEOUT_MILLIS = 1000;
+    private static final long REFRESH_MAX_WAIT_MILLIS = 3000;
+
     private final KeyboardMovement keyboardMovement;
     private final WindowFocusHelper windowFocusHelper;
+    private final ScreenSettleDetector settleDetector;
+    private final ScreenSettleDetector uiReactionDetector;
     private final boolean isMac;
     private final OCRController ocrController;
 
@@ -17,31 +29,65 @@ public class ChromeTools {
         this.ocrController = ocrController;
         this.keyboardMovement = keyboardMovement;
         this.windowFocusHelper = new WindowFocusHelper();
+        this.settleDetector = new ScreenSettleDetector();
+        // Focus changes and address-bar selection redraw quickly, so a shorter quiet period suffices
+        this.uiReactionDetector = new ScreenSettleDetector(30, 100, 800);
         String os = System.getProperty("os.name").toLowerCase();
         this.isMac = os.contains("mac");
     }
 
     /**
-     * Waits for 1 second to allow the window to refresh after an action.
+     * Waits for the window to repaint after an action and then stop changing.
+     * Waiting for the screen to be quiet is not enough: right after a key press
+     * or click the application may not have started repainting yet, and the next
+     * read would see the old screen.
+     *
+     * @param beforeAction A sample taken before the action.
+     * @return How long the wait took and whether the screen settled.
      */
-    private void waitForWindowRefresh() {
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private ScreenSettleDetector.SettleResult waitForWindowRefresh(long[] beforeAction) {
+        return settleDetector.waitForChangeSince(beforeAction, REPAINT_TIMEOUT_MILLIS, REFRESH_MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * Short wait for small UI reactions such as focus changes or the address bar
+     * being selected.
+     */
+    private ScreenSettleDetector.SettleResult waitForUiReaction() {
+        return uiReactionDetector.waitForStableScreen();
+    }
+
+    /**
+     * Brings Chrome to the front and returns its page area to read, or the full
+     * screen if Chrome could not be focused. Whatever window has focus is not
+     * good enough: it is often the agent's own control panel, where the user just
+     * typed the prompt.
+     */
+    private CaptureRegion focusChromeContent() {
+        if (windowFocusHelper.bringChromeToFocus()) {
+            waitForUiReaction();
+            return CaptureRegion.browserContent();
         }
+        return CaptureRegion.fullScreen();
     }
 
     @Tool("Scans the screen using OCR to find the specified text and clicks on it. Use this to click on navigation elements, buttons, or any visible text on the screen.")
     public String findAndClickText(String textToFind) {
         try {
-            boolean success = ocrController.findAndClickText(textToFind);
-            waitForWindowRefresh();
-            if (success) {
-                return "Successfully found and clicked on '" + textToFind + "'.";
-            } else {
+            // Click targets are short labels scattered over the page; text outside it is searched for
+            // on the full screen
+            CaptureRegion region = focusChromeContent();
+            long[] beforeAction = settleDetector.sampleNow();
+            boolean success = ocrController.findAndClickText(textToFind, region, OcrProfile.FAST_SPARSE);
+            if (!success && region.kind() != CaptureRegion.Kind.FULL_SCREEN) {
+                success = ocrController.findAndClickText(textToFind, CaptureRegion.fullScreen(),
+                        OcrProfile.FAST_SPARSE);
+            }
+            if (!success) {
                 return "Could not find '" + textToFind + "' on the screen.";
             }
+            ScreenSettleDetector.SettleResult wait = waitForWindowRefresh(beforeAction);
+            return "Successfully found and clicked on '" + textToFind + "' (" + wait.describe() + ").";
         } catch (Exception e) {
             return "Error during OCR operation: " + e.getMessage();
         }
@@ -52,10 +98,19 @@ public class ChromeTools {
         // Blue link color - typical blue hyperlink color
         final String BLUE_LINK_COLOR = "#99C3FF";
         try {
-            int count = ocrController.openAllGoogleSearchLinks(BLUE_LINK_COLOR);
-            waitForWindowRefresh();
-            if (count > 0) {
-                return "Successfully found and Ctrl+clicked " + count + " blue link(s).";
+            // Links only live in the page itself, so skip the tab strip and toolbar. Only the
+            // regions drawn in the link color are OCR'd; each is one line, read as a single line.
+            // The clicks go out as one batch, confirmed by the tab strip, so no extra wait is needed here
+            CaptureRegion region = focusChromeContent();
+            BatchClickExecutor.BatchClickResult result = ocrController.openLinksInNewTabs(BLUE_LINK_COLOR,
+                    region, null, OCRController.LinkDetection.COLOR_MASK_FIRST);
+            if (result.count() == 0 && region.kind() != CaptureRegion.Kind.FULL_SCREEN) {
+                result = ocrController.openLinksInNewTabs(BLUE_LINK_COLOR, CaptureRegion.fullScreen(), null,
+                        OCRController.LinkDetection.COLOR_MASK_FIRST);
+            }
+            if (result.count() > 0) {
+                return "Successfully found and Ctrl+clicked " + result.count() + " blue link(s) ("
+                        + result.describe() + ").";
             } else {
                 return "Could not find any blue links on the screen.";
             }
@@ -64,6 +119,43 @@ public class ChromeTools {
         }
     }
 
+    @Tool("Reads the Chrome page once and lists its clickable elements (links, buttons and separate pieces of text) with their IDs. Use clickElement with an ID afterwards instead of searching the screen again.")
+    public String listScreenElements() {
+        try {
+            CaptureRegion region = focusChromeContent();
+            ScreenLayout layout = ocrController.readLayout(region, null);
+            if (layout.isEmpty() && region.kind() != CaptureRegion.Kind.FULL_SCREEN) {
+                layout = ocrController.readLayout(CaptureRegion.fullScreen(), null);
+            }
+            if (layout.isEmpty()) {
+                return "Could not detect any text on the screen.";
+            }
+            String listing = layout.describe(MAX_LISTED_ELEMENTS, ScreenLayout.Kind.LINK, ScreenLayout.Kind.BUTTON,
+                    ScreenLayout.Kind.TEXT);
+            if (listing.isEmpty()) {
+                // Nothing stood out from the body text, so offer the lines themselves
+                listing = layout.describe(MAX_LISTED_ELEMENTS, ScreenLayout.Kind.LINE);
+            }
+            return "Elements on screen (ID, kind, text, click point):\n" + listing;
+        } catch (Exception e) {
+            return "Error reading the screen layout: " + e.getMessage();
+        }
+    }
+
+    @Tool("Clicks an element by the ID listed by listScreenElements, without reading the screen again. Set newTab to true to Ctrl+click a link so it opens in a new tab.")
+    public String clickElement(String elementId, boolean newTab) {
+        try {
+            long[] beforeAction = settleDetector.sampleNow();
+            if (!ocrController.clickElement(elementId, newTab)) {
+                return "No element with ID '" + elementId + "'. Call listScreenElements to read the screen again.";
+            }
+            ScreenSettleDetector.SettleResult wait = waitForWindowRefresh(beforeAction);
+            return "Successfully clicked element '" + elementId + "' (" + wait.describe() + ").";
+        } catch (Exception e) {
+            return "Error clicking element: " + e.getMessage();
+        }
+    }
+
     @Tool("Searches for a query in Google Chrome. Chrome must be already open and will be brought to focus. The search is performed in the address bar.")
     public String searchInChrome(String query) {
         try {
@@ -77,23 +169,25 @@ public class ChromeTools {
             }
 
             // Wait for window to be in focus
-            Thread.sleep(500);
+            long waited = waitForUiReaction().elapsedMillis();
 
             // Open address bar (Ctrl+L on Windows/Linux, Cmd+L on Mac)
             keyboardMovement.pressKeyCombination(new String[] { isMac ? "CMD" : "CTRL", "L" });
 
             // Wait for address bar to be ready
-            Thread.sleep(200);
+            waited += waitForUiReaction().elapsedMillis();
 
             // Type the search query
             keyboardMovement.typeText(query);
 
             // Press Enter
-            Thread.sleep(100);
+            waited += waitForUiReaction().elapsedMillis();
+            long[] beforeAction = settleDetector.sampleNow();
             keyboardMovement.pressKey("ENTER");
 
-            waitForWindowRefresh();
-            return "Successfully searched for '" + query + "' in Chrome.";
+            ScreenSettleDetector.SettleResult wait = waitForWindowRefresh(beforeAction);
+            return "Successfully searched for '" + query + "' in Chrome (" + wait.describe()
+                    + ", " + (waited + wait.elapsedMillis()) + " ms waiting in total).";
         } catch (Exception e) {
             return "Error searching in Chrome: " + e.getMessage();
         }
@@ -106,13 +200,14 @@ public class ChromeTools {
                 return "Failed to bring Chrome to focus. Make sure Chrome is open.";
             }
 
-            Thread.sleep(300);
+            waitForUiReaction();
 
             // Ctrl+Shift+N (Windows/Linux) or Cmd+Shift+N (Mac) for incognito
+            long[] beforeAction = settleDetector.sampleNow();
             keyboardMovement.pressKeyCombination(new String[] { isMac ? "CMD" : "CTRL", "SHIFT", "N" });
 
-            waitForWindowRefresh();
-            return "Successfully opened a new incognito window in Chrome.";
+            ScreenSettleDetector.SettleResult wait = waitForWindowRefresh(beforeAction);
+            return "Successfully opened a new incognito window in Chrome (" + wait.describe() + ").";
         } catch (Exception e) {
             return "Error opening incognito window: " + e.getMessage();
         }
@@ -125,13 +220,14 @@ public class ChromeTools {
                 return "Failed to bring Chrome to focus. Make sure Chrome is open.";
             }
 
-            Thread.sleep(300);
+            waitForUiReaction();
 
             // Ctrl+W (Windows/Linux) or Cmd+W (Mac)
+            long[] beforeAction = settleDetector.sampleNow();
             keyboardMovement.pressKeyCombination(new String[] { isMac ? "CMD" : "CTRL", "W" });
 
-            waitForWindowRefresh();
-            return "Successfully closed the current tab in Chrome.";
+            ScreenSettleDetector.SettleResult wait = waitForWindowRefresh(beforeAction);
+            return "Successfully closed the current tab in Chrome (" + wait.describe() + ").";
         } catch (Exception e) {
             return "Error closing tab: " + e.getMessage();
         }
@@ -148,21 +244,23 @@ public class ChromeTools {
                 return "Failed to bring Chrome to focus. Make sure Chrome is open.";
             }
 
-            Thread.sleep(500);
+            long waited = waitForUiReaction().elapsedMillis();
 
             // Open address bar
             keyboardMovement.pressKeyCombination(new String[] { isMac ? "CMD" : "CTRL", "L" });
-            Thread.sleep(200);
+            waited += waitForUiReaction().elapsedMillis();
 
             // Type the URL
             keyboardMovement.typeText(url);
-            Thread.sleep(100);
+            waited += waitForUiReaction().elapsedMillis();
 
             // Press Enter
+            long[] beforeAction = settleDetector.sampleNow();
             keyboardMovement.pressKey("ENTER");
 
-            waitForWindowRefresh();
-            return "Successfully navigated to '" + url + "' in Chrome.";
+            ScreenSettleDetector.SettleResult wait = waitForWindowRefresh(beforeAction);
+            return "Successfully navigated to '" + url + "' in Chrome (" + wait.describe()
+                    + ", " + (waited + wait.elapsedMillis()) + " ms waiting in total).";
         } catch (Exception e) {
             return "Error navigating to URL: " + e.getMessage();
         }
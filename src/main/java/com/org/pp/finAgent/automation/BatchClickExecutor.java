@@ -0,0 +1,276 @@
+package com.org.pp.finAgent.automation;
+
+import com.org.pp.finAgent.util.CaptureRegion;
+import com.org.pp.finAgent.util.ScreenCapture;
+import com.org.pp.finAgent.util.ScreenSettleDetector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.HeadlessException;
+import java.awt.MouseInfo;
+import java.awt.Point;
+import java.awt.PointerInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Sends many clicks as one batch, e.g. Ctrl+clicking every search result to
+ * open each in a new tab.
+ *
+ * The targets are reordered so the pointer travels as little as possible, sent
+ * to the {@link InputDispatcher} as a single uninterrupted batch (the modifier
+ * stays held from the first click to the last), and the batch is confirmed by
+ * watching a region of the screen for the clicks' effect instead of sleeping
+ * between clicks.
+ */
+@Service
+public class BatchClickExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(BatchClickExecutor.class.getName());
+    // Improving the order is quadratic per pass; beyond this many targets keep the greedy order
+    private static final int MAX_TARGETS_TO_IMPROVE = 200;
+
+    private final InputDispatcher inputDispatcher;
+    private final long confirmPollMillis;
+    private final long confirmQuietMillis;
+    private final long confirmMaxWaitMillis;
+
+    /**
+     * The timing of one click in a batch.
+     *
+     * @param index          The click's position in the caller's list of targets.
+     * @param x              Screen x of the click.
+     * @param y              Screen y of the click.
+     * @param offsetMillis   When the click was sent, relative to the start of the
+     *                       batch.
+     * @param durationMillis How long sending the click took.
+     */
+    public record ClickTiming(int index, int x, int y, double offsetMillis, double durationMillis) {
+    }
+
+    /**
+     * The outcome of a batch.
+     *
+     * @param clicks               The clicks in the order they were sent.
+     * @param travelPixels         Total pointer travel in the order sent.
+     * @param originalTravelPixels Total pointer travel in the caller's order.
+     * @param sendMillis           How long sending the whole batch took.
+     * @param confirmation         How long the watched region took to change and
+     *                             settle afterwards, or null if no region was
+     *                             watched.
+     */
+    public record BatchClickResult(List<ClickTiming> clicks, long travelPixels, long originalTravelPixels,
+            double sendMillis, ScreenSettleDetector.SettleResult confirmation) {
+
+        public BatchClickResult {
+            clicks = List.copyOf(clicks);
+        }
+
+        public static BatchClickResult empty() {
+            return new BatchClickResult(List.of(), 0, 0, 0, null);
+        }
+
+        public int count() {
+            return clicks.size();
+        }
+
+        /**
+         * A short human-readable summary suitable for tool responses.
+         */
+        public String describe() {
+            if (clicks.isEmpty()) {
+                return "no clicks sent";
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d click(s) sent in %.0f ms, pointer travel %d px (%d px unordered)",
+                    clicks.size(), sendMillis, travelPixels, originalTravelPixels));
+            if (confirmation != null) {
+                sb.append(", ").append(confirmation.describe());
+            }
+            sb.append("; per click:");
+            for (ClickTiming click : clicks) {
+                sb.append(String.format(" #%d at +%.0f ms (%.0f ms)", click.index() + 1, click.offsetMillis(),
+                        click.durationMillis()));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * @param confirmPollMillis    How often the watched region is sampled after a
+     *                             batch.
+     * @param confirmQuietMillis   How long the region must stay unchanged to count
+     *                             as settled.
+     * @param confirmMaxWaitMillis The longest time to wait for the region to
+     *                             change and settle.
+     */
+    public BatchClickExecutor(InputDispatcher inputDispatcher,
+            @Value("${input.batch-click.confirm-poll-ms:30}") long confirmPollMillis,
+            @Value("${input.batch-click.confirm-quiet-ms:150}") long confirmQuietMillis,
+            @Value("${input.batch-click.confirm-max-wait-ms:2000}") long confirmMaxWaitMillis) {
+        this.inputDispatcher = inputDispatcher;
+        this.confirmPollMillis = confirmPollMillis;
+        this.confirmQuietMillis = confirmQuietMillis;
+        this.confirmMaxWaitMillis = confirmMaxWaitMillis;
+    }
+
+    /**
+     * Clicks every target once, in the order that keeps pointer travel short.
+     *
+     * @param targets       Screen points to click.
+     * @param withModifier  Hold the shortcut modifier (Ctrl, or Cmd on macOS) for
+     *                      the whole batch, e.g. to open links in new tabs.
+     * @param confirmRegion The part of the screen where the clicks show their
+     *                      effect (e.g. {@link CaptureRegion#browserTabStrip()}),
+     *                      or null to return as soon as the clicks are sent.
+     * @return The timing of each click and of the confirmation.
+     * @throws IllegalArgumentException if a target is off any plausible screen;
+     *                                  nothing is clicked then.
+     */
+    public BatchClickResult clickAll(List<Point> targets, boolean withModifier, CaptureRegion confirmRegion) {
+        if (targets.isEmpty()) {
+            return BatchClickResult.empty();
+        }
+        Point start = pointerLocation();
+        int[] order = order(targets, start);
+
+        List<InputCommand.Click> batch = new ArrayList<>(order.length);
+        for (int index : order) {
+            Point target = targets.get(index);
+            batch.add(withModifier
+                    ? InputCommand.modifierClick(target.x, target.y)
+                    : InputCommand.click(target.x, target.y));
+        }
+
+        // Sample before clicking, so tabs that open while the batch is still being sent count as a change.
+        // The region is resolved once: the clicks do not move the window, and resolving can spawn a process.
+        ScreenSettleDetector confirmDetector = confirmRegion == null ? null
+                : new ScreenSettleDetector(ScreenCapture.pin(confirmRegion), confirmPollMillis, confirmQuietMillis,
+                        confirmMaxWaitMillis);
+        long[] baseline = confirmDetector == null ? null : confirmDetector.sampleNow();
+
+        long sendStart = System.nanoTime();
+        long[] durations = inputDispatcher.submitAll(batch).join();
+        long sendNanos = System.nanoTime() - sendStart;
+
+        List<ClickTiming> clicks = new ArrayList<>(order.length);
+        long offset = sendNanos - sum(durations); // Time spent waiting in the dispatcher's queue
+        for (int i = 0; i < order.length; i++) {
+            InputCommand.Click click = batch.get(i);
+            clicks.add(new ClickTiming(order[i], click.x(), click.y(), toMillis(offset), toMillis(durations[i])));
+            offset += durations[i];
+        }
+
+        ScreenSettleDetector.SettleResult confirmation = confirmDetector == null ? null
+                : confirmDetector.waitForChangeSince(baseline, confirmMaxWaitMillis);
+        BatchClickResult result = new BatchClickResult(clicks, travel(targets, order, start),
+                travel(targets, identity(targets.size()), start), toMillis(sendNanos), confirmation);
+        LOGGER.info("Batch click: " + result.describe());
+        return result;
+    }
+
+    /**
+     * Orders targets for a short pointer path: nearest neighbour from the start
+     * point, then 2-opt passes that reverse any stretch of the path which makes
+     * it shorter. Search results are a handful of points, so this is exact enough
+     * and far cheaper than the clicks themselves.
+     *
+     * @return Indexes into targets in click order.
+     */
+    static int[] order(List<Point> targets, Point start) {
+        int n = targets.size();
+        int[] order = new int[n];
+        boolean[] used = new boolean[n];
+        Point current = start;
+        for (int i = 0; i < n; i++) {
+            int nearest = -1;
+            double best = Double.MAX_VALUE;
+            for (int j = 0; j < n; j++) {
+                if (!used[j]) {
+                    double d = current.distanceSq(targets.get(j));
+                    if (d < best) {
+                        best = d;
+                        nearest = j;
+                    }
+                }
+            }
+            used[nearest] = true;
+            order[i] = nearest;
+            current = targets.get(nearest);
+        }
+
+        if (n <= MAX_TARGETS_TO_IMPROVE) {
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                // Reversing order[i..j] replaces edges (prev,i) and (j,next); the path end is open
+                for (int i = 0; i < n - 1; i++) {
+                    Point before = i == 0 ? start : targets.get(order[i - 1]);
+                    for (int j = i + 1; j < n; j++) {
+                        Point first = targets.get(order[i]);
+                        Point last = targets.get(order[j]);
+                        Point after = j == n - 1 ? null : targets.get(order[j + 1]);
+                        double kept = before.distance(first) + (after == null ? 0 : last.distance(after));
+                        double reversed = before.distance(last) + (after == null ? 0 : first.distance(after));
+                        if (reversed + 1e-9 < kept) {
+                            reverse(order, i, j);
+                            improved = true;
+                        }
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    private static void reverse(int[] order, int from, int to) {
+        while (from < to) {
+            int tmp = order[from];
+            order[from++] = order[to];
+            order[to--] = tmp;
+        }
+    }
+
+    private static long travel(List<Point> targets, int[] order, Point start) {
+        double total = 0;
+        Point current = start;
+        for (int index : order) {
+            Point next = targets.get(index);
+            total += current.distance(next);
+            current = next;
+        }
+        return Math.round(total);
+    }
+
+    private static int[] identity(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static Point pointerLocation() {
+        try {
+            // Null when the pointer is on no known screen
+            PointerInfo pointer = MouseInfo.getPointerInfo();
+            return pointer != null ? pointer.getLocation() : new Point(0, 0);
+        } catch (HeadlessException e) {
+            return new Point(0, 0);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.org.pp.finAgent.automation;
+
+import java.util.List;
+
+/**
+ * One mouse or keyboard action for the {@link InputDispatcher}. Keys are
+ * {@link java.awt.event.KeyEvent} key codes; names such as "ENTER" or "CMD" are
+ * resolved by {@link KeyboardMovement} before a command is built.
+ *
+ * Commands are plain values; {@link InputCommandValidator} decides whether one
+ * may be sent, and {@link InputCommandCodec} encodes them for out-of-process
+ * drivers.
+ */
+public sealed interface InputCommand {
+
+    /**
+     * Moves the pointer without clicking.
+     */
+    record MoveMouse(int x, int y) implements InputCommand {
+    }
+
+    /**
+     * Moves the pointer and clicks.
+     *
+     * @param count        1 for a single click, 2 for a double click, 3 for a
+     *                     triple click.
+     * @param withModifier Hold the platform's shortcut modifier (Command on macOS,
+     *                     Control elsewhere) during the click, e.g. to open a
+     *                     link in a new tab.
+     */
+    record Click(int x, int y, MouseButton button, int count, boolean withModifier) implements InputCommand {
+    }
+
+    /**
+     * Turns the mouse wheel; negative amounts scroll up.
+     */
+    record Scroll(int amount) implements InputCommand {
+    }
+
+    /**
+     * Types text through the given path.
+     */
+    record TypeText(String text, KeyboardMovement.TypingStrategy strategy) implements InputCommand {
+    }
+
+    /**
+     * Presses and releases one key.
+     */
+    record PressKey(int keyCode) implements InputCommand {
+    }
+
+    /**
+     * Presses keys in order and releases them in reverse order, e.g. Ctrl+Shift+N.
+     */
+    record PressKeyCombination(List<Integer> keyCodes) implements InputCommand {
+        public PressKeyCombination {
+            keyCodes = List.copyOf(keyCodes);
+        }
+    }
+
+    static Click click(int x, int y) {
+        return new Click(x, y, MouseButton.LEFT, 1, false);
+    }
+
+    /**
+     * A left click with the shortcut modifier held (Ctrl+click, or Cmd+click on
+     * macOS).
+     */
+    static Click modifierClick(int x, int y) {
+        return new Click(x, y, MouseButton.LEFT, 1, true);
+    }
+}
@@ -0,0 +1,341 @@
+package com.org.pp.finAgent.automation;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes {@link InputCommand}s in the protobuf wire format, for input drivers
+ * that run in another process or on another machine. The schema is
+ * {@code proto/input_command.proto} on the classpath; other languages can
+ * generate bindings from it. The encoding is written directly with the
+ * protobuf-java runtime, so no generated classes or intermediate message
+ * objects are involved.
+ *
+ * As in proto3, fields holding their default value are left out, which keeps a
+ * left click to about ten bytes. A missing click count means 1. Decoded
+ * commands go through {@link InputCommandValidator}, the same checks as
+ * in-process commands.
+ */
+public final class InputCommandCodec {
+
+    // InputCommand: one of
+    private static final int MOVE_MOUSE = 1;
+    private static final int CLICK = 2;
+    private static final int SCROLL = 3;
+    private static final int TYPE_TEXT = 4;
+    private static final int PRESS_KEY = 5;
+    private static final int PRESS_KEY_COMBINATION = 6;
+    // InputBatch
+    private static final int BATCH_COMMANDS = 1;
+
+    // Enum values by schema number; the Java enums declare them in the same order, so ordinal() encodes
+    private static final MouseButton[] BUTTONS = { MouseButton.LEFT, MouseButton.MIDDLE, MouseButton.RIGHT };
+    private static final KeyboardMovement.TypingStrategy[] STRATEGIES = {
+            KeyboardMovement.TypingStrategy.KEYSTROKES, KeyboardMovement.TypingStrategy.CLIPBOARD_PASTE };
+
+    private InputCommandCodec() {
+    }
+
+    /**
+     * Encodes one command as an {@code InputCommand} message.
+     */
+    public static byte[] encode(InputCommand command) {
+        byte[] bytes = new byte[envelopeSize(command)];
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        try {
+            writeEnvelope(out, command);
+            out.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException("Input command size was miscomputed", e);
+        }
+        return bytes;
+    }
+
+    /**
+     * Encodes commands as an {@code InputBatch} message.
+     */
+    public static byte[] encodeBatch(List<? extends InputCommand> commands) {
+        int size = 0;
+        for (InputCommand command : commands) {
+            size += CodedOutputStream.computeTagSize(BATCH_COMMANDS) + lengthDelimitedSize(envelopeSize(command));
+        }
+        byte[] bytes = new byte[size];
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        try {
+            for (InputCommand command : commands) {
+                out.writeTag(BATCH_COMMANDS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                out.writeUInt32NoTag(envelopeSize(command));
+                writeEnvelope(out, command);
+            }
+            out.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException("Input batch size was miscomputed", e);
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes and validates an {@code InputCommand} message.
+     *
+     * @throws InvalidProtocolBufferException if the bytes are not a well-formed
+     *                                        command.
+     * @throws IllegalArgumentException       if the command is well-formed but
+     *                                        invalid.
+     */
+    public static InputCommand decode(byte[] bytes) throws InvalidProtocolBufferException {
+        try {
+            return readEnvelope(CodedInputStream.newInstance(bytes));
+        } catch (InvalidProtocolBufferException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new InvalidProtocolBufferException(e);
+        }
+    }
+
+    /**
+     * Decodes and validates an {@code InputBatch} message.
+     *
+     * @throws InvalidProtocolBufferException if the bytes are not a well-formed
+     *                                        batch.
+     * @throws IllegalArgumentException       if a command is well-formed but
+     *                                        invalid.
+     */
+    public static List<InputCommand> decodeBatch(byte[] bytes) throws InvalidProtocolBufferException {
+        try {
+            CodedInputStream in = CodedInputStream.newInstance(bytes);
+            List<InputCommand> commands = new ArrayList<>();
+            int tag;
+            while ((tag = in.readTag()) != 0) {
+                if (tag == tag(BATCH_COMMANDS, WireFormat.WIRETYPE_LENGTH_DELIMITED)) {
+                    int limit = in.pushLimit(in.readRawVarint32());
+                    commands.add(readEnvelope(in));
+                    in.popLimit(limit);
+                } else if (!in.skipField(tag)) {
+                    break;
+                }
+            }
+            return commands;
+        } catch (InvalidProtocolBufferException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new InvalidProtocolBufferException(e);
+        }
+    }
+
+    // ---- Encoding
+
+    private static int field(InputCommand command) {
+        return switch (command) {
+            case InputCommand.MoveMouse move -> MOVE_MOUSE;
+            case InputCommand.Click click -> CLICK;
+            case InputCommand.Scroll scroll -> SCROLL;
+            case InputCommand.TypeText type -> TYPE_TEXT;
+            case InputCommand.PressKey key -> PRESS_KEY;
+            case InputCommand.PressKeyCombination combination -> PRESS_KEY_COMBINATION;
+        };
+    }
+
+    private static int envelopeSize(InputCommand command) {
+        return CodedOutputStream.computeTagSize(field(command)) + lengthDelimitedSize(bodySize(command));
+    }
+
+    private static int lengthDelimitedSize(int length) {
+        return CodedOutputStream.computeUInt32SizeNoTag(length) + length;
+    }
+
+    private static void writeEnvelope(CodedOutputStream out, InputCommand command) throws IOException {
+        out.writeTag(field(command), WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        out.writeUInt32NoTag(bodySize(command));
+        writeBody(out, command);
+    }
+
+    private static int bodySize(InputCommand command) {
+        return switch (command) {
+            case InputCommand.MoveMouse move -> sintSize(1, move.x()) + sintSize(2, move.y());
+            case InputCommand.Click click -> sintSize(1, click.x()) + sintSize(2, click.y())
+                    + enumSize(3, click.button().ordinal())
+                    + (click.count() == 1 ? 0 : CodedOutputStream.computeUInt32Size(4, click.count()))
+                    + (click.withModifier() ? CodedOutputStream.computeBoolSize(5, true) : 0);
+            case InputCommand.Scroll scroll -> sintSize(1, scroll.amount());
+            case InputCommand.TypeText type -> CodedOutputStream.computeStringSize(1, type.text())
+                    + enumSize(2, type.strategy().ordinal());
+            case InputCommand.PressKey key -> CodedOutputStream.computeUInt32Size(1, key.keyCode());
+            case InputCommand.PressKeyCombination combination -> {
+                int packed = packedSize(combination.keyCodes());
+                yield CodedOutputStream.computeTagSize(1) + lengthDelimitedSize(packed);
+            }
+        };
+    }
+
+    private static void writeBody(CodedOutputStream out, InputCommand command) throws IOException {
+        switch (command) {
+            case InputCommand.MoveMouse move -> {
+                writeSInt(out, 1, move.x());
+                writeSInt(out, 2, move.y());
+            }
+            case InputCommand.Click click -> {
+                writeSInt(out, 1, click.x());
+                writeSInt(out, 2, click.y());
+                writeEnum(out, 3, click.button().ordinal());
+                if (click.count() != 1) {
+                    out.writeUInt32(4, click.count());
+                }
+                if (click.withModifier()) {
+                    out.writeBool(5, true);
+                }
+            }
+            case InputCommand.Scroll scroll -> writeSInt(out, 1, scroll.amount());
+            case InputCommand.TypeText type -> {
+                out.writeString(1, type.text());
+                writeEnum(out, 2, type.strategy().ordinal());
+            }
+            case InputCommand.PressKey key -> out.writeUInt32(1, key.keyCode());
+            case InputCommand.PressKeyCombination combination -> {
+                out.writeTag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                out.writeUInt32NoTag(packedSize(combination.keyCodes()));
+                for (int keyCode : combination.keyCodes()) {
+                    out.writeUInt32NoTag(keyCode);
+                }
+            }
+        }
+    }
+
+    private static int sintSize(int field, int value) {
+        return value == 0 ? 0 : CodedOutputStream.computeSInt32Size(field, value);
+    }
+
+    private static int enumSize(int field, int value) {
+        return value == 0 ? 0 : CodedOutputStream.computeEnumSize(field, value);
+    }
+
+    private static int packedSize(List<Integer> values) {
+        int size = 0;
+        for (int value : values) {
+            size += CodedOutputStream.computeUInt32SizeNoTag(value);
+        }
+        return size;
+    }
+
+    private static void writeSInt(CodedOutputStream out, int field, int value) throws IOException {
+        if (value != 0) {
+            out.writeSInt32(field, value);
+        }
+    }
+
+    private static void writeEnum(CodedOutputStream out, int field, int value) throws IOException {
+        if (value != 0) {
+            out.writeEnum(field, value);
+        }
+    }
+
+    // ---- Decoding
+
+    private static int tag(int field, int wireType) {
+        return field << 3 | wireType;
+    }
+
+    private static InputCommand readEnvelope(CodedInputStream in) throws IOException {
+        InputCommand command = null;
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            int field = WireFormat.getTagFieldNumber(tag);
+            if (field >= MOVE_MOUSE && field <= PRESS_KEY_COMBINATION
+                    && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                command = readBody(field, in); // As with any oneof, the last one wins
+                in.popLimit(limit);
+            } else if (!in.skipField(tag)) {
+                break;
+            }
+        }
+        if (command == null) {
+            throw new InvalidProtocolBufferException("Input command has no action");
+        }
+        return InputCommandValidator.validate(command);
+    }
+
+    private static InputCommand readBody(int field, CodedInputStream in) throws IOException {
+        int x = 0;
+        int y = 0;
+        int amount = 0;
+        int button = 0;
+        int count = 0;
+        boolean withModifier = false;
+        String text = "";
+        int strategy = 0;
+        int keyCode = 0;
+        List<Integer> keyCodes = new ArrayList<>();
+
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            int number = WireFormat.getTagFieldNumber(tag);
+            int wireType = WireFormat.getTagWireType(tag);
+            if (field == PRESS_KEY_COMBINATION && number == 1) {
+                readUInt32s(in, wireType, keyCodes);
+            } else if (field == TYPE_TEXT && number == 1 && wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                text = in.readStringRequireUtf8();
+            } else if (wireType != WireFormat.WIRETYPE_VARINT) {
+                in.skipField(tag);
+            } else if (field == MOVE_MOUSE || field == CLICK) {
+                switch (number) {
+                    case 1 -> x = in.readSInt32();
+                    case 2 -> y = in.readSInt32();
+                    case 3 -> button = in.readEnum();
+                    case 4 -> count = in.readUInt32();
+                    case 5 -> withModifier = in.readBool();
+                    default -> in.skipField(tag);
+                }
+            } else if (field == SCROLL && number == 1) {
+                amount = in.readSInt32();
+            } else if (field == TYPE_TEXT && number == 2) {
+                strategy = in.readEnum();
+            } else if (field == PRESS_KEY && number == 1) {
+                keyCode = in.readUInt32();
+            } else {
+                in.skipField(tag);
+            }
+        }
+
+        return switch (field) {
+            case MOVE_MOUSE -> new InputCommand.MoveMouse(x, y);
+            case CLICK -> new InputCommand.Click(x, y, enumValue(BUTTONS, button, "mouse button"),
+                    count == 0 ? 1 : count, withModifier);
+            case SCROLL -> new InputCommand.Scroll(amount);
+            case TYPE_TEXT -> new InputCommand.TypeText(text, enumValue(STRATEGIES, strategy, "typing strategy"));
+            case PRESS_KEY -> new InputCommand.PressKey(keyCode);
+            default -> new InputCommand.PressKeyCombination(keyCodes);
+        };
+    }
+
+    /**
+     * Reads a repeated uint32 field, packed or not.
+     *
+     * @throws InvalidProtocolBufferException if the field is neither.
+     */
+    private static void readUInt32s(CodedInputStream in, int wireType, List<Integer> values) throws IOException {
+        if (wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+            int limit = in.pushLimit(in.readRawVarint32());
+            while (in.getBytesUntilLimit() > 0) {
+                values.add(in.readUInt32());
+            }
+            in.popLimit(limit);
+        } else if (wireType == WireFormat.WIRETYPE_VARINT) {
+            values.add(in.readUInt32());
+        } else {
+            throw new InvalidProtocolBufferException("Key codes have wire type " + wireType + ", expected uint32");
+        }
+    }
+
+    private static <E> E enumValue(E[] values, int number, String name) throws InvalidProtocolBufferException {
+        if (number < 0 || number >= values.length) {
+            throw new InvalidProtocolBufferException("Unknown " + name + ": " + number);
+        }
+        return values[number];
+    }
+}
@@ -0,0 +1,92 @@
+package com.org.pp.finAgent.automation;
+
+import java.awt.event.KeyEvent;
+import java.util.List;
+
+/**
+ * The checks every {@link InputCommand} passes before it reaches the Robot,
+ * whether it was built in-process, parsed from JSON or decoded from the binary
+ * protocol ({@link InputCommandCodec}). {@link InputDispatcher} validates
+ * everything submitted to it, so invalid commands fail at the caller instead
+ * of being logged and dropped on the input thread.
+ */
+public final class InputCommandValidator {
+
+    // Far beyond any real desktop, but catches garbage from a bad decode
+    static final int MAX_COORDINATE = 1 << 15;
+    static final int MAX_CLICK_COUNT = 3;
+    static final int MAX_SCROLL_AMOUNT = 100;
+    static final int MAX_TEXT_LENGTH = 10_000;
+    static final int MAX_COMBINATION_KEYS = 5;
+
+    private InputCommandValidator() {
+    }
+
+    /**
+     * Checks a command.
+     *
+     * @return The command, for chaining.
+     * @throws IllegalArgumentException if the command is invalid, with the
+     *                                  reason.
+     */
+    public static <C extends InputCommand> C validate(C command) {
+        if (command == null) {
+            throw new IllegalArgumentException("Input command is null");
+        }
+        switch (command) {
+            case InputCommand.MoveMouse move -> checkPoint(move.x(), move.y());
+            case InputCommand.Click click -> {
+                checkPoint(click.x(), click.y());
+                if (click.button() == null) {
+                    throw new IllegalArgumentException("Click has no mouse button");
+                }
+                if (click.count() < 1 || click.count() > MAX_CLICK_COUNT) {
+                    throw new IllegalArgumentException(
+                            "Click count must be 1 to " + MAX_CLICK_COUNT + ", was " + click.count());
+                }
+            }
+            case InputCommand.Scroll scroll -> {
+                if (Math.abs(scroll.amount()) > MAX_SCROLL_AMOUNT) {
+                    throw new IllegalArgumentException(
+                            "Scroll amount must be within +/-" + MAX_SCROLL_AMOUNT + ", was " + scroll.amount());
+                }
+            }
+            case InputCommand.TypeText type -> {
+                if (type.text() == null || type.text().isEmpty()) {
+                    throw new IllegalArgumentException("Text to type is empty");
+                }
+                if (type.text().length() > MAX_TEXT_LENGTH) {
+                    throw new IllegalArgumentException("Text to type is longer than " + MAX_TEXT_LENGTH
+                            + " characters (" + type.text().length() + ")");
+                }
+                if (type.strategy() == null) {
+                    throw new IllegalArgumentException("Text to type has no typing strategy");
+                }
+            }
+            case InputCommand.PressKey key -> checkKeyCode(key.keyCode());
+            case InputCommand.PressKeyCombination combination -> {
+                List<Integer> keyCodes = combination.keyCodes();
+                if (keyCodes.isEmpty() || keyCodes.size() > MAX_COMBINATION_KEYS) {
+                    throw new IllegalArgumentException("Key combination must have 1 to " + MAX_COMBINATION_KEYS
+                            + " keys, had " + keyCodes.size());
+                }
+                for (int keyCode : keyCodes) {
+                    checkKeyCode(keyCode);
+                }
+            }
+        }
+        return command;
+    }
+
+    private static void checkPoint(int x, int y) {
+        if (Math.abs(x) > MAX_COORDINATE || Math.abs(y) > MAX_COORDINATE) {
+            throw new IllegalArgumentException("Coordinates out of range: [x=" + x + ", y=" + y + "]");
+        }
+    }
+
+    private static void checkKeyCode(int keyCode) {
+        if (keyCode <= KeyEvent.VK_UNDEFINED || keyCode > 0xFFFF) {
+            throw new IllegalArgumentException("Invalid key code: " + keyCode);
+        }
+    }
+}
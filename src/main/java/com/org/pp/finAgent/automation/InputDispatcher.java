@@ -0,0 +1,329 @@
+package com.org.pp.finAgent.automation;
+
+import com.org.pp.finAgent.util.RobotProvider;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.AWTException;
+import java.awt.Robot;
+import java.awt.Toolkit;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.StringSelection;
+import java.awt.datatransfer.Transferable;
+import java.awt.event.KeyEvent;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The only code that sends mouse and keyboard events. A single thread owns the
+ * {@link Robot} and runs {@link InputCommand}s from a queue in submission order,
+ * so events from concurrent callers never interleave (a click cannot land
+ * between the Shift press and release of someone else's keystroke).
+ *
+ * Every submit returns a {@link CompletableFuture} that completes once the
+ * events have been sent. Callers that need the result before going on join it;
+ * callers that can overlap input with capture or OCR keep going and join later.
+ * A batch runs as one uninterrupted sequence, and {@link #flush()} is a barrier
+ * that completes once everything submitted before it has run.
+ *
+ * Commands are checked by {@link InputCommandValidator} when they are
+ * submitted, so an invalid one throws at the caller and nothing is queued.
+ *
+ * {@link MouseMovement} and {@link KeyboardMovement} translate key names, JSON
+ * commands and typing strategies into commands for this dispatcher.
+ */
+@Service
+public class InputDispatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(InputDispatcher.class.getName());
+    // The target application reads the clipboard asynchronously after the paste shortcut
+    private static final int CLIPBOARD_RESTORE_DELAY_MILLIS = 150;
+
+    private final Robot robot;
+    private final boolean isMacOS;
+    private final KeystrokeExecutor keystrokeExecutor;
+    private final BlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private record Task(Runnable work, CompletableFuture<?> result) {
+    }
+
+    /**
+     * @param eventDelayMillis The pause between key events when typing text key
+     *                         by key.
+     */
+    public InputDispatcher(@Value("${input.typing.event-delay-ms:5}") int eventDelayMillis) throws AWTException {
+        this.robot = RobotProvider.forDefaultScreen(); // Shared with screen capture
+        this.robot.setAutoDelay(50); // A small delay between robot events
+        this.isMacOS = System.getProperty("os.name").toLowerCase().contains("mac");
+        this.keystrokeExecutor = new KeystrokeExecutor(robot, eventDelayMillis);
+
+        this.worker = new Thread(this::drainLoop, "input-dispatch");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queues a command.
+     *
+     * @return Completes once the command's events have been sent.
+     * @throws IllegalArgumentException if the command is invalid.
+     */
+    public CompletableFuture<Void> submit(InputCommand command) {
+        InputCommandValidator.validate(command);
+        return enqueue(() -> {
+            execute(command);
+            return null;
+        });
+    }
+
+    /**
+     * Queues text to type.
+     *
+     * @return Completes with the path used and the time taken once the text has
+     *         been sent.
+     * @throws IllegalArgumentException if the command is invalid.
+     */
+    public CompletableFuture<KeyboardMovement.TypingResult> type(InputCommand.TypeText command) {
+        InputCommandValidator.validate(command);
+        return enqueue(() -> typeText(command));
+    }
+
+    /**
+     * Queues commands that run back to back, with no other caller's commands in
+     * between, e.g. a move followed by several Ctrl+clicks. Consecutive modifier
+     * clicks share one press of the modifier, which stays down from the first
+     * of them to the last. If one command fails, the rest are skipped.
+     *
+     * @return Completes once the last command's events have been sent, with how
+     *         long each command took, in nanoseconds.
+     * @throws IllegalArgumentException if any command is invalid; none are
+     *                                  queued then.
+     */
+    public CompletableFuture<long[]> submitAll(List<? extends InputCommand> commands) {
+        List<InputCommand> batch = List.copyOf(commands);
+        batch.forEach(InputCommandValidator::validate);
+        return enqueue(() -> executeBatch(batch));
+    }
+
+    /**
+     * Returns a future that completes once every command submitted before this
+     * call has run.
+     */
+    public CompletableFuture<Void> flush() {
+        return enqueue(() -> null);
+    }
+
+    /**
+     * Commands waiting to run, not counting the one running now.
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+        Task task;
+        while ((task = queue.poll()) != null) {
+            task.result().completeExceptionally(new CancellationException("Input dispatcher shut down"));
+        }
+    }
+
+    private <T> CompletableFuture<T> enqueue(Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(new RejectedExecutionException("Input dispatcher is shut down"));
+            return result;
+        }
+        queue.add(new Task(() -> {
+            try {
+                result.complete(work.call());
+            } catch (Throwable e) {
+                // Errors from the Robot or JNA too: a caller joining this future must not wait forever
+                result.completeExceptionally(e);
+            }
+        }, result));
+        return result;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                queue.take().work().run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                // Keep the only input thread alive, or every later submit would block its caller
+                LOGGER.log(Level.SEVERE, "An input command failed outside its future.", e);
+            }
+        }
+    }
+
+    private void execute(InputCommand command) {
+        switch (command) {
+            case InputCommand.MoveMouse move -> robot.mouseMove(move.x(), move.y());
+            case InputCommand.Click click -> click(click);
+            case InputCommand.Scroll scroll -> robot.mouseWheel(scroll.amount());
+            case InputCommand.TypeText text -> typeText(text);
+            case InputCommand.PressKey key -> {
+                robot.keyPress(key.keyCode());
+                robot.keyRelease(key.keyCode());
+            }
+            case InputCommand.PressKeyCombination combination -> pressKeyCombination(combination.keyCodes());
+        }
+    }
+
+    private long[] executeBatch(List<InputCommand> batch) {
+        long[] durations = new long[batch.size()];
+        RobotPacing.withoutAutoDelay(robot, () -> {
+            boolean modifierDown = false;
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    long start = System.nanoTime();
+                    InputCommand command = batch.get(i);
+                    boolean wantsModifier = command instanceof InputCommand.Click click && click.withModifier();
+                    if (wantsModifier != modifierDown) {
+                        if (wantsModifier) {
+                            robot.keyPress(modifierKey());
+                        } else {
+                            robot.keyRelease(modifierKey());
+                        }
+                        modifierDown = wantsModifier;
+                    }
+                    if (command instanceof InputCommand.Click click) {
+                        moveAndClick(click);
+                    } else {
+                        execute(command);
+                    }
+                    durations[i] = System.nanoTime() - start;
+                }
+            } finally {
+                if (modifierDown) {
+                    robot.keyRelease(modifierKey());
+                }
+            }
+        });
+        return durations;
+    }
+
+    /**
+     * The shortcut modifier: Command on macOS (the standard for multi-select and
+     * new-tab clicks), Control elsewhere.
+     */
+    private int modifierKey() {
+        return isMacOS ? KeyEvent.VK_META : KeyEvent.VK_CONTROL;
+    }
+
+    /**
+     * Moves and clicks, holding the shortcut modifier if the click asks for it.
+     */
+    private void click(InputCommand.Click click) {
+        if (click.withModifier()) {
+            robot.keyPress(modifierKey());
+        }
+        try {
+            moveAndClick(click);
+        } finally {
+            if (click.withModifier()) {
+                robot.keyRelease(modifierKey());
+            }
+        }
+    }
+
+    private void moveAndClick(InputCommand.Click click) {
+        robot.mouseMove(click.x(), click.y());
+        int mask = click.button().mask();
+        for (int i = 0; i < click.count(); i++) {
+            robot.mousePress(mask);
+            robot.mouseRelease(mask);
+        }
+    }
+
+    private void pressKeyCombination(List<Integer> keyCodes) {
+        for (int keyCode : keyCodes) {
+            robot.keyPress(keyCode);
+        }
+        for (int i = keyCodes.size() - 1; i >= 0; i--) {
+            robot.keyRelease(keyCodes.get(i));
+        }
+    }
+
+    private KeyboardMovement.TypingResult typeText(InputCommand.TypeText command) {
+        String text = command.text();
+        long start = System.currentTimeMillis();
+
+        if (command.strategy() == KeyboardMovement.TypingStrategy.CLIPBOARD_PASTE) {
+            try {
+                pasteText(text);
+                return new KeyboardMovement.TypingResult(KeyboardMovement.TypingStrategy.CLIPBOARD_PASTE,
+                        text.length(), 0, System.currentTimeMillis() - start);
+            } catch (IllegalStateException e) {
+                LOGGER.log(Level.WARNING, "Clipboard unavailable, typing key by key instead.", e);
+            }
+        }
+
+        KeystrokeProgram program = KeystrokeProgram.compile(text);
+        if (program.skipped() > 0) {
+            LOGGER.warning("Cannot type " + program.skipped() + " character(s) of: " + text);
+        }
+        keystrokeExecutor.run(program);
+        return new KeyboardMovement.TypingResult(KeyboardMovement.TypingStrategy.KEYSTROKES, text.length(),
+                program.skipped(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Pastes text through the system clipboard, then puts back what the
+     * clipboard held before.
+     *
+     * @throws IllegalStateException if the clipboard is unavailable.
+     */
+    private void pasteText(String text) {
+        Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+        Transferable previous = snapshot(clipboard.getContents(null));
+        clipboard.setContents(new StringSelection(text), null);
+
+        int modifier = modifierKey();
+        robot.keyPress(modifier);
+        robot.keyPress(KeyEvent.VK_V);
+        robot.keyRelease(KeyEvent.VK_V);
+        robot.keyRelease(modifier);
+
+        robot.delay(CLIPBOARD_RESTORE_DELAY_MILLIS);
+        if (previous != null) {
+            try {
+                clipboard.setContents(previous, null);
+            } catch (IllegalStateException e) {
+                LOGGER.log(Level.WARNING, "Could not restore the previous clipboard contents.", e);
+            }
+        }
+    }
+
+    /**
+     * Copies text out of a clipboard transferable, since the original may read
+     * from its owner lazily and stop working once we take the clipboard over.
+     * Other contents are kept as they are.
+     */
+    private static Transferable snapshot(Transferable contents) {
+        if (contents != null && contents.isDataFlavorSupported(DataFlavor.stringFlavor)) {
+            try {
+                return new StringSelection((String) contents.getTransferData(DataFlavor.stringFlavor));
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Could not read the clipboard as text; keeping it as is.", e);
+            }
+        }
+        return contents;
+    }
+}
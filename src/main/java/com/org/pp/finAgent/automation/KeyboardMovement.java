@@ -2,24 +2,61 @@ package com.org.pp.finAgent.automation;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.awt.AWTException;
-import java.awt.Robot;
 import java.awt.event.KeyEvent;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Keyboard input by key name, JSON command or text. Key names are resolved and
+ * typing strategies chosen here; the events are sent by {@link InputDispatcher},
+ * and each method returns once they have been.
+ */
 @Service
 public class KeyboardMovement {
 
     private static final Logger LOGGER = Logger.getLogger(KeyboardMovement.class.getName());
-    private final Robot robot;
+
+    private final InputDispatcher inputDispatcher;
     private final Gson gson = new Gson();
     private final boolean isMacOS;
     private final Map<String, Integer> keyCodeMap = new HashMap<>();
+    private final int pasteMinLength;
+
+    /**
+     * How {@link #typeText(String)} gets text into the focused application.
+     */
+    public enum TypingStrategy {
+        /** One key press and release per character (plus Shift where needed). */
+        KEYSTROKES,
+        /** Put the text on the system clipboard and send the paste shortcut. */
+        CLIPBOARD_PASTE
+    }
+
+    /**
+     * The outcome of typing a piece of text.
+     *
+     * @param strategy      The path the text was sent through.
+     * @param characters    The number of characters in the text.
+     * @param skipped       Characters that could not be typed and were left out.
+     * @param elapsedMillis How long typing took.
+     */
+    public record TypingResult(TypingStrategy strategy, int characters, int skipped, long elapsedMillis) {
+
+        /**
+         * A short human-readable summary suitable for tool responses.
+         */
+        public String describe() {
+            String path = strategy == TypingStrategy.CLIPBOARD_PASTE ? "pasted via clipboard" : "typed as keystrokes";
+            return characters + " character(s) " + path + " in " + elapsedMillis + " ms"
+                    + (skipped > 0 ? ", " + skipped + " untypeable character(s) skipped" : "");
+        }
+    }
 
     // A simple data class to hold the deserialized command
     private static class KeyboardCommand {
@@ -29,10 +66,16 @@ public class KeyboardMovement {
         String[] keys; // For key combinations
     }
 
-    public KeyboardMovement() throws AWTException {
-        this.robot = new Robot();
-        this.robot.setAutoDelay(50); // A small delay between robot events
+    /**
+     * @param inputDispatcher Sends the key events.
+     * @param pasteMinLength  Text at least this long is pasted through the
+     *                        clipboard instead of typed key by key.
+     */
+    public KeyboardMovement(InputDispatcher inputDispatcher,
+            @Value("${input.typing.paste-min-length:16}") int pasteMinLength) {
+        this.inputDispatcher = inputDispatcher;
         this.isMacOS = System.getProperty("os.name").toLowerCase().contains("mac");
+        this.pasteMinLength = pasteMinLength;
         initializeKeyCodeMap();
         LOGGER.info("KeyboardMovement initialized. Detected OS: " + (isMacOS ? "macOS" : "Windows/Linux"));
     }
@@ -84,202 +127,140 @@ public class KeyboardMovement {
         keyCodeMap.put("PAGE_DOWN", KeyEvent.VK_PAGE_DOWN);
     }
 
+    /**
+     * Runs a JSON keyboard command, e.g. {@code {"action":"PRESS_KEY", "key":"ENTER"}}.
+     * In-process callers should use the typed methods instead; this is for
+     * commands that arrive as text.
+     *
+     * @throws IllegalArgumentException if the JSON is malformed or the command
+     *                                  is invalid.
+     */
     public void executeCommand(String jsonCommand) {
-        try {
-            KeyboardCommand command = gson.fromJson(jsonCommand, KeyboardCommand.class);
-            if (command == null || command.action == null) {
-                LOGGER.warning("Invalid or empty command received: " + jsonCommand);
-                return;
-            }
-
-            LOGGER.info("Executing keyboard action: " + command.action);
-
-            switch (command.action.toUpperCase()) {
-                case "TYPE_TEXT":
-                    if (command.text != null) {
-                        typeText(command.text);
-                    }
-                    break;
-
-                case "PRESS_KEY":
-                    if (command.key != null) {
-                        pressKey(command.key);
-                    }
-                    break;
-
-                case "PRESS_KEY_COMBINATION":
-                    if (command.keys != null && command.keys.length > 0) {
-                        pressKeyCombination(command.keys);
-                    }
-                    break;
+        InputCommand command = parseCommand(jsonCommand);
+        LOGGER.info("Executing keyboard action: " + command);
+        if (command instanceof InputCommand.TypeText type) {
+            inputDispatcher.type(type).join();
+        } else {
+            inputDispatcher.submit(command).join();
+        }
+    }
 
-                default:
-                    LOGGER.warning("Unknown action: " + command.action);
-                    break;
-            }
+    /**
+     * Converts a JSON keyboard command into a validated {@link InputCommand},
+     * resolving key names and choosing the typing strategy.
+     *
+     * @throws IllegalArgumentException if the JSON is malformed or the command
+     *                                  is invalid.
+     */
+    public InputCommand parseCommand(String jsonCommand) {
+        KeyboardCommand command;
+        try {
+            command = gson.fromJson(jsonCommand, KeyboardCommand.class);
         } catch (JsonSyntaxException e) {
-            LOGGER.log(Level.SEVERE, "Failed to parse JSON command: " + jsonCommand, e);
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "An error occurred during keyboard command execution.", e);
+            throw new IllegalArgumentException("Failed to parse JSON command: " + jsonCommand, e);
+        }
+        if (command == null || command.action == null) {
+            throw new IllegalArgumentException("Invalid or empty command received: " + jsonCommand);
         }
+
+        InputCommand parsed = switch (command.action.toUpperCase()) {
+            case "TYPE_TEXT" -> new InputCommand.TypeText(command.text, selectStrategy(command.text));
+            case "PRESS_KEY" -> new InputCommand.PressKey(keyCode(command.key));
+            case "PRESS_KEY_COMBINATION" -> new InputCommand.PressKeyCombination(keyCodes(command.keys));
+            default -> throw new IllegalArgumentException("Unknown action: " + command.action);
+        };
+        return InputCommandValidator.validate(parsed);
+    }
+
+    /**
+     * Types text into the focused application, choosing the fastest path that can
+     * reproduce it (see {@link #selectStrategy(String)}).
+     *
+     * @param text The text to type.
+     * @return Which path was used and how long it took.
+     */
+    public TypingResult typeText(String text) {
+        return typeText(text, selectStrategy(text));
     }
 
-    public void typeText(String text) {
+    /**
+     * Types text through the given path. If the clipboard is unavailable, falls
+     * back to keystrokes.
+     *
+     * @param text     The text to type.
+     * @param strategy The path to use.
+     * @return Which path was actually used and how long it took.
+     */
+    public TypingResult typeText(String text, TypingStrategy strategy) {
         if (text == null || text.isEmpty()) {
             LOGGER.warning("Cannot type empty text");
-            return;
+            return new TypingResult(TypingStrategy.KEYSTROKES, 0, 0, 0);
         }
 
-        LOGGER.info("Typing text: " + text);
-
-        for (char c : text.toCharArray()) {
-            typeCharacter(c);
-        }
+        LOGGER.info("Typing text (" + strategy + "): " + text);
+        return inputDispatcher.type(new InputCommand.TypeText(text, strategy)).join();
     }
 
-    private void typeCharacter(char c) {
-        boolean needsShift = Character.isUpperCase(c) || isShiftRequired(c);
-        int keyCode = getKeyCodeForCharacter(c);
-
-        if (keyCode != -1) {
-            if (needsShift) {
-                robot.keyPress(KeyEvent.VK_SHIFT);
-            }
-
-            robot.keyPress(keyCode);
-            robot.keyRelease(keyCode);
-
-            if (needsShift) {
-                robot.keyRelease(KeyEvent.VK_SHIFT);
+    /**
+     * Chooses how to type a piece of text. Short text whose characters all have a
+     * key is typed as keystrokes, which works everywhere (including fields that
+     * block pasting). Long text, or text with characters that have no key on a US
+     * layout (accents, symbols, emoji), is pasted.
+     */
+    public TypingStrategy selectStrategy(String text) {
+        if (text == null || text.length() >= pasteMinLength) {
+            return TypingStrategy.CLIPBOARD_PASTE;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!KeystrokeProgram.canType(text.charAt(i))) {
+                return TypingStrategy.CLIPBOARD_PASTE;
             }
-        } else {
-            LOGGER.warning("Cannot type character: " + c);
         }
+        return TypingStrategy.KEYSTROKES;
     }
 
-    private boolean isShiftRequired(char c) {
-        // Characters that require shift key
-        return "!@#$%^&*()_+{}|:\"<>?".indexOf(c) != -1;
+    /**
+     * Presses and releases a key by name, e.g. "ENTER" or "F5".
+     *
+     * @throws IllegalArgumentException if the key is unknown.
+     */
+    public void pressKey(String key) {
+        InputCommand.PressKey command = new InputCommand.PressKey(keyCode(key));
+        LOGGER.info("Pressing key: " + key);
+        inputDispatcher.submit(command).join();
     }
 
-    private int getKeyCodeForCharacter(char c) {
-        // Handle special shift characters
-        Map<Character, Integer> shiftCharMap = new HashMap<>();
-        shiftCharMap.put('!', KeyEvent.VK_1);
-        shiftCharMap.put('@', KeyEvent.VK_2);
-        shiftCharMap.put('#', KeyEvent.VK_3);
-        shiftCharMap.put('$', KeyEvent.VK_4);
-        shiftCharMap.put('%', KeyEvent.VK_5);
-        shiftCharMap.put('^', KeyEvent.VK_6);
-        shiftCharMap.put('&', KeyEvent.VK_7);
-        shiftCharMap.put('*', KeyEvent.VK_8);
-        shiftCharMap.put('(', KeyEvent.VK_9);
-        shiftCharMap.put(')', KeyEvent.VK_0);
-        shiftCharMap.put('_', KeyEvent.VK_MINUS);
-        shiftCharMap.put('+', KeyEvent.VK_EQUALS);
-        shiftCharMap.put('{', KeyEvent.VK_OPEN_BRACKET);
-        shiftCharMap.put('}', KeyEvent.VK_CLOSE_BRACKET);
-        shiftCharMap.put('|', KeyEvent.VK_BACK_SLASH);
-        shiftCharMap.put(':', KeyEvent.VK_SEMICOLON);
-        shiftCharMap.put('"', KeyEvent.VK_QUOTE);
-        shiftCharMap.put('<', KeyEvent.VK_COMMA);
-        shiftCharMap.put('>', KeyEvent.VK_PERIOD);
-        shiftCharMap.put('?', KeyEvent.VK_SLASH);
-
-        if (shiftCharMap.containsKey(c)) {
-            return shiftCharMap.get(c);
-        }
-
-        // Handle uppercase letters
-        if (Character.isUpperCase(c)) {
-            return KeyEvent.VK_A + (c - 'A');
-        }
-
-        // Handle lowercase letters
-        if (Character.isLowerCase(c)) {
-            return KeyEvent.VK_A + (Character.toUpperCase(c) - 'A');
-        }
-
-        // Handle digits
-        if (Character.isDigit(c)) {
-            return KeyEvent.VK_0 + (c - '0');
-        }
-
-        // Handle other common characters
-        switch (c) {
-            case ' ':
-                return KeyEvent.VK_SPACE;
-            case '-':
-                return KeyEvent.VK_MINUS;
-            case '=':
-                return KeyEvent.VK_EQUALS;
-            case '[':
-                return KeyEvent.VK_OPEN_BRACKET;
-            case ']':
-                return KeyEvent.VK_CLOSE_BRACKET;
-            case '\\':
-                return KeyEvent.VK_BACK_SLASH;
-            case ';':
-                return KeyEvent.VK_SEMICOLON;
-            case '\'':
-                return KeyEvent.VK_QUOTE;
-            case ',':
-                return KeyEvent.VK_COMMA;
-            case '.':
-                return KeyEvent.VK_PERIOD;
-            case '/':
-                return KeyEvent.VK_SLASH;
-            case '`':
-                return KeyEvent.VK_BACK_QUOTE;
-            default:
-                return -1;
-        }
+    /**
+     * Presses keys by name in order and releases them in reverse order, e.g.
+     * {"CMD", "SHIFT", "N"}. Nothing is pressed if any key is unknown.
+     *
+     * @throws IllegalArgumentException if a key is unknown.
+     */
+    public void pressKeyCombination(String[] keys) {
+        InputCommand.PressKeyCombination command = new InputCommand.PressKeyCombination(keyCodes(keys));
+        LOGGER.info("Pressing key combination: " + String.join("+", keys));
+        inputDispatcher.submit(command).join();
     }
 
-    public void pressKey(String key) {
+    private int keyCode(String key) {
         if (key == null || key.isEmpty()) {
-            LOGGER.warning("Cannot press empty key");
-            return;
+            throw new IllegalArgumentException("Cannot press empty key");
         }
-
         Integer keyCode = keyCodeMap.get(key.toUpperCase());
-        if (keyCode != null) {
-            LOGGER.info("Pressing key: " + key);
-            robot.keyPress(keyCode);
-            robot.keyRelease(keyCode);
-        } else {
-            LOGGER.warning("Unknown key: " + key);
+        if (keyCode == null) {
+            throw new IllegalArgumentException("Unknown key: " + key);
         }
+        return keyCode;
     }
 
-    public void pressKeyCombination(String[] keys) {
+    private List<Integer> keyCodes(String[] keys) {
         if (keys == null || keys.length == 0) {
-            LOGGER.warning("Cannot press empty key combination");
-            return;
+            throw new IllegalArgumentException("Cannot press empty key combination");
         }
-
-        LOGGER.info("Pressing key combination: " + String.join("+", keys));
-
-        // Press all keys in order
-        int[] keyCodes = new int[keys.length];
-        for (int i = 0; i < keys.length; i++) {
-            Integer keyCode = keyCodeMap.get(keys[i].toUpperCase());
-            if (keyCode != null) {
-                keyCodes[i] = keyCode;
-                robot.keyPress(keyCode);
-            } else {
-                LOGGER.warning("Unknown key in combination: " + keys[i]);
-                // Release any keys we've already pressed
-                for (int j = 0; j < i; j++) {
-                    robot.keyRelease(keyCodes[j]);
-                }
-                return;
-            }
-        }
-
-        // Release all keys in reverse order
-        for (int i = keys.length - 1; i >= 0; i--) {
-            robot.keyRelease(keyCodes[i]);
+        List<Integer> keyCodes = new ArrayList<>(keys.length);
+        for (String key : keys) {
+            keyCodes.add(keyCode(key));
         }
+        return keyCodes;
     }
 }
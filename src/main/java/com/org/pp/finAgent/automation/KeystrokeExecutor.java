@@ -0,0 +1,51 @@
+package com.org.pp.finAgent.automation;
+
+import java.awt.Robot;
+
+/**
+ * Plays a {@link KeystrokeProgram} on a {@link Robot} with a fixed pause between
+ * events.
+ *
+ * The Robot's own auto-delay (50 ms in the input services) is suspended while
+ * a program runs and replaced by this executor's pacing, which can be much
+ * shorter: most applications keep up with a few milliseconds per event, and
+ * some with none. Each key is still released before the next is pressed.
+ */
+public class KeystrokeExecutor {
+
+    private final Robot robot;
+    private final int eventDelayMillis;
+
+    /**
+     * @param robot            The Robot to send events through.
+     * @param eventDelayMillis The pause after each event; 0 sends events back to
+     *                         back.
+     */
+    public KeystrokeExecutor(Robot robot, int eventDelayMillis) {
+        this.robot = robot;
+        this.eventDelayMillis = Math.max(0, eventDelayMillis);
+    }
+
+    public int eventDelayMillis() {
+        return eventDelayMillis;
+    }
+
+    /**
+     * Sends every event of the program, in order.
+     */
+    public void run(KeystrokeProgram program) {
+        RobotPacing.withoutAutoDelay(robot, () -> {
+            for (int i = 0; i < program.length(); i++) {
+                int event = program.event(i);
+                if (KeystrokeProgram.isPress(event)) {
+                    robot.keyPress(KeystrokeProgram.keyCode(event));
+                } else {
+                    robot.keyRelease(KeystrokeProgram.keyCode(event));
+                }
+                if (eventDelayMillis > 0) {
+                    robot.delay(eventDelayMillis);
+                }
+            }
+        });
+    }
+}
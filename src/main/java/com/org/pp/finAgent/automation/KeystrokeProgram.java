@@ -0,0 +1,159 @@
+package com.org.pp.finAgent.automation;
+
+import java.awt.event.KeyEvent;
+import java.util.Arrays;
+
+/**
+ * Text compiled into the key events that type it on a US keyboard layout.
+ *
+ * Each event is one int: the key code shifted left by one, with the low bit set
+ * for a press and clear for a release. Shift is pressed before the first
+ * character that needs it and held across a run of such characters, so
+ * "HELLO" costs one Shift press and release instead of five.
+ *
+ * Key codes come from a static table over printable ASCII (0x20 to 0x7E) plus
+ * tab, typed with Tab, and line breaks ("\n", "\r" or "\r\n"), typed with one
+ * Enter each. Other characters have no key on the layout and are left out of
+ * the program; {@link #skipped()} counts them.
+ */
+public final class KeystrokeProgram {
+
+    private static final int SHIFTED = 1 << 16;
+    private static final int[] KEY_CODES = new int[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            KEY_CODES[c] = KeyEvent.VK_A + (c - 'a');
+            KEY_CODES[Character.toUpperCase(c)] = (KeyEvent.VK_A + (c - 'a')) | SHIFTED;
+        }
+        String shiftedDigits = ")!@#$%^&*(";
+        for (int digit = 0; digit <= 9; digit++) {
+            KEY_CODES['0' + digit] = KeyEvent.VK_0 + digit;
+            KEY_CODES[shiftedDigits.charAt(digit)] = (KeyEvent.VK_0 + digit) | SHIFTED;
+        }
+        KEY_CODES[' '] = KeyEvent.VK_SPACE;
+        KEY_CODES['\t'] = KeyEvent.VK_TAB;
+        KEY_CODES['\n'] = KeyEvent.VK_ENTER;
+        KEY_CODES['\r'] = KeyEvent.VK_ENTER;
+        // Punctuation keys, unshifted and shifted
+        bind('`', '~', KeyEvent.VK_BACK_QUOTE);
+        bind('-', '_', KeyEvent.VK_MINUS);
+        bind('=', '+', KeyEvent.VK_EQUALS);
+        bind('[', '{', KeyEvent.VK_OPEN_BRACKET);
+        bind(']', '}', KeyEvent.VK_CLOSE_BRACKET);
+        bind('\\', '|', KeyEvent.VK_BACK_SLASH);
+        bind(';', ':', KeyEvent.VK_SEMICOLON);
+        bind('\'', '"', KeyEvent.VK_QUOTE);
+        bind(',', '<', KeyEvent.VK_COMMA);
+        bind('.', '>', KeyEvent.VK_PERIOD);
+        bind('/', '?', KeyEvent.VK_SLASH);
+    }
+
+    private static void bind(char plain, char shifted, int keyCode) {
+        KEY_CODES[plain] = keyCode;
+        KEY_CODES[shifted] = keyCode | SHIFTED;
+    }
+
+    private final int[] events;
+    private final int characters;
+    private final int skipped;
+
+    private KeystrokeProgram(int[] events, int characters, int skipped) {
+        this.events = events;
+        this.characters = characters;
+        this.skipped = skipped;
+    }
+
+    /**
+     * Returns true if the character has a key on the layout.
+     */
+    public static boolean canType(char c) {
+        return c < KEY_CODES.length && KEY_CODES[c] != 0;
+    }
+
+    /**
+     * Compiles text into key events.
+     *
+     * @param text The text to type.
+     */
+    public static KeystrokeProgram compile(CharSequence text) {
+        // Worst case: every character toggles Shift, i.e. four events each
+        int[] events = new int[text.length() * 4];
+        int count = 0;
+        int typed = 0;
+        int skipped = 0;
+        boolean shiftDown = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!canType(c)) {
+                skipped++;
+                continue;
+            }
+            if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                continue; // The "\n" presses Enter for the whole line break
+            }
+            typed++;
+            int entry = KEY_CODES[c];
+            boolean needsShift = (entry & SHIFTED) != 0;
+            if (needsShift != shiftDown) {
+                events[count++] = event(KeyEvent.VK_SHIFT, needsShift);
+                shiftDown = needsShift;
+            }
+            int keyCode = entry & ~SHIFTED;
+            events[count++] = event(keyCode, true);
+            events[count++] = event(keyCode, false);
+        }
+        if (shiftDown) {
+            events[count++] = event(KeyEvent.VK_SHIFT, false);
+        }
+        return new KeystrokeProgram(Arrays.copyOf(events, count), typed, skipped);
+    }
+
+    private static int event(int keyCode, boolean press) {
+        return keyCode << 1 | (press ? 1 : 0);
+    }
+
+    /**
+     * Returns true if the event presses its key, false if it releases it.
+     */
+    public static boolean isPress(int event) {
+        return (event & 1) != 0;
+    }
+
+    /**
+     * Returns the {@link KeyEvent} key code of an event.
+     */
+    public static int keyCode(int event) {
+        return event >>> 1;
+    }
+
+    /**
+     * The number of events in the program.
+     */
+    public int length() {
+        return events.length;
+    }
+
+    /**
+     * Returns the event at the given position.
+     */
+    public int event(int index) {
+        return events[index];
+    }
+
+    /**
+     * The number of characters the program types; a "\r\n" line break counts as
+     * one.
+     */
+    public int characters() {
+        return characters;
+    }
+
+    /**
+     * The number of characters of the source text that have no key and were left
+     * out.
+     */
+    public int skipped() {
+        return skipped;
+    }
+}
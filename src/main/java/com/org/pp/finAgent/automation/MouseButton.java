@@ -0,0 +1,24 @@
+package com.org.pp.finAgent.automation;
+
+import java.awt.event.InputEvent;
+
+/**
+ * The mouse buttons input commands can press, with their {@link java.awt.Robot}
+ * button masks.
+ */
+public enum MouseButton {
+    LEFT(InputEvent.BUTTON1_DOWN_MASK),
+    MIDDLE(InputEvent.BUTTON2_DOWN_MASK),
+    // On macOS, BUTTON3 works correctly for right-click
+    RIGHT(InputEvent.BUTTON3_DOWN_MASK);
+
+    private final int mask;
+
+    MouseButton(int mask) {
+        this.mask = mask;
+    }
+
+    public int mask() {
+        return mask;
+    }
+}
@@ -4,20 +4,18 @@ import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import org.springframework.stereotype.Service;
 
-import java.awt.AWTException;
-import java.awt.Robot;
-import java.awt.event.InputEvent;
-import java.awt.event.KeyEvent;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Mouse input from JSON commands and scroll requests. The events are sent by
+ * {@link InputDispatcher}, and each method returns once they have been.
+ */
 @Service
 public class MouseMovement {
 
     private static final Logger LOGGER = Logger.getLogger(MouseMovement.class.getName());
-    private final Robot robot;
-    private final Gson gson = new Gson();
-    private final boolean isMacOS;
+    private static final Gson GSON = new Gson();
+    private final InputDispatcher inputDispatcher;
 
     // A simple data class to hold the deserialized command
     private static class MouseCommand {
@@ -27,144 +25,90 @@ public class MouseMovement {
         String button; // "LEFT", "RIGHT", "MIDDLE"
     }
 
-    public MouseMovement() throws AWTException {
-        this.robot = new Robot();
-        this.robot.setAutoDelay(50); // A small delay between robot events is good practice
-        this.isMacOS = System.getProperty("os.name").toLowerCase().contains("mac");
-        LOGGER.info("MouseMovement initialized. Detected OS: " + (isMacOS ? "macOS" : "Windows/Linux"));
+    public MouseMovement(InputDispatcher inputDispatcher) {
+        this.inputDispatcher = inputDispatcher;
     }
 
+    /**
+     * Runs a JSON mouse command, e.g.
+     * {@code {"action":"MOVE_AND_CLICK", "x":100, "y":200, "button":"LEFT"}}.
+     * In-process callers should submit an {@link InputCommand} to the
+     * {@link InputDispatcher} instead; this is for commands that arrive as text.
+     *
+     * @throws IllegalArgumentException if the JSON is malformed or the command
+     *                                  is invalid.
+     */
     public void executeCommand(String jsonCommand) {
-        try {
-            MouseCommand command = gson.fromJson(jsonCommand, MouseCommand.class);
-            if (command == null || command.action == null) {
-                LOGGER.warning("Invalid or empty command received: " + jsonCommand);
-                return;
-            }
-
-            LOGGER.info("Executing action: " + command.action);
-
-            switch (command.action.toUpperCase()) {
-                case "MOVE_AND_CLICK":
-                    if (isValidCoordinates(command.x, command.y) && command.button != null) {
-                        robot.mouseMove(command.x, command.y);
-                        performClick(command.button);
-                    }
-                    break;
-
-                // Cross-platform multi-select click (Ctrl on Windows/Linux, Command on macOS)
-                case "MOVE_AND_CTRL_CLICK":
-                    if (isValidCoordinates(command.x, command.y) && command.button != null) {
-                        robot.mouseMove(command.x, command.y);
-                        performModifierClick(command.button);
-                    }
-                    break;
-
-                // Explicit Command+Click (macOS) - uses Ctrl on Windows
-                case "MOVE_AND_CMD_CLICK":
-                    if (isValidCoordinates(command.x, command.y) && command.button != null) {
-                        robot.mouseMove(command.x, command.y);
-                        performModifierClick(command.button);
-                    }
-                    break;
-
-                // Right-click context menu (works the same on both platforms)
-                case "MOVE_AND_RIGHT_CLICK":
-                    if (isValidCoordinates(command.x, command.y)) {
-                        robot.mouseMove(command.x, command.y);
-                        performClick("RIGHT");
-                    }
-                    break;
-
-                // Double-click action
-                case "MOVE_AND_DOUBLE_CLICK":
-                    if (isValidCoordinates(command.x, command.y) && command.button != null) {
-                        robot.mouseMove(command.x, command.y);
-                        performDoubleClick(command.button);
-                    }
-                    break;
+        InputCommand command = parseCommand(jsonCommand);
+        LOGGER.info("Executing action: " + command);
+        inputDispatcher.submit(command).join();
+    }
 
-                default:
-                    LOGGER.warning("Unknown action: " + command.action);
-                    break;
-            }
+    /**
+     * Converts a JSON mouse command into a validated {@link InputCommand}.
+     *
+     * @throws IllegalArgumentException if the JSON is malformed or the command
+     *                                  is invalid.
+     */
+    public static InputCommand parseCommand(String jsonCommand) {
+        MouseCommand command;
+        try {
+            command = GSON.fromJson(jsonCommand, MouseCommand.class);
         } catch (JsonSyntaxException e) {
-            LOGGER.log(Level.SEVERE, "Failed to parse JSON command: " + jsonCommand, e);
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "An error occurred during command execution.", e);
+            throw new IllegalArgumentException("Failed to parse JSON command: " + jsonCommand, e);
         }
-    }
-
-    private void performClick(String button) {
-        int buttonMask = getButtonMask(button);
-        if (buttonMask != -1) {
-            robot.mousePress(buttonMask);
-            robot.mouseRelease(buttonMask);
+        if (command == null || command.action == null) {
+            throw new IllegalArgumentException("Invalid or empty command received: " + jsonCommand);
         }
-    }
-
-    private void performDoubleClick(String button) {
-        int buttonMask = getButtonMask(button);
-        if (buttonMask != -1) {
-            robot.mousePress(buttonMask);
-            robot.mouseRelease(buttonMask);
-            robot.mousePress(buttonMask);
-            robot.mouseRelease(buttonMask);
+        if (command.x == null || command.y == null) {
+            throw new IllegalArgumentException("Coordinates cannot be null for a MOVE action: " + jsonCommand);
         }
-    }
 
-    /**
-     * Performs a modifier+click action that is cross-platform compatible.
-     * On macOS: Uses Command (⌘) key - this is the standard for multi-select
-     * On Windows/Linux: Uses Control key
-     */
-    private void performModifierClick(String button) {
-        int buttonMask = getButtonMask(button);
-        if (buttonMask != -1) {
-            int modifierKey = isMacOS ? KeyEvent.VK_META : KeyEvent.VK_CONTROL;
-            robot.keyPress(modifierKey);
-            robot.mousePress(buttonMask);
-            robot.mouseRelease(buttonMask);
-            robot.keyRelease(modifierKey);
-        }
+        InputCommand.Click click = switch (command.action.toUpperCase()) {
+            case "MOVE_AND_CLICK" -> new InputCommand.Click(command.x, command.y, getButton(command.button), 1, false);
+            // Cross-platform multi-select click (Ctrl on Windows/Linux, Command on macOS)
+            case "MOVE_AND_CTRL_CLICK", "MOVE_AND_CMD_CLICK" ->
+                    new InputCommand.Click(command.x, command.y, getButton(command.button), 1, true);
+            // Right-click context menu (works the same on both platforms)
+            case "MOVE_AND_RIGHT_CLICK" -> new InputCommand.Click(command.x, command.y, MouseButton.RIGHT, 1, false);
+            case "MOVE_AND_DOUBLE_CLICK" ->
+                    new InputCommand.Click(command.x, command.y, getButton(command.button), 2, false);
+            default -> throw new IllegalArgumentException("Unknown action: " + command.action);
+        };
+        return InputCommandValidator.validate(click);
     }
 
     /**
-     * Gets the appropriate button mask for the given button name.
+     * Gets the button for the given button name.
      * Note: On macOS, right-click can also be simulated with Ctrl+Click,
      * but we use the standard button masks for consistency.
      */
-    private int getButtonMask(String button) {
-        switch (button.toUpperCase()) {
-            case "LEFT":
-                return InputEvent.BUTTON1_DOWN_MASK;
-            case "RIGHT":
-                // On macOS, BUTTON3 works correctly for right-click
-                return InputEvent.BUTTON3_DOWN_MASK;
-            case "MIDDLE":
-                return InputEvent.BUTTON2_DOWN_MASK;
-            default:
-                LOGGER.warning("Unknown button type: " + button);
-                return -1;
+    private static MouseButton getButton(String button) {
+        if (button == null) {
+            throw new IllegalArgumentException("A button is required for this action");
         }
-    }
-
-    private boolean isValidCoordinates(Integer x, Integer y) {
-        if (x == null || y == null) {
-            LOGGER.warning("Coordinates cannot be null for a MOVE action.");
-            return false;
+        try {
+            return MouseButton.valueOf(button.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown button type: " + button);
         }
-        return true;
     }
 
     /**
-     * Simulates the mouse scroll wheel.
+     * Simulates the mouse scroll wheel. Amounts larger than one
+     * {@link InputCommand.Scroll} may carry are sent as several scrolls.
      * @param wheelAmt the number of "notches" to move the mouse wheel.
      *                 Negative values generally move the wheel up / away from the user.
      *                 Positive values generally move the wheel down / towards the user.
      */
     public void scroll(int wheelAmt) {
         LOGGER.info("Scrolling wheel by amount: " + wheelAmt);
-        robot.mouseWheel(wheelAmt);
+        int remaining = wheelAmt;
+        do {
+            int step = Math.max(-InputCommandValidator.MAX_SCROLL_AMOUNT,
+                    Math.min(InputCommandValidator.MAX_SCROLL_AMOUNT, remaining));
+            inputDispatcher.submit(new InputCommand.Scroll(step)).join();
+            remaining -= step;
+        } while (remaining != 0);
     }
-}
\ No newline at end of file
+}
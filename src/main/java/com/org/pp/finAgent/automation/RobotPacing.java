@@ -0,0 +1,33 @@
+package com.org.pp.finAgent.automation;
+
+import java.awt.Robot;
+
+/**
+ * Runs a burst of events on a shared {@link Robot} without its auto-delay, for
+ * callers that pace the events themselves.
+ */
+final class RobotPacing {
+
+    private RobotPacing() {
+    }
+
+    /**
+     * Runs the work with the Robot's auto-delay set to 0. The Robot is shared, so
+     * it is held for the whole burst, and its auto-delay is put back afterwards
+     * even if the work fails.
+     *
+     * @param robot The Robot the work sends events through.
+     * @param work  The events to send.
+     */
+    static void withoutAutoDelay(Robot robot, Runnable work) {
+        synchronized (robot) {
+            int autoDelay = robot.getAutoDelay();
+            robot.setAutoDelay(0);
+            try {
+                work.run();
+            } finally {
+                robot.setAutoDelay(autoDelay);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.org.pp.finAgent.configuration;
 
+import com.org.pp.finAgent.service.ocr.OcrProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,9 +24,23 @@ public class TesseractConfig {
     private static final String MACOS_ARM_PATH = "/opt/homebrew/share/tessdata"; // Apple Silicon
     private static final String MACOS_INTEL_PATH = "/usr/local/share/tessdata"; // Intel Mac
 
+    private static final String DEFAULT_LANGUAGE = "eng";
+
     private final String tessDataPath;
+    private final String fastLanguage;
+    private final String bestLanguage;
 
-    public TesseractConfig(@Value("${tesseract.datapath.override:}") String overridePath) {
+    /**
+     * @param overridePath A tessdata directory to use instead of the OS default.
+     * @param fastLanguage The traineddata name for {@link OcrProfile.TrainedData#FAST}
+     *                     profiles, e.g. "eng" for tessdata_fast's eng.traineddata.
+     * @param bestLanguage The traineddata name for {@link OcrProfile.TrainedData#BEST}
+     *                     profiles, e.g. "eng_best" if tessdata_best's file was
+     *                     installed under that name.
+     */
+    public TesseractConfig(@Value("${tesseract.datapath.override:}") String overridePath,
+            @Value("${tesseract.traineddata.fast:eng}") String fastLanguage,
+            @Value("${tesseract.traineddata.best:eng}") String bestLanguage) {
         if (overridePath != null && !overridePath.isBlank()) {
             this.tessDataPath = overridePath;
             log.info("Using overridden Tesseract datapath: {}", tessDataPath);
@@ -39,6 +54,26 @@ public class TesseractConfig {
         if (!tessDataDir.exists() || !tessDataDir.isDirectory()) {
             log.warn("Tesseract data directory not found at: {}. OCR functionality may not work.", tessDataPath);
         }
+
+        this.fastLanguage = checkLanguage(fastLanguage);
+        this.bestLanguage = checkLanguage(bestLanguage);
+    }
+
+    /**
+     * Falls back to the default language if the configured traineddata file is
+     * not installed, so a missing optional model degrades accuracy rather than
+     * breaking OCR.
+     */
+    private String checkLanguage(String language) {
+        if (language == null || language.isBlank()) {
+            return DEFAULT_LANGUAGE;
+        }
+        if (!language.equals(DEFAULT_LANGUAGE) && !new File(tessDataPath, language + ".traineddata").isFile()) {
+            log.warn("Traineddata '{}' not found in {}. Falling back to '{}'.", language, tessDataPath,
+                    DEFAULT_LANGUAGE);
+            return DEFAULT_LANGUAGE;
+        }
+        return language;
     }
 
     /**
@@ -70,4 +105,11 @@ public class TesseractConfig {
     public String getTessDataPath() {
         return tessDataPath;
     }
+
+    /**
+     * Returns the traineddata language to load for a variant.
+     */
+    public String getLanguage(OcrProfile.TrainedData trainedData) {
+        return trainedData == OcrProfile.TrainedData.BEST ? bestLanguage : fastLanguage;
+    }
 }
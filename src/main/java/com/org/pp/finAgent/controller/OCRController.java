@@ -1,18 +1,31 @@
 package com.org.pp.finAgent.controller;
 
-import com.org.pp.finAgent.automation.MouseMovement;
+import com.org.pp.finAgent.automation.BatchClickExecutor;
+import com.org.pp.finAgent.automation.InputCommand;
+import com.org.pp.finAgent.automation.InputDispatcher;
 import com.org.pp.finAgent.service.OcrService;
+import com.org.pp.finAgent.service.ocr.OcrColumns;
+import com.org.pp.finAgent.service.ocr.OcrFrame;
+import com.org.pp.finAgent.service.ocr.OcrProfile;
+import com.org.pp.finAgent.service.ocr.PhraseMatcher;
+import com.org.pp.finAgent.service.ocr.ScreenLayout;
+import com.org.pp.finAgent.service.ocr.WordColorAnalyzer;
+import com.org.pp.finAgent.util.CaptureRegion;
+import com.org.pp.finAgent.util.CapturedFrame;
+import com.org.pp.finAgent.util.ColorRegionDetector;
 import com.org.pp.finAgent.util.ScreenCapture;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
+import java.awt.AWTException;
 import java.awt.Color;
+import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -21,12 +34,36 @@ import java.util.stream.Collectors;
 public class OCRController {
     private static final Logger LOGGER = Logger.getLogger(OCRController.class.getName());
     private static final int DEFAULT_COLOR_TOLERANCE = 40;
+    // Captures no taller than this (a toolbar, a text field) hold a single line of text
+    private static final int SINGLE_LINE_MAX_HEIGHT = 48;
 
     @Autowired
     private OcrService ocrService;
 
     @Autowired
-    private MouseMovement mouseMovement;
+    private InputDispatcher inputDispatcher;
+
+    @Autowired
+    private BatchClickExecutor batchClickExecutor;
+
+    private final ColorRegionDetector linkColorDetector = new ColorRegionDetector();
+
+    // The most recent layout read, so tools can click elements by ID without OCRing again
+    private volatile ScreenLayout latestLayout = ScreenLayout.empty();
+
+    /**
+     * How {@link #openAllGoogleSearchLinks(String, CaptureRegion, OcrProfile, LinkDetection)}
+     * finds the links on screen.
+     */
+    public enum LinkDetection {
+        /** OCR the whole capture, then keep the words drawn in the link color. */
+        OCR_FIRST,
+        /**
+         * Scan the pixels for the link color first and OCR only the regions that
+         * contain it. Much faster on pages where most text is not a link.
+         */
+        COLOR_MASK_FIRST
+    }
 
     /**
      * Finds the first occurrence of text on screen and performs a single click on
@@ -37,26 +74,57 @@ public class OCRController {
      * @return true if the text was found and clicked, false otherwise.
      */
     public boolean findAndClickText(String textToFind) {
-        LOGGER.info("Attempting to find and click on text: '" + textToFind + "'");
-        try {
-            String screenCapturePath = ScreenCapture.captureToFile();
-            BufferedImage image = ImageIO.read(new File(screenCapturePath));
+        return findAndClickText(textToFind, CaptureRegion.fullScreen());
+    }
 
-            // Use fuzzy matching to find the text
-            List<OcrService.OcrResult> results = ocrService.getWordsFromImage(image, textToFind);
+    /**
+     * Finds the first occurrence of text within a region of the screen and performs
+     * a single click on it. Only the region is captured and OCR'd. The text may be
+     * a multi-word phrase and is matched with a small tolerance for OCR errors.
+     *
+     * @param textToFind The text to find and click on.
+     * @param region     The part of the screen to search.
+     * @return true if the text was found and clicked, false otherwise.
+     */
+    public boolean findAndClickText(String textToFind, CaptureRegion region) {
+        return findAndClickText(textToFind, region, null);
+    }
 
-            if (results.isEmpty()) {
+    /**
+     * Finds the first occurrence of text within a region of the screen, recognized
+     * with the given profile, and performs a single click on it.
+     *
+     * @param textToFind The text to find and click on.
+     * @param region     The part of the screen to search.
+     * @param profile    The OCR profile to use, or null for {@link OcrProfile#FAST_SPARSE}
+     *                   ({@link OcrProfile#SINGLE_LINE} for a one-line region).
+     * @return true if the text was found and clicked, false otherwise.
+     */
+    public boolean findAndClickText(String textToFind, CaptureRegion region, OcrProfile profile) {
+        LOGGER.info("Attempting to find and click on text: '" + textToFind + "' in region " + region.kind());
+        try {
+            // Recognition stops as soon as a confident exact match is found. Phrases may span
+            // several words, and small OCR errors (e.g. "Sign in" read as "Signin") still match.
+            ocrService.awaitReady();
+            Optional<PhraseMatcher.Match> match;
+            try (CapturedFrame frame = ScreenCapture.captureFrame(region)) {
+                Rectangle bounds = frame.bounds();
+                match = ocrService.findText(frame.image(), null, textToFind,
+                        profileFor(profile, OcrProfile.FAST_SPARSE, bounds))
+                        .map(m -> m.translated(bounds.x, bounds.y));
+            }
+
+            if (match.isEmpty()) {
                 LOGGER.warning("Could not find any occurrences of the text '" + textToFind + "' on the screen.");
                 return false;
             }
 
-            // Click on the first result found
-            OcrService.OcrResult firstResult = results.get(0);
-            LOGGER.info("Found '" + textToFind + "'. Clicking on the first occurrence.");
-            return clickOcrResult(firstResult, "MOVE_AND_CLICK");
+            LOGGER.info("Found '" + textToFind + "' as '" + match.get().text() + "' (edit distance "
+                    + match.get().distance() + "). Clicking on it.");
+            return clickOcrResult(match.get().toResult(), false);
 
         } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "An error occurred reading the screen capture image.", e);
+            LOGGER.log(Level.SEVERE, "An error occurred capturing the screen.", e);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE,
                     "An error occurred during the find-and-click operation for text: '" + textToFind + "'", e);
@@ -64,189 +132,327 @@ public class OCRController {
         return false;
     }
 
+    /**
+     * Captures and OCRs a region of the screen once and returns the indexed words
+     * in screen coordinates. Any number of text, region and nearest-word queries
+     * can then run against the result without OCRing again.
+     *
+     * @param region The part of the screen to read.
+     * @return The words on screen, indexed for queries.
+     * @throws AWTException if the screen could not be captured.
+     * @throws IOException  if the screen could not be captured.
+     */
+    public OcrFrame readScreen(CaptureRegion region) throws AWTException, IOException {
+        return readScreen(region, null);
+    }
+
+    /**
+     * Captures and OCRs a region of the screen once with the given profile.
+     *
+     * @param region  The part of the screen to read.
+     * @param profile The OCR profile to use, or null for {@link OcrProfile#ACCURATE_BLOCK}
+     *                ({@link OcrProfile#SINGLE_LINE} for a one-line region).
+     * @return The words on screen, indexed for queries.
+     * @throws AWTException if the screen could not be captured.
+     * @throws IOException  if the screen could not be captured.
+     */
+    public OcrFrame readScreen(CaptureRegion region, OcrProfile profile) throws AWTException, IOException {
+        ocrService.awaitReady();
+        try (CapturedFrame frame = ScreenCapture.captureFrame(region)) {
+            Rectangle bounds = frame.bounds();
+            return ocrService.getFrame(frame.image(), null, profileFor(profile, OcrProfile.ACCURATE_BLOCK, bounds))
+                    .translated(bounds.x, bounds.y);
+        }
+    }
+
+    /**
+     * Captures and OCRs a region of the screen once and groups the words into
+     * clickable elements (lines, links and buttons) with stable IDs, in screen
+     * coordinates. The layout is kept, so {@link #clickElement(String, boolean)}
+     * can act on its IDs without OCRing again.
+     *
+     * @param region  The part of the screen to read.
+     * @param profile The OCR profile to use, or null for {@link OcrProfile#FAST_SPARSE}
+     *                ({@link OcrProfile#SINGLE_LINE} for a one-line region).
+     * @return The elements on screen.
+     * @throws AWTException if the screen could not be captured.
+     * @throws IOException  if the screen could not be captured.
+     */
+    public ScreenLayout readLayout(CaptureRegion region, OcrProfile profile) throws AWTException, IOException {
+        ocrService.awaitReady();
+        ScreenLayout layout;
+        try (CapturedFrame frame = ScreenCapture.captureFrame(region)) {
+            Rectangle bounds = frame.bounds();
+            BufferedImage image = frame.image();
+            OcrProfile resolved = profileFor(profile, OcrProfile.FAST_SPARSE, bounds);
+            OcrColumns words = ocrService.getFrame(image, null, resolved).columns();
+            layout = ScreenLayout.build(words, ocrService.getTextLines(image, resolved))
+                    .translated(bounds.x, bounds.y);
+        }
+        latestLayout = layout;
+        LOGGER.info("Read " + layout.size() + " element(s) in region " + region.kind() + ".");
+        return layout;
+    }
+
+    /**
+     * The layout from the most recent {@link #readLayout(CaptureRegion, OcrProfile)},
+     * or an empty layout if the screen has not been read yet.
+     */
+    public ScreenLayout latestLayout() {
+        return latestLayout;
+    }
+
+    /**
+     * Clicks an element of the most recent layout by ID. The screen is not read
+     * again, so the element must still be where it was.
+     *
+     * @param elementId    The element's ID, e.g. "link-3fa2c1".
+     * @param openInNewTab True to Ctrl+click, e.g. to open a link in a new tab.
+     * @return true if the element exists and was clicked, false otherwise.
+     */
+    public boolean clickElement(String elementId, boolean openInNewTab) {
+        ScreenLayout.Element element = latestLayout.element(elementId);
+        if (element == null) {
+            LOGGER.warning("No element with ID '" + elementId + "' in the latest screen layout.");
+            return false;
+        }
+        LOGGER.info(String.format("Executing %s on %s %s '%s' at [x=%d, y=%d]", clickName(openInNewTab),
+                element.kind(), element.id(), element.text(), element.clickX(), element.clickY()));
+        clickAt(element.clickX(), element.clickY(), openInNewTab);
+        return true;
+    }
+
+    /**
+     * Resolves the profile for an operation: an explicit choice wins; otherwise a
+     * one-line capture is read as a single line, and anything larger with the
+     * operation's default.
+     */
+    private static OcrProfile profileFor(OcrProfile requested, OcrProfile operationDefault, Rectangle capture) {
+        if (requested != null) {
+            return requested;
+        }
+        return capture.height <= SINGLE_LINE_MAX_HEIGHT ? OcrProfile.SINGLE_LINE : operationDefault;
+    }
+
     /**
      * Finds all text on screen matching a specific color and performs a Ctrl+Click
-     * on each unique link. Words on the same line are grouped together to avoid
-     * clicking the same link multiple times.
+     * on each unique link. Each link is clicked once, even when it wraps onto a
+     * second line or shares its line with other links.
      *
      * @param hexColor The hex color string (e.g., "#5A9CFD") of the text to find.
      * @return The number of unique links that were successfully clicked.
      */
     public int openAllGoogleSearchLinks(String hexColor) {
-        LOGGER.info("Attempting to find and Ctrl+Click all text with color: " + hexColor);
-        int clickCount = 0;
-        try {
-            String screenCapturePath = ScreenCapture.captureToFile();
-            BufferedImage image = ImageIO.read(new File(screenCapturePath));
+        return openAllGoogleSearchLinks(hexColor, CaptureRegion.fullScreen());
+    }
 
-            // Get ALL words from the screen without text filtering
-            List<OcrService.OcrResult> allWords = ocrService.getAllWordsFromImage(image);
+    /**
+     * Finds all text matching a specific color within a region of the screen and
+     * performs a Ctrl+Click on each unique link. Only the region is captured and
+     * OCR'd.
+     *
+     * @param hexColor The hex color string (e.g., "#5A9CFD") of the text to find.
+     * @param region   The part of the screen to search.
+     * @return The number of unique links that were successfully clicked.
+     */
+    public int openAllGoogleSearchLinks(String hexColor, CaptureRegion region) {
+        return openAllGoogleSearchLinks(hexColor, region, null);
+    }
 
-            if (allWords.isEmpty()) {
-                LOGGER.warning("Could not detect any text on the screen.");
-                return 0;
-            }
+    /**
+     * Finds all text matching a specific color within a region of the screen,
+     * recognized with the given profile, and performs a Ctrl+Click on each unique
+     * link.
+     *
+     * @param hexColor The hex color string (e.g., "#5A9CFD") of the text to find.
+     * @param region   The part of the screen to search.
+     * @param profile  The OCR profile to use, or null for {@link OcrProfile#FAST_SPARSE}.
+     * @return The number of unique links that were successfully clicked.
+     */
+    public int openAllGoogleSearchLinks(String hexColor, CaptureRegion region, OcrProfile profile) {
+        return openAllGoogleSearchLinks(hexColor, region, profile, LinkDetection.OCR_FIRST);
+    }
 
-            LOGGER.info("Detected " + allWords.size() + " words on screen. Filtering by color...");
+    /**
+     * Finds all text matching a specific color within a region of the screen and
+     * performs a Ctrl+Click on each unique link, using the given detection mode.
+     *
+     * @param hexColor  The hex color string (e.g., "#5A9CFD") of the text to find.
+     * @param region    The part of the screen to search.
+     * @param profile   The OCR profile to use, or null for {@link OcrProfile#FAST_SPARSE}
+     *                  ({@link OcrProfile#SINGLE_LINE} for one-line link regions
+     *                  found by {@link LinkDetection#COLOR_MASK_FIRST}).
+     * @param detection How to find the links.
+     * @return The number of unique links that were successfully clicked.
+     */
+    public int openAllGoogleSearchLinks(String hexColor, CaptureRegion region, OcrProfile profile,
+            LinkDetection detection) {
+        return openLinksInNewTabs(hexColor, region, profile, detection).count();
+    }
 
+    /**
+     * Finds all text matching a specific color within a region of the screen and
+     * Ctrl+clicks every unique link in one batch: the links are clicked in the
+     * order that keeps pointer travel short, with the modifier held throughout,
+     * and the batch is confirmed by watching the browser's tab strip rather than
+     * by pausing between clicks.
+     *
+     * @param hexColor  The hex color string (e.g., "#5A9CFD") of the text to find.
+     * @param region    The part of the screen to search.
+     * @param profile   The OCR profile to use, or null as for
+     *                  {@link #openAllGoogleSearchLinks(String, CaptureRegion, OcrProfile, LinkDetection)}.
+     * @param detection How to find the links.
+     * @return The timing of each click and of the tab strip's reaction; empty if
+     *         no link was found or the operation failed.
+     */
+    public BatchClickExecutor.BatchClickResult openLinksInNewTabs(String hexColor, CaptureRegion region,
+            OcrProfile profile, LinkDetection detection) {
+        LOGGER.info("Attempting to find and Ctrl+Click all text with color: " + hexColor + " in region "
+                + region.kind() + " (" + detection + ")");
+        try {
+            ocrService.awaitReady();
             Color targetColor = Color.decode(hexColor);
-
-            List<OcrService.OcrResult> filteredResults = allWords.stream()
-                    .filter(result -> isWordColor(image, result, targetColor, DEFAULT_COLOR_TOLERANCE))
-                    .collect(Collectors.toList());
-
-            if (filteredResults.isEmpty()) {
-                LOGGER.warning("Found text on screen, but none matched the color " + hexColor);
-                return 0;
+            // Look the window up once, so the tab strip that confirms the clicks belongs to the
+            // window the links were found in, even if focus moves while the frame is read
+            Optional<Rectangle> window = CaptureRegion.focusedWindowBounds();
+            CaptureRegion linkRegion = window.map(region::inWindow).orElse(region);
+            CaptureRegion confirmRegion = window.map(CaptureRegion.browserTabStrip()::inWindow)
+                    .orElse(CaptureRegion.browserTabStrip());
+            List<Point> targets;
+            try (CapturedFrame frame = ScreenCapture.captureFrame(linkRegion)) {
+                // Detection happens in image space; clicks need screen space
+                targets = toScreenSpace(detection == LinkDetection.COLOR_MASK_FIRST
+                        ? findLinksByColorMask(frame.image(), targetColor, profile)
+                        : findLinksByOcr(frame, targetColor, profile), frame);
             }
 
-            LOGGER.info("Found " + filteredResults.size() + " words with matching color. Grouping by line...");
-
-            // Group words by their approximate Y position (same line = same link)
-            // Use the first word of each line group as the click target
-            List<OcrService.OcrResult> uniqueLinks = groupWordsByLine(filteredResults);
-
-            LOGGER.info("Grouped into " + uniqueLinks.size() + " unique link(s). Proceeding to Ctrl+Click each one.");
-
-            for (OcrService.OcrResult result : uniqueLinks) {
-                if (clickOcrResult(result, "MOVE_AND_CTRL_CLICK")) {
-                    clickCount++;
-                    Thread.sleep(250); // A short pause between clicks for reliability
-                }
+            if (targets.isEmpty()) {
+                LOGGER.warning("Could not find any text on screen matching the color " + hexColor);
+                return BatchClickExecutor.BatchClickResult.empty();
             }
 
+            LOGGER.info("Found " + targets.size() + " unique link(s). Proceeding to Ctrl+Click them in one batch.");
+            return batchClickExecutor.clickAll(targets, true, confirmRegion);
+
         } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "An error occurred reading the screen capture image.", e);
-        } catch (InterruptedException e) {
-            LOGGER.log(Level.WARNING, "The click operation was interrupted.", e);
-            Thread.currentThread().interrupt();
+            LOGGER.log(Level.SEVERE, "An error occurred capturing the screen.", e);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "An error occurred during the find-and-Ctrl+Click-by-color operation.", e);
         }
-        return clickCount;
+        return BatchClickExecutor.BatchClickResult.empty();
     }
 
     /**
-     * Groups OCR results by their vertical position (Y coordinate).
-     * Words within a vertical tolerance are considered to be on the same line
-     * (and thus part of the same link). Returns only the first word from each line
-     * group.
+     * Translates click points from the frame's image coordinates to screen
+     * coordinates.
      *
-     * @param results The list of OCR results to group.
-     * @return A list containing only the first word from each line group.
+     * @param points The click points relative to the captured image.
+     * @param frame  The frame the points were found in.
+     * @return The same points on screen.
      */
-    private List<OcrService.OcrResult> groupWordsByLine(List<OcrService.OcrResult> results) {
-        if (results.isEmpty()) {
-            return results;
-        }
-
-        // Sort by Y position first, then by X position
-        List<OcrService.OcrResult> sorted = results.stream()
-                .sorted((a, b) -> {
-                    int yCompare = Integer.compare(a.boundingBox().y, b.boundingBox().y);
-                    if (yCompare != 0)
-                        return yCompare;
-                    return Integer.compare(a.boundingBox().x, b.boundingBox().x);
-                })
+    private List<Point> toScreenSpace(List<Point> points, CapturedFrame frame) {
+        Rectangle bounds = frame.bounds();
+        return points.stream()
+                .map(p -> new Point(p.x + bounds.x, p.y + bounds.y))
                 .collect(Collectors.toList());
+    }
 
-        List<OcrService.OcrResult> uniqueLinks = new java.util.ArrayList<>();
-        int lastY = -1000; // Initialize to a value that won't match
-        int lineHeightTolerance = 15; // Pixels - words within this vertical distance are on the same line
+    /**
+     * OCRs the whole frame, groups the words into a {@link ScreenLayout} and
+     * returns the click point of every link in the target color. Links that share
+     * a line stay separate, and a link wrapped onto the next line is one element,
+     * clicked once.
+     */
+    private List<Point> findLinksByOcr(CapturedFrame frame, Color targetColor, OcrProfile profile) {
+        BufferedImage image = frame.image();
+        OcrProfile resolved = profileFor(profile, OcrProfile.FAST_SPARSE, frame.bounds());
 
-        for (OcrService.OcrResult result : sorted) {
-            int currentY = result.boundingBox().y;
+        // Get ALL words from the screen without text filtering
+        OcrColumns words = ocrService.getFrame(image, null, resolved).columns();
 
-            // If this word is not on the same line as the previous one, it's a new link
-            if (Math.abs(currentY - lastY) > lineHeightTolerance) {
-                uniqueLinks.add(result);
-                lastY = currentY;
-            }
+        if (words.isEmpty()) {
+            LOGGER.warning("Could not detect any text on the screen.");
+            return List.of();
+        }
+        if (!words.hasColors()) {
+            LOGGER.warning("OCR'd words carry no colors (ocr.color.enabled=false), so links cannot be found.");
+            return List.of();
         }
 
-        return uniqueLinks;
-    }
+        List<ScreenLayout.Element> links = ScreenLayout.build(words, ocrService.getTextLines(image, resolved))
+                .elements(ScreenLayout.Kind.LINK);
+        LOGGER.info("Detected " + words.size() + " words and " + links.size()
+                + " link(s) on screen. Filtering by color...");
 
-    /**
-     * Checks if the text within a bounding box in an image likely matches a target
-     * color.
-     * This is a heuristic that samples a few points. It might need tuning.
-     *
-     * @param image       The image to check.
-     * @param ocrResult   The OCR result containing the bounding box.
-     * @param targetColor The color to look for.
-     * @param tolerance   The allowed color distance. A higher value means more
-     *                    lenient matching.
-     * @return true if a sampled pixel matches the target color.
-     */
-    private boolean isWordColor(BufferedImage image, OcrService.OcrResult ocrResult, Color targetColor, int tolerance) {
-        Rectangle box = ocrResult.boundingBox();
-        // Define sample points within the bounding box to check for color
-        int[][] samplePoints = {
-                { box.x + box.width / 2, box.y + box.height / 2 }, // Center
-                { box.x + box.width / 4, box.y + box.height / 2 }, // Mid-left
-                { box.x + 3 * box.width / 4, box.y + box.height / 2 } // Mid-right
-        };
-
-        for (int[] point : samplePoints) {
-            int px = point[0];
-            int py = point[1];
-
-            // Ensure point is within image bounds
-            if (px >= 0 && px < image.getWidth() && py >= 0 && py < image.getHeight()) {
-                Color pixelColor = new Color(image.getRGB(px, py));
-                if (isColorSimilar(pixelColor, targetColor, tolerance)) {
-                    // If any sample point matches, we consider it a success.
-                    return true;
-                }
+        int rgb = targetColor.getRGB() & 0xFFFFFF;
+        List<Point> targets = new ArrayList<>(links.size());
+        for (ScreenLayout.Element link : links) {
+            if (WordColorAnalyzer.isSimilar(link.color(), rgb, DEFAULT_COLOR_TOLERANCE)) {
+                targets.add(new Point(link.clickX(), link.clickY()));
             }
         }
-        return false;
+        return targets;
     }
 
     /**
-     * Compares two colors based on their squared Euclidean distance in the RGB
-     * space.
-     *
-     * @param c1        The first color.
-     * @param c2        The second color.
-     * @param tolerance The maximum allowed distance.
-     * @return true if the distance is within the tolerance.
+     * Scans the image once for pixels in the link color and OCRs only the regions
+     * they form. Each region is one line of a link and is clicked on its first
+     * word, unless it wraps the region above it (see
+     * {@link ScreenLayout#isWrappedLine(Rectangle, Rectangle)}), whose link was
+     * already clicked. Regions without any text (icons, colored rules) are
+     * skipped.
      */
-    private boolean isColorSimilar(Color c1, Color c2, int tolerance) {
-        long r_dist = c1.getRed() - c2.getRed();
-        long g_dist = c1.getGreen() - c2.getGreen();
-        long b_dist = c1.getBlue() - c2.getBlue();
-
-        // Using squared distance to avoid expensive square root calculation.
-        long distanceSq = r_dist * r_dist + g_dist * g_dist + b_dist * b_dist;
-        long toleranceSq = (long) tolerance * tolerance;
-
-        return distanceSq < toleranceSq;
+    private List<Point> findLinksByColorMask(BufferedImage image, Color targetColor, OcrProfile profile) {
+        List<Rectangle> regions = linkColorDetector.detect(image, targetColor.getRGB());
+        LOGGER.info("Found " + regions.size() + " region(s) in the link color. OCRing them...");
+
+        List<Point> targets = new ArrayList<>(regions.size());
+        Rectangle previous = null;
+        for (Rectangle linkRegion : regions) {
+            OcrColumns words = ocrService
+                    .getFrame(image, linkRegion, profileFor(profile, OcrProfile.FAST_SPARSE, linkRegion))
+                    .columns();
+            if (words.isEmpty()) {
+                continue;
+            }
+            boolean wrapped = previous != null && ScreenLayout.isWrappedLine(previous, linkRegion);
+            previous = linkRegion;
+            if (!wrapped) {
+                int first = words.lineWord(0);
+                targets.add(new Point(words.centerX(first), words.centerY(first)));
+            }
+        }
+        return targets;
     }
 
     /**
      * Private helper to perform a click action on a given OCR result.
      * 
-     * @param target The OcrResult to click.
-     * @param action The click action to perform (e.g., "MOVE_AND_CLICK",
-     *               "MOVE_AND_CTRL_CLICK").
+     * @param target       The OcrResult to click.
+     * @param withModifier True to Ctrl+click (Cmd+click on macOS), e.g. to open a
+     *                     link in a new tab.
      * @return true, as the click command was executed.
      */
-    private boolean clickOcrResult(OcrService.OcrResult target, String action) {
+    private boolean clickOcrResult(OcrService.OcrResult target, boolean withModifier) {
         Rectangle boundingBox = target.boundingBox();
         LOGGER.info(String.format("Executing %s on '%s' at [x=%d, y=%d, w=%d, h=%d] with confidence %.2f%%",
-                action, target.text(), boundingBox.x, boundingBox.y, boundingBox.width, boundingBox.height,
-                target.confidence()));
+                clickName(withModifier), target.text(), boundingBox.x, boundingBox.y, boundingBox.width,
+                boundingBox.height, target.confidence()));
 
         int clickX = boundingBox.x + (boundingBox.width / 2);
         int clickY = boundingBox.y + (boundingBox.height / 2);
+        clickAt(clickX, clickY, withModifier);
+        return true;
+    }
 
-        String commandJson = String.format(
-                "{\"action\":\"%s\", \"x\":%d, \"y\":%d, \"button\":\"LEFT\"}",
-                action, clickX, clickY);
+    private void clickAt(int clickX, int clickY, boolean withModifier) {
+        InputCommand.Click click = withModifier
+                ? InputCommand.modifierClick(clickX, clickY)
+                : InputCommand.click(clickX, clickY);
+        inputDispatcher.submit(click).join();
+    }
 
-        mouseMovement.executeCommand(commandJson);
-        return true;
+    private static String clickName(boolean withModifier) {
+        return withModifier ? "modifier click" : "click";
     }
-}
\ No newline at end of file
+}
@@ -1,48 +1,203 @@
 package com.org.pp.finAgent.service;
 
-import com.org.pp.finAgent.configuration.TesseractConfig;
 import com.org.pp.finAgent.exception.OcrProcessingException;
-import net.sourceforge.tess4j.ITessAPI;
-import net.sourceforge.tess4j.ITesseract;
-import net.sourceforge.tess4j.Tesseract;
+import com.org.pp.finAgent.service.ocr.IncrementalOcrEngine;
+import com.org.pp.finAgent.service.ocr.OcrColumns;
+import com.org.pp.finAgent.service.ocr.OcrFrame;
+import com.org.pp.finAgent.service.ocr.OcrProfile;
+import com.org.pp.finAgent.service.ocr.OcrResultCache;
+import com.org.pp.finAgent.service.ocr.PhraseMatcher;
+import com.org.pp.finAgent.service.ocr.TesseractEngine;
+import com.org.pp.finAgent.service.ocr.TesseractPool;
+import com.org.pp.finAgent.service.ocr.WordColorAnalyzer;
 import net.sourceforge.tess4j.Word;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class OcrService {
 
     private static final Logger log = LoggerFactory.getLogger(OcrService.class);
 
-    private final ITesseract tesseract;
+    private final IncrementalOcrEngine incrementalOcr;
+    private final OcrResultCache resultCache;
+    private final TesseractPool tesseractPool;
+    private final WordColorAnalyzer colorAnalyzer;
+    private final float searchMinConfidence;
+    private final int searchMaxEdits;
 
-    public OcrService(TesseractConfig tesseractConfig) {
-        this.tesseract = new Tesseract();
-        this.tesseract.setDatapath(tesseractConfig.getTessDataPath());
-        this.tesseract.setLanguage("eng");
+    // The most recent whole-image frame, so repeated queries on an unchanged screen skip OCR and indexing
+    private OcrResultCache.Key lastFrameKey;
+    private OcrFrame lastFrame;
 
-        // Eagerly trigger native library loading so errors surface at startup
+    public OcrService(IncrementalOcrEngine incrementalOcr, OcrResultCache resultCache, TesseractPool tesseractPool,
+            WordColorAnalyzer colorAnalyzer,
+            @Value("${ocr.search.min-confidence:60}") float searchMinConfidence,
+            @Value("${ocr.search.max-edits:-1}") int searchMaxEdits) {
+        // Engines warm up in the background; the first OCR call waits for them (see awaitReady)
+        this.incrementalOcr = incrementalOcr;
+        this.resultCache = resultCache;
+        this.tesseractPool = tesseractPool;
+        this.colorAnalyzer = colorAnalyzer;
+        this.searchMinConfidence = searchMinConfidence;
+        this.searchMaxEdits = searchMaxEdits;
+    }
+
+    /**
+     * Completes when the OCR engines have finished warming up.
+     */
+    public CompletableFuture<Void> ready() {
+        return tesseractPool.ready();
+    }
+
+    /**
+     * Blocks until the OCR engines have finished warming up. Callers that capture
+     * the screen should wait before capturing, so a slow first warm-up does not
+     * leave them OCRing a stale frame.
+     *
+     * @return How long the call waited, in milliseconds (0 if already ready).
+     * @throws OcrProcessingException if the engines failed to initialise.
+     */
+    public long awaitReady() {
+        if (tesseractPool.ready().isDone() && !tesseractPool.ready().isCompletedExceptionally()) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        tesseractPool.awaitReady();
+        long waited = System.currentTimeMillis() - start;
+        log.info("Waited {} ms for OCR warm-up to finish.", waited);
+        return waited;
+    }
+
+    /**
+     * Finds the best occurrence of a word or phrase, tolerating OCR errors (see
+     * {@link PhraseMatcher}), without reading the whole image when it can be
+     * avoided.
+     *
+     * If the image was OCR'd recently its indexed frame is searched, and if an
+     * earlier frame of the same size can be updated incrementally the whole image
+     * is recognized that way. Otherwise the image is recognized line by line and
+     * the search stops at the first exact match with at least
+     * {@code ocr.search.min-confidence}. Failing that, the best-ranked candidate
+     * seen is returned: confident matches first, then by edit distance and
+     * confidence. A search that read every line caches its words like a
+     * whole-image pass, so the next query on the same screen skips OCR.
+     *
+     * @param image  The BufferedImage to search.
+     * @param region The part of the image to search, or null for the whole image.
+     * @param text   The word or phrase to search for.
+     * @return The match in the image's coordinates, if any.
+     */
+    public Optional<PhraseMatcher.Match> findText(BufferedImage image, Rectangle region, String text) {
+        return findText(image, region, text, tesseractPool.defaultProfile());
+    }
+
+    /**
+     * Like {@link #findText(BufferedImage, Rectangle, String)}, recognizing with
+     * the given profile.
+     */
+    public Optional<PhraseMatcher.Match> findText(BufferedImage image, Rectangle region, String text,
+            OcrProfile profile) {
+        PhraseMatcher matcher = PhraseMatcher.compile(text, searchMaxEdits);
+        if (matcher.isEmpty()) {
+            return Optional.empty();
+        }
         try {
-            BufferedImage testImg = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
-            tesseract.getWords(testImg, ITessAPI.TessPageIteratorLevel.RIL_WORD);
-            log.info("Tesseract OCR initialized successfully (native library loaded).");
-        } catch (UnsatisfiedLinkError e) {
-            log.error("Failed to load Tesseract native library: {}", e.getMessage(), e);
-            throw new OcrProcessingException("Tesseract OCR native library not found. "
-                    + "Ensure 'tesseract' is installed (brew install tesseract) and "
-                    + "jna.library.path points to the lib directory.", e);
-        } catch (Exception e) {
-            // Non-fatal: Tesseract may throw on a trivial test image, but the
-            // native library was still loaded successfully during the attempt.
-            log.info("Tesseract OCR native library loaded (test OCR returned: {}).", e.getMessage());
+            Rectangle clipped = region == null
+                    ? new Rectangle(0, 0, image.getWidth(), image.getHeight())
+                    : region.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+            if (clipped.isEmpty()) {
+                return Optional.empty();
+            }
+            BufferedImage target = region == null
+                    ? image
+                    : image.getSubimage(clipped.x, clipped.y, clipped.width, clipped.height);
+
+            OcrResultCache.Key key = resultCache.isEnabled() ? resultCache.keyOf(target, profile) : null;
+            OcrFrame frame = key != null ? cachedFrame(key, target) : null;
+            if (frame == null && incrementalOcr.hasPreviousFrame(target, profile)) {
+                frame = recognizeFrame(target, profile);
+            }
+            PhraseMatcher.Match match = frame != null
+                    ? choose(frame.findPhrase(matcher), null)
+                    : streamingSearch(target, key, matcher, profile);
+            return Optional.ofNullable(match).map(m -> m.translated(clipped.x, clipped.y));
+        } catch (OcrProcessingException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new OcrProcessingException("An unexpected error occurred during OCR processing.", ex);
+        }
+    }
+
+    /**
+     * Searches the image line by line. Each line is matched together with the one
+     * before it, so a phrase that Tesseract splits across two consecutive lines
+     * still matches as it would in a whole-image frame. If no exact match ends the
+     * search early, the words of every line are the whole image's words; they are
+     * cached under {@code key} (when caching is enabled) instead of thrown away.
+     */
+    private PhraseMatcher.Match streamingSearch(BufferedImage image, OcrResultCache.Key key,
+            PhraseMatcher matcher, OcrProfile profile) {
+        PhraseMatcher.Match[] best = new PhraseMatcher.Match[1];
+        List<Word> words = new ArrayList<>();
+        List<OcrResult> previousLine = new ArrayList<>();
+        PhraseMatcher.Match exact = tesseractPool.withEngine(profile, engine -> engine.searchLines(image,
+                lineWords -> {
+                    words.addAll(lineWords);
+                    List<OcrResult> line = toResults(lineWords);
+                    List<OcrResult> window = new ArrayList<>(previousLine.size() + line.size());
+                    window.addAll(previousLine);
+                    window.addAll(line);
+                    previousLine.clear();
+                    previousLine.addAll(line);
+                    best[0] = choose(matcher.findAll(window), best[0]);
+                    boolean done = best[0] != null && best[0].distance() == 0
+                            && best[0].confidence() >= searchMinConfidence;
+                    return done ? best[0] : null;
+                }));
+        if (exact == null && key != null) {
+            resultCache.put(key, words);
+            remember(key, index(image, words));
+        }
+        log.debug("Streaming search: {}.", exact != null ? "stopped at an exact match"
+                : best[0] != null ? "best approximate match" : "no match");
+        return exact != null ? exact : best[0];
+    }
+
+    /**
+     * Picks the better of the incumbent and the ranked candidates: confident
+     * matches beat unconfident ones, then lower distance, then higher confidence.
+     * On a tie the incumbent (earlier in reading order) wins.
+     */
+    private PhraseMatcher.Match choose(List<PhraseMatcher.Match> ranked, PhraseMatcher.Match incumbent) {
+        PhraseMatcher.Match best = incumbent;
+        for (PhraseMatcher.Match candidate : ranked) {
+            if (best == null || isBetter(candidate, best)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private boolean isBetter(PhraseMatcher.Match a, PhraseMatcher.Match b) {
+        boolean aConfident = a.confidence() >= searchMinConfidence;
+        boolean bConfident = b.confidence() >= searchMinConfidence;
+        if (aConfident != bConfident) {
+            return aConfident;
+        }
+        if (a.distance() != b.distance()) {
+            return a.distance() < b.distance();
         }
+        return a.confidence() > b.confidence();
     }
 
     /**
@@ -56,18 +211,21 @@ public class OcrService {
      * @return A list of OcrResult objects for each instance of the found word.
      */
     public List<OcrResult> getWordsFromImage(BufferedImage image, String findWord) {
-        try {
-            List<Word> words = tesseract.getWords(image, ITessAPI.TessPageIteratorLevel.RIL_WORD);
-
-            return words.stream()
-                    .filter(word -> word.getText() != null && !word.getText().trim().isEmpty())
-                    // Updated filter to perform fuzzy matching
-                    .filter(word -> isFuzzyMatch(word.getText(), findWord))
-                    .map(word -> new OcrResult(word.getText(), word.getBoundingBox(), word.getConfidence()))
-                    .collect(Collectors.toList());
-        } catch (Exception ex) {
-            throw new OcrProcessingException("An unexpected error occurred during OCR processing.", ex);
-        }
+        return getWordsFromImage(image, null, findWord);
+    }
+
+    /**
+     * Detects specific words inside a region of a BufferedImage. Only the region's
+     * pixels are OCR'd; bounding boxes are returned in the image's coordinates.
+     *
+     * @param image    The BufferedImage to process.
+     * @param region   The part of the image to OCR, or null for the whole image.
+     * @param findWord The word to search for within the region.
+     * @return A list of OcrResult objects for each instance of the found word,
+     *         created from the indexed frame.
+     */
+    public List<OcrResult> getWordsFromImage(BufferedImage image, Rectangle region, String findWord) {
+        return getFrame(image, region).findWord(findWord);
     }
 
     /**
@@ -79,40 +237,176 @@ public class OcrService {
      * @return A list of OcrResult objects for each detected word.
      */
     public List<OcrResult> getAllWordsFromImage(BufferedImage image) {
-        try {
-            List<Word> words = tesseract.getWords(image, ITessAPI.TessPageIteratorLevel.RIL_WORD);
+        return getAllWordsFromImage(image, null);
+    }
 
-            return words.stream()
-                    .filter(word -> word.getText() != null && !word.getText().trim().isEmpty())
-                    .map(word -> new OcrResult(word.getText(), word.getBoundingBox(), word.getConfidence()))
-                    .collect(Collectors.toList());
+    /**
+     * Detects ALL words inside a region of a BufferedImage. Bounding boxes are
+     * returned in the image's coordinates.
+     *
+     * @param image  The BufferedImage to process.
+     * @param region The part of the image to OCR, or null for the whole image.
+     * @return A list of OcrResult objects for each detected word: a read-only
+     *         view over the indexed frame that creates each result on access.
+     */
+    public List<OcrResult> getAllWordsFromImage(BufferedImage image, Rectangle region) {
+        return getFrame(image, region).words();
+    }
+
+    /**
+     * OCRs the image once and returns the words indexed for text, region and
+     * nearest-neighbour queries. Asking again for a pixel-identical image returns
+     * the same frame without re-OCRing or re-indexing.
+     *
+     * @param image The BufferedImage to process.
+     * @return The indexed words, in the image's coordinates.
+     */
+    public OcrFrame getFrame(BufferedImage image) {
+        return getFrame(image, null);
+    }
+
+    /**
+     * OCRs a region of the image once and returns the words indexed for queries.
+     * Bounding boxes are in the image's coordinates.
+     *
+     * @param image  The BufferedImage to process.
+     * @param region The part of the image to OCR, or null for the whole image.
+     * @return The indexed words.
+     */
+    public OcrFrame getFrame(BufferedImage image, Rectangle region) {
+        return getFrame(image, region, tesseractPool.defaultProfile());
+    }
+
+    /**
+     * OCRs a region of the image once with the given profile and returns the
+     * words indexed for queries. Bounding boxes are in the image's coordinates.
+     *
+     * @param image   The BufferedImage to process.
+     * @param region  The part of the image to OCR, or null for the whole image.
+     * @param profile The speed/accuracy trade-off to recognize with.
+     * @return The indexed words.
+     */
+    public OcrFrame getFrame(BufferedImage image, Rectangle region, OcrProfile profile) {
+        try {
+            if (region == null) {
+                return recognizeFrame(image, profile);
+            }
+            Rectangle clipped = region.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+            if (clipped.isEmpty()) {
+                return OcrFrame.of(OcrColumns.empty());
+            }
+            // getSubimage shares the parent's raster, so no pixels are copied here
+            BufferedImage sub = image.getSubimage(clipped.x, clipped.y, clipped.width, clipped.height);
+            return recognizeFrame(sub, profile).translated(clipped.x, clipped.y);
+        } catch (OcrProcessingException ex) {
+            throw ex;
         } catch (Exception ex) {
             throw new OcrProcessingException("An unexpected error occurred during OCR processing.", ex);
         }
     }
 
     /**
-     * Checks if the search text is present within the OCR-detected text by
-     * splitting
-     * the OCR text by non-alphanumeric characters. For example, if OCR reads
-     * "xyz_asd",
-     * searching for "xyz" will return true.
+     * Runs Tesseract's layout analysis on the image, without recognizing any text,
+     * and returns its text lines and the blocks they belong to. Combine with
+     * {@link #getFrame(BufferedImage, Rectangle, OcrProfile)} to group words into
+     * lines and blocks (see {@link com.org.pp.finAgent.service.ocr.ScreenLayout}).
      *
-     * @param ocrText    The text detected by Tesseract.
-     * @param searchText The text to find.
-     * @return True if a match is found, false otherwise.
+     * @param image   The BufferedImage to analyse.
+     * @param profile Selects the engine; segmentation is always fully automatic.
+     * @return The text lines in reading order, in the image's coordinates.
+     */
+    public List<TesseractEngine.TextLine> getTextLines(BufferedImage image, OcrProfile profile) {
+        try {
+            return tesseractPool.withEngine(profile, engine -> engine.analyseLayout(image));
+        } catch (OcrProcessingException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new OcrProcessingException("An unexpected error occurred during layout analysis.", ex);
+        }
+    }
+
+    /**
+     * Runs word-level OCR on the whole image and indexes the result. The most
+     * recent frame is reused for a pixel-identical image; other pixel-identical
+     * images are served from the result cache. Otherwise rows unchanged since the
+     * previous frame of the same size reuse its results, and large frames that
+     * need a full pass are split into parallel bands. Each word's foreground color
+     * is attached while the image is at hand.
      */
-    private boolean isFuzzyMatch(String ocrText, String searchText) {
-        if (ocrText == null || searchText == null || searchText.isEmpty()) {
-            return false;
+    private OcrFrame recognizeFrame(BufferedImage image, OcrProfile profile) {
+        if (!resultCache.isEnabled()) {
+            return index(image, incrementalOcr.recognize(image, profile));
         }
-        // Split the OCR text by any sequence of one or more non-alphanumeric characters
-        return Arrays.stream(ocrText.trim().split("[^a-zA-Z0-9]+"))
-                .anyMatch(part -> searchText.equalsIgnoreCase(part));
+        OcrResultCache.Key key = resultCache.keyOf(image, profile);
+        OcrFrame frame = cachedFrame(key, image);
+        if (frame != null) {
+            return frame;
+        }
+        List<Word> words = incrementalOcr.recognize(image, profile);
+        resultCache.put(key, words);
+        return remember(key, index(image, words));
     }
 
-    public record OcrResult(String text, Rectangle boundingBox, float confidence) {
+    private OcrFrame index(BufferedImage image, List<Word> words) {
+        return OcrFrame.of(colorAnalyzer.analyze(image, OcrColumns.fromWords(words)));
+    }
 
+    /**
+     * Returns the indexed frame for an image that was OCR'd before, or null.
+     */
+    private OcrFrame cachedFrame(OcrResultCache.Key key, BufferedImage image) {
+        synchronized (this) {
+            if (key.equals(lastFrameKey)) {
+                return lastFrame;
+            }
+        }
+        List<Word> words = resultCache.get(key);
+        if (words == null) {
+            return null;
+        }
+        log.debug("OCR cache hit for {}x{} image ({}).", key.width(), key.height(), key.profile());
+        return remember(key, index(image, words));
+    }
+
+    private synchronized OcrFrame remember(OcrResultCache.Key key, OcrFrame frame) {
+        lastFrameKey = key;
+        lastFrame = frame;
+        return frame;
+    }
+
+    private static List<OcrResult> toResults(List<Word> words) {
+        List<OcrResult> results = new ArrayList<>(words.size());
+        for (Word word : words) {
+            results.add(new OcrResult(word.getText(), word.getBoundingBox(), word.getConfidence()));
+        }
+        return results;
+    }
+
+    public OcrResultCache.Stats getCacheStats() {
+        return resultCache.getStats();
+    }
+
+    /**
+     * One recognized word.
+     *
+     * @param text        The recognized text.
+     * @param boundingBox Where the word is.
+     * @param confidence  Tesseract's confidence, 0-100.
+     * @param color       The word's foreground color as 0xRRGGBB, or
+     *                    {@link #NO_COLOR} if it is not known.
+     */
+    public record OcrResult(String text, Rectangle boundingBox, float confidence, int color) {
+
+        /** The color of a word whose color was not analysed or could not be determined. */
+        public static final int NO_COLOR = -1;
+
+        public OcrResult(String text, Rectangle boundingBox, float confidence) {
+            this(text, boundingBox, confidence, NO_COLOR);
+        }
+
+        public boolean hasColor() {
+            return color != NO_COLOR;
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.exception.OcrProcessingException;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.Word;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * OCRs a large frame in parallel by splitting it into overlapping horizontal
+ * bands, recognizing each band on its own pooled engine, and merging the results.
+ *
+ * Bands overlap by {@code ocr.parallel.overlap} pixels so that every text line is
+ * fully contained in at least one band. Words cut by an inner band edge are
+ * discarded, and words read twice in an overlap are de-duplicated by bounding-box
+ * IoU, keeping the copy with the highest confidence.
+ */
+@Component
+public class BandedOcrExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(BandedOcrExecutor.class);
+
+    private static final double DUPLICATE_IOU_THRESHOLD = 0.5;
+    private static final int EDGE_MARGIN = 2;
+
+    private final TesseractPool tesseractPool;
+    private final ForkJoinPool forkJoinPool;
+    private final boolean enabled;
+    private final int bandCount;
+    private final int overlap;
+    private final int minFrameHeight;
+
+    public BandedOcrExecutor(TesseractPool tesseractPool,
+            @Value("${ocr.parallel.enabled:true}") boolean enabled,
+            @Value("${ocr.parallel.bands:0}") int configuredBands,
+            @Value("${ocr.parallel.overlap:64}") int overlap,
+            @Value("${ocr.parallel.min-height:1000}") int minFrameHeight) {
+        this.tesseractPool = tesseractPool;
+        this.enabled = enabled;
+        this.bandCount = configuredBands > 0 ? configuredBands : tesseractPool.size();
+        this.overlap = overlap;
+        this.minFrameHeight = minFrameHeight;
+        this.forkJoinPool = new ForkJoinPool(Math.max(1, tesseractPool.size()));
+    }
+
+    /**
+     * Returns true if the image is large enough, and enough engines are available,
+     * for banded OCR to pay off.
+     */
+    public boolean shouldSplit(BufferedImage image) {
+        return enabled && bandCount > 1 && image.getHeight() >= minFrameHeight;
+    }
+
+    /**
+     * Recognizes the image band by band in parallel and returns the merged words
+     * in the image's coordinate space.
+     *
+     * @param image   The image to OCR.
+     * @param level   A {@link net.sourceforge.tess4j.ITessAPI.TessPageIteratorLevel} constant.
+     * @param profile The settings each band is recognized with.
+     * @return The merged, de-duplicated words.
+     */
+    public List<Word> recognize(BufferedImage image, int level, OcrProfile profile) {
+        List<Rectangle> bands = splitIntoBands(image.getWidth(), image.getHeight(), bandCount, overlap);
+
+        List<Callable<List<Word>>> tasks = new ArrayList<>(bands.size());
+        for (Rectangle band : bands) {
+            tasks.add(() -> recognizeBand(image, band, level, profile));
+        }
+
+        List<Word> candidates = new ArrayList<>();
+        try {
+            for (Future<List<Word>> future : forkJoinPool.invokeAll(tasks)) {
+                candidates.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OcrProcessingException("Interrupted during banded OCR.", e);
+        } catch (ExecutionException e) {
+            throw new OcrProcessingException("Banded OCR failed.", e.getCause());
+        }
+
+        List<Word> merged = deduplicate(candidates);
+        log.debug("Banded OCR: {} band(s), {} candidate(s), {} word(s) after merge.",
+                bands.size(), candidates.size(), merged.size());
+        return merged;
+    }
+
+    private List<Word> recognizeBand(BufferedImage image, Rectangle band, int level, OcrProfile profile) {
+        BufferedImage sub = image.getSubimage(band.x, band.y, band.width, band.height);
+        List<Word> words = tesseractPool.withEngine(profile, engine -> engine.getWords(sub, level));
+
+        boolean hasBandAbove = band.y > 0;
+        boolean hasBandBelow = band.y + band.height < image.getHeight();
+        List<Word> kept = new ArrayList<>(words.size());
+        for (Word word : words) {
+            Rectangle box = word.getBoundingBox();
+            // A word touching an inner edge was probably cut; the neighbouring band has it whole
+            if ((hasBandAbove && box.y <= EDGE_MARGIN)
+                    || (hasBandBelow && box.y + box.height >= band.height - EDGE_MARGIN)) {
+                continue;
+            }
+            box.translate(band.x, band.y);
+            kept.add(word);
+        }
+        return kept;
+    }
+
+    /**
+     * Splits an image into {@code count} horizontal bands of equal height, each
+     * extended by {@code overlap} pixels into its neighbours.
+     */
+    static List<Rectangle> splitIntoBands(int width, int height, int count, int overlap) {
+        List<Rectangle> bands = new ArrayList<>(count);
+        int bandHeight = (int) Math.ceil(height / (double) count);
+        for (int i = 0; i < count; i++) {
+            int top = Math.max(0, i * bandHeight - overlap);
+            int bottom = Math.min(height, (i + 1) * bandHeight + overlap);
+            if (bottom > top) {
+                bands.add(new Rectangle(0, top, width, bottom - top));
+            }
+        }
+        return bands;
+    }
+
+    /**
+     * Keeps the highest-confidence copy of every group of overlapping words.
+     */
+    static List<Word> deduplicate(List<Word> candidates) {
+        List<Word> byConfidence = new ArrayList<>(candidates);
+        byConfidence.sort(Comparator.comparingDouble(Word::getConfidence).reversed());
+
+        List<Word> kept = new ArrayList<>(byConfidence.size());
+        for (Word candidate : byConfidence) {
+            boolean duplicate = false;
+            for (Word existing : kept) {
+                if (iou(candidate.getBoundingBox(), existing.getBoundingBox()) >= DUPLICATE_IOU_THRESHOLD) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                kept.add(candidate);
+            }
+        }
+
+        // Restore reading order
+        kept.sort(Comparator.comparingInt((Word w) -> w.getBoundingBox().y)
+                .thenComparingInt(w -> w.getBoundingBox().x));
+        return kept;
+    }
+
+    /**
+     * Intersection-over-union of two rectangles, between 0 and 1.
+     */
+    static double iou(Rectangle a, Rectangle b) {
+        int left = Math.max(a.x, b.x);
+        int top = Math.max(a.y, b.y);
+        int right = Math.min(a.x + a.width, b.x + b.width);
+        int bottom = Math.min(a.y + a.height, b.y + b.height);
+        if (right <= left || bottom <= top) {
+            return 0;
+        }
+        double intersectionArea = (double) (right - left) * (bottom - top);
+        double unionArea = (double) a.width * a.height + (double) b.width * b.height - intersectionArea;
+        return unionArea <= 0 ? 0 : intersectionArea / unionArea;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        forkJoinPool.shutdownNow();
+    }
+}
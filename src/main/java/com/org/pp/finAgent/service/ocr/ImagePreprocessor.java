@@ -0,0 +1,311 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.util.IntRasterView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * Prepares screenshots for Tesseract with plain primitive loops over the packed
+ * int pixels, instead of letting Tesseract binarize the full-color image itself.
+ *
+ * The pipeline runs in this order, each step optional:
+ * <ol>
+ * <li>grayscale: integer BT.601 luma;</li>
+ * <li>dark-mode inversion: if the mean luma is below
+ * {@link #DARK_MODE_MEAN_LUMA}, invert so text is dark on a light background,
+ * which is what Tesseract's models are trained on;</li>
+ * <li>scaling by {@code ocr.preprocess.scale} with bilinear interpolation;</li>
+ * <li>adaptive threshold (Bradley-Roth): a pixel becomes black if it is
+ * {@code ocr.preprocess.threshold-percent} darker than the mean of the window
+ * around it.</li>
+ * </ol>
+ * The result is written directly into an engine's {@link NativePixelBuffer}.
+ * When scaling is enabled, {@link Prepared#toSource(Rectangle)} maps boxes found
+ * in the prepared image back to the original image.
+ */
+@Component
+public class ImagePreprocessor {
+
+    private static final int DARK_MODE_MEAN_LUMA = 110;
+    private static final int THRESHOLD_WINDOW_RADIUS = 15;
+
+    private final boolean enabled;
+    private final boolean invertDarkMode;
+    private final double scale;
+    private final boolean threshold;
+    private final int thresholdPercent;
+
+    /**
+     * Describes an image written into a {@link NativePixelBuffer}.
+     *
+     * @param width  Width of the prepared image.
+     * @param height Height of the prepared image.
+     * @param scale  The factor the prepared image was scaled by.
+     */
+    public record Prepared(int width, int height, double scale) {
+
+        /**
+         * Maps a rectangle in the prepared image back to the source image, in place.
+         */
+        public Rectangle toSource(Rectangle box) {
+            if (scale != 1.0) {
+                int x0 = (int) Math.floor(box.x / scale);
+                int y0 = (int) Math.floor(box.y / scale);
+                int x1 = (int) Math.ceil((box.x + box.width) / scale);
+                int y1 = (int) Math.ceil((box.y + box.height) / scale);
+                box.setBounds(x0, y0, x1 - x0, y1 - y0);
+            }
+            return box;
+        }
+    }
+
+    public ImagePreprocessor(@Value("${ocr.preprocess.enabled:true}") boolean enabled,
+            @Value("${ocr.preprocess.invert-dark-mode:true}") boolean invertDarkMode,
+            @Value("${ocr.preprocess.scale:1.0}") double scale,
+            @Value("${ocr.preprocess.threshold:false}") boolean threshold,
+            @Value("${ocr.preprocess.threshold-percent:15}") int thresholdPercent) {
+        this.enabled = enabled;
+        this.invertDarkMode = invertDarkMode;
+        this.scale = scale > 0 ? scale : 1.0;
+        this.threshold = threshold;
+        this.thresholdPercent = thresholdPercent;
+    }
+
+    /**
+     * A preprocessor that hands images to Tesseract unchanged.
+     */
+    public static ImagePreprocessor disabled() {
+        return new ImagePreprocessor(false, false, 1.0, false, 0);
+    }
+
+    /**
+     * Runs the configured pipeline over the image and writes the result straight
+     * into {@code target}, ready for TessBaseAPISetImage. The source image is not
+     * modified.
+     *
+     * Without scaling or thresholding the capture raster is read once and each
+     * output row goes directly into the native buffer. Scaling and thresholding
+     * need the whole grayscale frame, so they go through the target's reusable
+     * working arrays first.
+     */
+    public Prepared prepareInto(BufferedImage source, NativePixelBuffer target) {
+        return prepareInto(source, target, 1.0);
+    }
+
+    /**
+     * Like {@link #prepareInto(BufferedImage, NativePixelBuffer)}, with the
+     * configured scale multiplied by {@code scaleFactor} (see
+     * {@link OcrProfile#scaleFactor()}). Has no effect when preprocessing is
+     * disabled.
+     */
+    public Prepared prepareInto(BufferedImage source, NativePixelBuffer target, double scaleFactor) {
+        double scale = scaleFactor > 0 ? this.scale * scaleFactor : this.scale;
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        IntRasterView raster = IntRasterView.of(source);
+        if (!enabled && raster == null && source.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            copyGray(source, target);
+            return new Prepared(width, height, 1.0);
+        }
+        if (raster == null) {
+            // Uncommon source formats are converted once to packed ints
+            raster = IntRasterView.ofConverted(source);
+            target.countCopy(4L * width * height);
+        }
+        if (!enabled) {
+            copyRgba(raster, target);
+            return new Prepared(width, height, 1.0);
+        }
+
+        boolean invert = invertDarkMode && lumaSum(raster) < (long) DARK_MODE_MEAN_LUMA * width * height;
+
+        if (scale == 1.0 && !threshold) {
+            target.begin(width, height, 1);
+            byte[] row = target.rowScratch();
+            for (int y = 0; y < height; y++) {
+                grayRow(raster, y, row, 0, invert);
+                target.putGrayRow(y, row, 0);
+            }
+            target.countCopy((long) width * height);
+            return new Prepared(width, height, 1.0);
+        }
+
+        byte[] gray = target.workingArray(0, width * height);
+        for (int y = 0; y < height; y++) {
+            grayRow(raster, y, gray, y * width, invert);
+        }
+        target.countCopy((long) width * height);
+
+        if (scale != 1.0) {
+            int scaledWidth = Math.max(1, (int) Math.round(width * scale));
+            int scaledHeight = Math.max(1, (int) Math.round(height * scale));
+            byte[] scaled = target.workingArray(1, scaledWidth * scaledHeight);
+            resize(gray, width, height, scaled, scaledWidth, scaledHeight);
+            target.countCopy((long) scaledWidth * scaledHeight);
+            gray = scaled;
+            width = scaledWidth;
+            height = scaledHeight;
+        }
+
+        target.begin(width, height, 1);
+        if (threshold) {
+            adaptiveThreshold(gray, width, height, THRESHOLD_WINDOW_RADIUS, thresholdPercent, target);
+        } else {
+            for (int y = 0; y < height; y++) {
+                target.putGrayRow(y, gray, y * width);
+            }
+        }
+        target.countCopy((long) width * height);
+        return new Prepared(width, height, scale);
+    }
+
+    /**
+     * Hands an untouched int-packed image to Tesseract as 4-byte R, G, B, A pixels.
+     */
+    private static void copyRgba(IntRasterView raster, NativePixelBuffer target) {
+        int width = raster.width();
+        target.begin(width, raster.height(), 4);
+        int[] pixels = raster.pixels();
+        int[] row = target.intRowScratch();
+        for (int y = 0; y < raster.height(); y++) {
+            int start = raster.rowStart(y);
+            for (int x = 0; x < width; x++) {
+                row[x] = (pixels[start + x] << 8) | 0xFF;
+            }
+            target.putRgbaRow(y, row);
+        }
+        target.countCopy(4L * width * raster.height());
+    }
+
+    private static void copyGray(BufferedImage source, NativePixelBuffer target) {
+        int width = source.getWidth();
+        target.begin(width, source.getHeight(), 1);
+        byte[] row = target.rowScratch();
+        for (int y = 0; y < source.getHeight(); y++) {
+            source.getRaster().getDataElements(0, y, width, 1, row);
+            target.putGrayRow(y, row, 0);
+        }
+        target.countCopy((long) width * source.getHeight());
+    }
+
+    private static long lumaSum(IntRasterView raster) {
+        int[] pixels = raster.pixels();
+        long sum = 0;
+        for (int y = 0; y < raster.height(); y++) {
+            int start = raster.rowStart(y);
+            int end = start + raster.width();
+            for (int i = start; i < end; i++) {
+                sum += luma(pixels[i]);
+            }
+        }
+        return sum;
+    }
+
+    private static void grayRow(IntRasterView raster, int y, byte[] out, int offset, boolean invert) {
+        int[] pixels = raster.pixels();
+        int start = raster.rowStart(y);
+        int mask = invert ? 0xFF : 0;
+        for (int x = 0; x < raster.width(); x++) {
+            out[offset + x] = (byte) (luma(pixels[start + x]) ^ mask);
+        }
+    }
+
+    /**
+     * Integer BT.601 luma.
+     */
+    private static int luma(int rgb) {
+        return (77 * ((rgb >> 16) & 0xFF) + 150 * ((rgb >> 8) & 0xFF) + 29 * (rgb & 0xFF)) >> 8;
+    }
+
+    /**
+     * Bilinear resize of an 8-bit grayscale buffer, using 16.16 fixed point.
+     */
+    static void resize(byte[] gray, int width, int height, byte[] out, int newWidth, int newHeight) {
+        long stepX = ((long) width << 16) / newWidth;
+        long stepY = ((long) height << 16) / newHeight;
+        for (int y = 0; y < newHeight; y++) {
+            long sy = Math.max(0, y * stepY + stepY / 2 - (1 << 15));
+            int y0 = Math.min(height - 1, (int) (sy >> 16));
+            int y1 = Math.min(height - 1, y0 + 1);
+            int fy = (int) (sy & 0xFFFF);
+            int row0 = y0 * width;
+            int row1 = y1 * width;
+            for (int x = 0; x < newWidth; x++) {
+                long sx = Math.max(0, x * stepX + stepX / 2 - (1 << 15));
+                int x0 = Math.min(width - 1, (int) (sx >> 16));
+                int x1 = Math.min(width - 1, x0 + 1);
+                int fx = (int) (sx & 0xFFFF);
+                long top = (gray[row0 + x0] & 0xFF) * (long) (0x10000 - fx) + (gray[row0 + x1] & 0xFF) * (long) fx;
+                long bottom = (gray[row1 + x0] & 0xFF) * (long) (0x10000 - fx) + (gray[row1 + x1] & 0xFF) * (long) fx;
+                out[y * newWidth + x] = (byte) ((top * (0x10000 - fy) + bottom * fy) >>> 32);
+            }
+        }
+    }
+
+    /**
+     * Bradley-Roth adaptive threshold. Window sums are kept as running column sums
+     * plus a sliding horizontal sum, so memory is one int per column, taken from
+     * the target's working storage, and the cost is independent of the window
+     * size. Output rows go straight into the target.
+     */
+    static void adaptiveThreshold(byte[] gray, int width, int height, int radius, int percent,
+            NativePixelBuffer target) {
+        byte[] out = target.rowScratch();
+        int[] columnSums = target.workingInts(width);
+        // Prime the column sums with rows [0, radius)
+        for (int y = 0; y < Math.min(radius, height); y++) {
+            addRow(gray, columnSums, y * width, width, 1);
+        }
+        int windowTop = 0;
+        int windowBottom = Math.min(radius, height); // exclusive
+
+        for (int y = 0; y < height; y++) {
+            // Slide the vertical window to [y - radius, y + radius]
+            int wantedBottom = Math.min(height, y + radius + 1);
+            while (windowBottom < wantedBottom) {
+                addRow(gray, columnSums, windowBottom * width, width, 1);
+                windowBottom++;
+            }
+            int wantedTop = Math.max(0, y - radius);
+            while (windowTop < wantedTop) {
+                addRow(gray, columnSums, windowTop * width, width, -1);
+                windowTop++;
+            }
+            int rowsInWindow = windowBottom - windowTop;
+
+            int sum = 0;
+            for (int x = 0; x < Math.min(radius, width); x++) {
+                sum += columnSums[x];
+            }
+            int left = 0;
+            int right = Math.min(radius, width); // exclusive
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int wantedRight = Math.min(width, x + radius + 1);
+                while (right < wantedRight) {
+                    sum += columnSums[right++];
+                }
+                int wantedLeft = Math.max(0, x - radius);
+                while (left < wantedLeft) {
+                    sum -= columnSums[left++];
+                }
+                int count = (right - left) * rowsInWindow;
+                int value = gray[row + x] & 0xFF;
+                // value < mean * (100 - percent) / 100, without dividing
+                boolean dark = (long) value * count * 100 < (long) sum * (100 - percent);
+                out[x] = dark ? 0 : (byte) 0xFF;
+            }
+            target.putGrayRow(y, out, 0);
+        }
+    }
+
+    private static void addRow(byte[] gray, int[] columnSums, int start, int width, int sign) {
+        for (int x = 0; x < width; x++) {
+            columnSums[x] += sign * (gray[start + x] & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.util.IntRasterView;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.Word;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Word-level OCR that reuses the previous frame's results for the parts of the
+ * screen that did not change.
+ *
+ * Every frame is reduced to one hash per pixel row. Comparing those with the
+ * previous frame's hashes tells us (a) the vertical shift caused by scrolling,
+ * found by voting over rows whose hash is unique, and (b) which rows changed
+ * after accounting for that shift. Only runs of changed rows, padded with
+ * {@link #CONTEXT_MARGIN} pixels of context, are re-OCR'd; words from the
+ * previous frame that lie entirely in unchanged rows are carried over with their
+ * coordinates shifted.
+ *
+ * State is kept per frame size and {@link OcrProfile}, so alternating between a
+ * few capture regions or profiles does not keep resetting it.
+ */
+@Component
+public class IncrementalOcrEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalOcrEngine.class);
+
+    private static final int MAX_TRACKED_SIZES = 4;
+    private static final int CONTEXT_MARGIN = 48;
+    private static final int EDGE_MARGIN = 2;
+    private static final double MIN_SHIFT_VOTE_FRACTION = 0.3;
+    private static final double MAX_DIRTY_FRACTION = 0.6;
+
+    private final TesseractPool tesseractPool;
+    private final BandedOcrExecutor bandedOcr;
+    private final boolean enabled;
+    private final Map<StateKey, FrameState> states = new LinkedHashMap<>(MAX_TRACKED_SIZES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<StateKey, FrameState> eldest) {
+            return size() > MAX_TRACKED_SIZES;
+        }
+    };
+
+    private final AtomicLong fullPasses = new AtomicLong();
+    private final AtomicLong incrementalPasses = new AtomicLong();
+    private final AtomicLong reusedWords = new AtomicLong();
+
+    private record StateKey(int width, int height, OcrProfile profile) {
+    }
+
+    private static final class FrameState {
+        long[] rowHashes;
+        List<Word> words;
+    }
+
+    /**
+     * Per-row hashes of a frame, plus whether each row is a single flat color.
+     * Flat rows are ignored when estimating the scroll shift since they match
+     * everywhere.
+     */
+    private record RowSignature(long[] hashes, boolean[] uniform) {
+    }
+
+    public IncrementalOcrEngine(TesseractPool tesseractPool, BandedOcrExecutor bandedOcr,
+            @Value("${ocr.incremental.enabled:true}") boolean enabled) {
+        this.tesseractPool = tesseractPool;
+        this.bandedOcr = bandedOcr;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Recognizes all words in the image, re-OCRing only what changed since the last
+     * frame of the same size.
+     *
+     * @param image   The image to OCR.
+     * @param profile The settings to recognize with.
+     * @return The words in the image, in reading order. The list and its words are
+     *         owned by the caller.
+     */
+    public List<Word> recognize(BufferedImage image, OcrProfile profile) {
+        if (!enabled) {
+            return fullOcr(image, profile);
+        }
+
+        FrameState state = stateFor(new StateKey(image.getWidth(), image.getHeight(), profile));
+        synchronized (state) {
+            RowSignature current = rowSignature(image);
+            List<Word> words = state.rowHashes == null
+                    ? fullOcr(image, profile)
+                    : incrementalOcr(image, profile, state, current);
+            state.rowHashes = current.hashes();
+            state.words = copyOf(words);
+            return words;
+        }
+    }
+
+    /**
+     * Whether {@link #recognize} would reuse an earlier frame for this image,
+     * rather than run a full pass.
+     */
+    public boolean hasPreviousFrame(BufferedImage image, OcrProfile profile) {
+        if (!enabled) {
+            return false;
+        }
+        StateKey key = new StateKey(image.getWidth(), image.getHeight(), profile);
+        FrameState state;
+        synchronized (states) {
+            state = states.get(key);
+        }
+        if (state == null) {
+            return false;
+        }
+        synchronized (state) {
+            return state.rowHashes != null;
+        }
+    }
+
+    public long getFullPassCount() {
+        return fullPasses.get();
+    }
+
+    public long getIncrementalPassCount() {
+        return incrementalPasses.get();
+    }
+
+    public long getReusedWordCount() {
+        return reusedWords.get();
+    }
+
+    private FrameState stateFor(StateKey key) {
+        synchronized (states) {
+            return states.computeIfAbsent(key, k -> new FrameState());
+        }
+    }
+
+    private List<Word> fullOcr(BufferedImage image, OcrProfile profile) {
+        fullPasses.incrementAndGet();
+        if (bandedOcr.shouldSplit(image)) {
+            return bandedOcr.recognize(image, ITessAPI.TessPageIteratorLevel.RIL_WORD, profile);
+        }
+        return tesseractPool.withEngine(profile,
+                engine -> engine.getWords(image, ITessAPI.TessPageIteratorLevel.RIL_WORD));
+    }
+
+    private List<Word> incrementalOcr(BufferedImage image, OcrProfile profile, FrameState previous,
+            RowSignature current) {
+        int height = image.getHeight();
+        int shift = estimateShift(previous.rowHashes, current);
+
+        boolean[] dirty = new boolean[height];
+        int dirtyCount = 0;
+        for (int y = 0; y < height; y++) {
+            int source = y - shift;
+            dirty[y] = source < 0 || source >= height || previous.rowHashes[source] != current.hashes()[y];
+            if (dirty[y]) {
+                dirtyCount++;
+            }
+        }
+
+        if (dirtyCount > height * MAX_DIRTY_FRACTION) {
+            log.debug("Incremental OCR: {}% of rows changed (shift {}), running a full pass.",
+                    dirtyCount * 100 / height, shift);
+            return fullOcr(image, profile);
+        }
+        incrementalPasses.incrementAndGet();
+
+        List<int[]> runs = dirtyRuns(dirty, CONTEXT_MARGIN);
+        List<Word> words = new ArrayList<>();
+
+        // 1. Carry over previous words that lie entirely in unchanged rows
+        int reused = 0;
+        for (Word word : previous.words) {
+            Rectangle box = new Rectangle(word.getBoundingBox());
+            box.translate(0, shift);
+            if (box.y < 0 || box.y + box.height > height || intersectsAny(box, runs)) {
+                continue;
+            }
+            words.add(new Word(word.getText(), word.getConfidence(), box));
+            reused++;
+        }
+        reusedWords.addAndGet(reused);
+
+        // 2. Re-OCR each changed run with some context above and below it
+        int width = image.getWidth();
+        for (int[] run : runs) {
+            int top = Math.max(0, run[0] - CONTEXT_MARGIN);
+            int bottom = Math.min(height, run[1] + CONTEXT_MARGIN);
+            BufferedImage sub = image.getSubimage(0, top, width, bottom - top);
+            List<Word> runWords = tesseractPool.withEngine(profile,
+                    engine -> engine.getWords(sub, ITessAPI.TessPageIteratorLevel.RIL_WORD));
+            for (Word word : runWords) {
+                Rectangle box = word.getBoundingBox();
+                boolean cutAtTop = top > 0 && box.y <= EDGE_MARGIN;
+                boolean cutAtBottom = bottom < height && box.y + box.height >= (bottom - top) - EDGE_MARGIN;
+                if (cutAtTop || cutAtBottom) {
+                    continue;
+                }
+                box.translate(0, top);
+                // Words only in the context margin were carried over in step 1
+                if (box.y < run[1] && box.y + box.height > run[0]) {
+                    words.add(word);
+                }
+            }
+        }
+
+        log.debug("Incremental OCR: shift {}, {} changed row(s) in {} run(s), {} word(s) reused.",
+                shift, dirtyCount, runs.size(), reused);
+
+        words.sort(Comparator.comparingInt((Word w) -> w.getBoundingBox().y)
+                .thenComparingInt(w -> w.getBoundingBox().x));
+        return words;
+    }
+
+    /**
+     * Estimates the vertical scroll between two frames by letting every distinctive
+     * row vote for the offset to its unique match in the previous frame.
+     *
+     * @return The shift in pixels (positive = content moved down), or 0 if no
+     *         offset wins a clear majority.
+     */
+    static int estimateShift(long[] previousHashes, RowSignature current) {
+        int height = current.hashes().length;
+
+        // Map each previous row hash to its row, or -1 if the hash is not unique
+        Map<Long, Integer> rowByHash = new HashMap<>(height * 2);
+        for (int y = 0; y < previousHashes.length; y++) {
+            rowByHash.merge(previousHashes[y], y, (a, b) -> -1);
+        }
+
+        int[] votes = new int[height * 2 + 1];
+        int considered = 0;
+        for (int y = 0; y < height; y++) {
+            if (current.uniform()[y]) {
+                continue;
+            }
+            considered++;
+            Integer source = rowByHash.get(current.hashes()[y]);
+            if (source != null && source >= 0) {
+                votes[y - source + height]++;
+            }
+        }
+
+        int best = height; // Prefer "no shift" on ties
+        for (int i = 0; i < votes.length; i++) {
+            if (votes[i] > votes[best]) {
+                best = i;
+            }
+        }
+        if (considered == 0 || votes[best] < considered * MIN_SHIFT_VOTE_FRACTION) {
+            return 0;
+        }
+        return best - height;
+    }
+
+    /**
+     * Groups changed rows into [start, end) runs, merging runs whose gap is smaller
+     * than {@code mergeGap} so their context margins do not overlap.
+     */
+    static List<int[]> dirtyRuns(boolean[] dirty, int mergeGap) {
+        List<int[]> runs = new ArrayList<>();
+        int y = 0;
+        while (y < dirty.length) {
+            if (!dirty[y]) {
+                y++;
+                continue;
+            }
+            int start = y;
+            while (y < dirty.length && dirty[y]) {
+                y++;
+            }
+            int[] last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+            if (last != null && start - last[1] < mergeGap * 2) {
+                last[1] = y;
+            } else {
+                runs.add(new int[] { start, y });
+            }
+        }
+        return runs;
+    }
+
+    private static boolean intersectsAny(Rectangle box, List<int[]> runs) {
+        for (int[] run : runs) {
+            if (box.y < run[1] && box.y + box.height > run[0]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static RowSignature rowSignature(BufferedImage image) {
+        IntRasterView raster = IntRasterView.ofConverted(image);
+        int width = raster.width();
+        int height = raster.height();
+        int[] pixels = raster.pixels();
+        long[] hashes = new long[height];
+        boolean[] uniform = new boolean[height];
+
+        for (int y = 0; y < height; y++) {
+            int index = raster.rowStart(y);
+            int first = pixels[index] & 0xFFFFFF;
+            boolean flat = true;
+            long hash = 1125899906842597L;
+            for (int x = 0; x < width; x++) {
+                int rgb = pixels[index + x] & 0xFFFFFF;
+                hash = 31 * hash + rgb;
+                flat &= rgb == first;
+            }
+            hashes[y] = hash;
+            uniform[y] = flat;
+        }
+        return new RowSignature(hashes, uniform);
+    }
+
+    private static List<Word> copyOf(List<Word> words) {
+        List<Word> copy = new ArrayList<>(words.size());
+        for (Word word : words) {
+            copy.add(new Word(word.getText(), word.getConfidence(), new Rectangle(word.getBoundingBox())));
+        }
+        return copy;
+    }
+}
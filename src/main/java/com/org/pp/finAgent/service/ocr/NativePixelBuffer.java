@@ -0,0 +1,178 @@
+package com.org.pp.finAgent.service.ocr;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * A reusable off-heap pixel buffer in the layout TessBaseAPISetImage reads:
+ * rows of {@code bytesPerLine} bytes, either 1 byte per pixel (grayscale) or
+ * 4 bytes per pixel in R, G, B, A order.
+ *
+ * Each {@link TesseractEngine} owns one. Pixels are written into it directly
+ * from the capture raster (or from the last preprocessing stage), and the same
+ * direct buffer is handed to the native API, so there is no intermediate
+ * conversion. The buffer only grows, so after the first frame of the largest
+ * size no further native memory is allocated.
+ *
+ * The counters make the handoff cost measurable: every frame-sized pass that
+ * writes pixels (into this buffer or into a heap working array) counts as one
+ * copy.
+ *
+ * Not thread-safe; used by one engine at a time.
+ */
+public final class NativePixelBuffer {
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(0);
+    private IntBuffer intView = buffer.asIntBuffer();
+    private byte[] rowScratch = new byte[0];
+    private int[] intRowScratch = new int[0];
+    private final byte[][] workingArrays = new byte[2][];
+    private int[] workingInts = new int[0];
+
+    private int width;
+    private int height;
+    private int bytesPerPixel;
+
+    private long frames;
+    private long copies;
+    private long bytesCopied;
+    private long allocations;
+    private long allocatedBytes;
+
+    /**
+     * Cumulative handoff counters.
+     *
+     * @param frames         Images handed to Tesseract.
+     * @param copies         Frame-sized pixel passes (one is the minimum per frame).
+     * @param bytesCopied    Bytes written by those passes.
+     * @param allocations    Native or working-array (re)allocations.
+     * @param allocatedBytes Bytes allocated by those.
+     */
+    public record Stats(long frames, long copies, long bytesCopied, long allocations, long allocatedBytes) {
+
+        public double copiesPerFrame() {
+            return frames == 0 ? 0 : (double) copies / frames;
+        }
+
+        public Stats plus(Stats other) {
+            return new Stats(frames + other.frames, copies + other.copies, bytesCopied + other.bytesCopied,
+                    allocations + other.allocations, allocatedBytes + other.allocatedBytes);
+        }
+    }
+
+    /**
+     * Prepares the buffer for a new frame, growing it if needed, and counts the
+     * frame.
+     */
+    void begin(int width, int height, int bytesPerPixel) {
+        int size = width * height * bytesPerPixel;
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.BIG_ENDIAN);
+            intView = buffer.asIntBuffer();
+            allocations++;
+            allocatedBytes += size;
+        }
+        int rowBytes = width * bytesPerPixel;
+        if (rowScratch.length < rowBytes) {
+            rowScratch = new byte[rowBytes];
+        }
+        if (bytesPerPixel == 4 && intRowScratch.length < width) {
+            intRowScratch = new int[width];
+        }
+        this.width = width;
+        this.height = height;
+        this.bytesPerPixel = bytesPerPixel;
+        frames++;
+    }
+
+    /**
+     * Returns a reusable heap working array of at least {@code length} bytes.
+     * Two independent slots are available for multi-stage pipelines.
+     */
+    byte[] workingArray(int slot, int length) {
+        byte[] array = workingArrays[slot];
+        if (array == null || array.length < length) {
+            array = new byte[length];
+            workingArrays[slot] = array;
+            allocations++;
+            allocatedBytes += length;
+        }
+        return array;
+    }
+
+    /**
+     * Returns a reusable, zeroed heap array of at least {@code length} ints, for
+     * per-column accumulators.
+     */
+    int[] workingInts(int length) {
+        if (workingInts.length < length) {
+            workingInts = new int[length];
+            allocations++;
+            allocatedBytes += (long) length * Integer.BYTES;
+        } else {
+            Arrays.fill(workingInts, 0, length, 0);
+        }
+        return workingInts;
+    }
+
+    /**
+     * Records a frame-sized pass that wrote {@code bytes} bytes.
+     */
+    void countCopy(long bytes) {
+        copies++;
+        bytesCopied += bytes;
+    }
+
+    /**
+     * A per-row heap scratch array of at least one row of bytes. Rows are built
+     * here and bulk-copied into the direct buffer, which is much faster than
+     * per-byte puts.
+     */
+    byte[] rowScratch() {
+        return rowScratch;
+    }
+
+    int[] intRowScratch() {
+        return intRowScratch;
+    }
+
+    /**
+     * Writes a grayscale row.
+     */
+    void putGrayRow(int y, byte[] row, int offset) {
+        buffer.put(y * width, row, offset, width);
+    }
+
+    /**
+     * Writes a row of {@code 0xRRGGBBAA} pixels.
+     */
+    void putRgbaRow(int y, int[] row) {
+        intView.put(y * width, row, 0, width);
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int bytesPerPixel() {
+        return bytesPerPixel;
+    }
+
+    public int bytesPerLine() {
+        return width * bytesPerPixel;
+    }
+
+    public Stats getStats() {
+        return new Stats(frames, copies, bytesCopied, allocations, allocatedBytes);
+    }
+}
@@ -0,0 +1,439 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.service.OcrService.OcrResult;
+import net.sourceforge.tess4j.Word;
+
+import java.awt.Rectangle;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The words of one OCR pass stored column by column: parallel {@code int[]}
+ * arrays for the bounding boxes, a {@code float[]} for confidences, and every
+ * word's text in one shared {@code char[]} addressed by offsets. A dense page of
+ * a few thousand words is a handful of arrays instead of thousands of String,
+ * Rectangle and result objects per frame.
+ *
+ * Words are addressed by index, in the order they were added (reading order for
+ * Tesseract output). {@link #result(int)} and {@link #asResults()} create
+ * {@link OcrResult} objects on demand for callers that want them.
+ *
+ * An optional color column holds each word's foreground color (see
+ * {@link WordColorAnalyzer}); without it every word reports
+ * {@link OcrResult#NO_COLOR}.
+ *
+ * Words are also grouped into text lines: a word joins a line when its vertical
+ * centre falls inside the box of the line's first word. {@link #lineStart(int)},
+ * {@link #lineEnd(int)} and {@link #lineWord(int)} walk the words line by line,
+ * top to bottom and left to right, without sorting or boxing on the caller's
+ * side. The line order is computed once, on first use.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class OcrColumns {
+
+    private static final OcrColumns EMPTY = new OcrColumns(0, new int[0], new int[0], new int[0], new int[0],
+            new float[0], new char[0], new int[1], null);
+
+    // Sort keys pack a line (or y) value, an x offset and a word index into one long
+    private static final int INDEX_BITS = 21;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    private final int size;
+    private final int[] x;
+    private final int[] y;
+    private final int[] width;
+    private final int[] height;
+    private final float[] confidence;
+    private final char[] text;
+    private final int[] textStart;
+    private final int[] color;
+
+    // Line order, built lazily: the words of line l are lineWords[lineStarts[l] .. lineStarts[l + 1])
+    private volatile Lines lines;
+
+    private record Lines(int[] lineStarts, int[] lineWords, int[] lineOfWord) {
+    }
+
+    private OcrColumns(int size, int[] x, int[] y, int[] width, int[] height, float[] confidence, char[] text,
+            int[] textStart, int[] color) {
+        this.size = size;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.confidence = confidence;
+        this.text = text;
+        this.textStart = textStart;
+        this.color = color;
+    }
+
+    /**
+     * Collects words into columns, in the given order. Words with blank text or
+     * an empty box are dropped.
+     */
+    private static OcrColumns build(int count, WordSource source) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        int[] x = new int[count];
+        int[] y = new int[count];
+        int[] width = new int[count];
+        int[] height = new int[count];
+        float[] confidence = new float[count];
+        int[] color = new int[count];
+        boolean colored = false;
+        int[] textStart = new int[count + 1];
+        int textLength = 0;
+        for (int i = 0; i < count; i++) {
+            String wordText = source.text(i);
+            textLength += wordText == null ? 0 : wordText.length();
+        }
+        char[] text = new char[textLength];
+
+        int size = 0;
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            String wordText = source.text(i);
+            Rectangle box = source.box(i);
+            if (wordText == null || wordText.isBlank() || box.isEmpty()) {
+                continue;
+            }
+            x[size] = box.x;
+            y[size] = box.y;
+            width[size] = box.width;
+            height[size] = box.height;
+            confidence[size] = source.confidence(i);
+            color[size] = source.color(i);
+            colored |= color[size] != OcrResult.NO_COLOR;
+            wordText.getChars(0, wordText.length(), text, offset);
+            textStart[size] = offset;
+            offset += wordText.length();
+            size++;
+            textStart[size] = offset;
+        }
+        if (size == 0) {
+            return EMPTY;
+        }
+        // Dropped words leave slack at the ends of the arrays; it is never read
+        return new OcrColumns(size, x, y, width, height, confidence, text, textStart, colored ? color : null);
+    }
+
+    private interface WordSource {
+        String text(int i);
+
+        Rectangle box(int i);
+
+        float confidence(int i);
+
+        default int color(int i) {
+            return OcrResult.NO_COLOR;
+        }
+    }
+
+    /**
+     * Converts Tesseract words. Words with blank text or an empty box are dropped.
+     */
+    public static OcrColumns fromWords(List<Word> words) {
+        return build(words.size(), new WordSource() {
+            @Override
+            public String text(int i) {
+                return words.get(i).getText();
+            }
+
+            @Override
+            public Rectangle box(int i) {
+                return words.get(i).getBoundingBox();
+            }
+
+            @Override
+            public float confidence(int i) {
+                return words.get(i).getConfidence();
+            }
+        });
+    }
+
+    /**
+     * Converts OCR results. Results with blank text or an empty box are dropped.
+     */
+    public static OcrColumns fromResults(List<OcrResult> results) {
+        return build(results.size(), new WordSource() {
+            @Override
+            public String text(int i) {
+                return results.get(i).text();
+            }
+
+            @Override
+            public Rectangle box(int i) {
+                return results.get(i).boundingBox();
+            }
+
+            @Override
+            public float confidence(int i) {
+                return results.get(i).confidence();
+            }
+
+            @Override
+            public int color(int i) {
+                return results.get(i).color();
+            }
+        });
+    }
+
+    public static OcrColumns empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int x(int word) {
+        return x[word];
+    }
+
+    public int y(int word) {
+        return y[word];
+    }
+
+    public int width(int word) {
+        return width[word];
+    }
+
+    public int height(int word) {
+        return height[word];
+    }
+
+    public int centerX(int word) {
+        return x[word] + width[word] / 2;
+    }
+
+    public int centerY(int word) {
+        return y[word] + height[word] / 2;
+    }
+
+    public float confidence(int word) {
+        return confidence[word];
+    }
+
+    /**
+     * Returns true if the words carry their foreground colors.
+     */
+    public boolean hasColors() {
+        return color != null;
+    }
+
+    /**
+     * The word's foreground color as 0xRRGGBB, or {@link OcrResult#NO_COLOR} if it
+     * was not analysed or could not be determined.
+     */
+    public int color(int word) {
+        return color == null ? OcrResult.NO_COLOR : color[word];
+    }
+
+    /**
+     * Returns a copy with the given color column attached, one 0xRRGGBB value (or
+     * {@link OcrResult#NO_COLOR}) per word. All other columns are shared.
+     */
+    public OcrColumns withColors(int[] colors) {
+        if (colors.length < size) {
+            throw new IllegalArgumentException("Expected " + size + " colors, got " + colors.length);
+        }
+        OcrColumns colored = new OcrColumns(size, x, y, width, height, confidence, text, textStart, colors);
+        colored.lines = lines;
+        return colored;
+    }
+
+    /**
+     * Returns true if the word's box intersects the rectangle, like
+     * {@link Rectangle#intersects(Rectangle)}.
+     */
+    public boolean intersects(int word, Rectangle region) {
+        return x[word] < region.x + region.width && region.x < x[word] + width[word]
+                && y[word] < region.y + region.height && region.y < y[word] + height[word];
+    }
+
+    public int textLength(int word) {
+        return textStart[word + 1] - textStart[word];
+    }
+
+    public char charAt(int word, int position) {
+        return text[textStart[word] + position];
+    }
+
+    /**
+     * Creates a String for the word's text.
+     */
+    public String text(int word) {
+        return new String(text, textStart[word], textLength(word));
+    }
+
+    public Rectangle boundingBox(int word) {
+        return new Rectangle(x[word], y[word], width[word], height[word]);
+    }
+
+    /**
+     * Creates a result object for one word.
+     */
+    public OcrResult result(int word) {
+        return new OcrResult(text(word), boundingBox(word), confidence[word], color(word));
+    }
+
+    /**
+     * A read-only list view that creates a result object for each word as it is
+     * accessed. Repeated access to the same index returns equal but distinct
+     * objects.
+     */
+    public List<OcrResult> asResults() {
+        return new ResultView();
+    }
+
+    private final class ResultView extends AbstractList<OcrResult> implements RandomAccess {
+        @Override
+        public OcrResult get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            return result(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Returns a copy with every box moved by (dx, dy). Only the coordinate columns
+     * are copied; text, sizes, confidences and colors are shared.
+     */
+    public OcrColumns translated(int dx, int dy) {
+        if ((dx == 0 && dy == 0) || size == 0) {
+            return this;
+        }
+        int[] movedX = new int[size];
+        int[] movedY = new int[size];
+        for (int i = 0; i < size; i++) {
+            movedX[i] = x[i] + dx;
+            movedY[i] = y[i] + dy;
+        }
+        OcrColumns moved = new OcrColumns(size, movedX, movedY, width, height, confidence, text, textStart, color);
+        // Translation keeps the line structure, so share it if it is already known
+        moved.lines = lines;
+        return moved;
+    }
+
+    public int lineCount() {
+        return lines().lineStarts().length - 1;
+    }
+
+    /**
+     * The first position of a line in line order; see {@link #lineWord(int)}.
+     */
+    public int lineStart(int line) {
+        return lines().lineStarts()[line];
+    }
+
+    /**
+     * One past the last position of a line in line order.
+     */
+    public int lineEnd(int line) {
+        return lines().lineStarts()[line + 1];
+    }
+
+    /**
+     * The word at a position in line order: lines top to bottom, and words left
+     * to right within a line.
+     */
+    public int lineWord(int position) {
+        return lines().lineWords()[position];
+    }
+
+    /**
+     * The line a word belongs to.
+     */
+    public int lineOf(int word) {
+        return lines().lineOfWord()[word];
+    }
+
+    private Lines lines() {
+        Lines computed = lines;
+        if (computed == null) {
+            computed = computeLines();
+            lines = computed;
+        }
+        return computed;
+    }
+
+    /**
+     * Orders the words by the given line numbers, then left to right within a
+     * line.
+     *
+     * @param lineOfWord A non-negative line number for every word.
+     * @return The word indices in that order.
+     */
+    int[] orderByLine(int[] lineOfWord) {
+        int minX = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            minX = Math.min(minX, x[i]);
+        }
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            long xOffset = Math.min(x[i] - (long) minX, INDEX_MASK);
+            keys[i] = ((long) lineOfWord[i] << (2 * INDEX_BITS)) | (xOffset << INDEX_BITS) | i;
+        }
+        Arrays.sort(keys);
+        int[] ordered = new int[size];
+        for (int p = 0; p < size; p++) {
+            ordered[p] = (int) (keys[p] & INDEX_MASK);
+        }
+        return ordered;
+    }
+
+    private Lines computeLines() {
+        if (size == 0) {
+            return new Lines(new int[1], new int[0], new int[0]);
+        }
+
+        // 1. Sort by vertical centre and cut into lines
+        long[] keys = new long[size];
+        int minCenterY = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            minCenterY = Math.min(minCenterY, centerY(i));
+        }
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) (centerY(i) - minCenterY) << INDEX_BITS) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] lineOfWord = new int[size];
+        int line = -1;
+        int lineBottom = Integer.MIN_VALUE;
+        for (long key : keys) {
+            int word = (int) (key & INDEX_MASK);
+            if (centerY(word) >= lineBottom) {
+                line++;
+                lineBottom = y[word] + height[word];
+            }
+            lineOfWord[word] = line;
+        }
+        int lineCount = line + 1;
+
+        // 2. Sort by (line, x); lines are already in top-to-bottom order
+        int[] lineWords = orderByLine(lineOfWord);
+        int[] lineStarts = new int[lineCount + 1];
+        for (int word : lineWords) {
+            lineStarts[lineOfWord[word] + 1]++;
+        }
+        for (int l = 0; l < lineCount; l++) {
+            lineStarts[l + 1] += lineStarts[l];
+        }
+        return new Lines(lineStarts, lineWords, lineOfWord);
+    }
+}
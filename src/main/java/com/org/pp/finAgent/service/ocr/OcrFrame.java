@@ -0,0 +1,356 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.service.OcrService.OcrResult;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The words from one OCR pass, indexed so that many queries can run against the
+ * same frame without re-OCRing or re-scanning every word.
+ *
+ * Words are stored column by column in an {@link OcrColumns}. Two indexes are
+ * built once, in the constructor:
+ * <ul>
+ * <li>an inverted index from lower-cased alphanumeric token to the words that
+ * contain it, so "xyz" finds "xyz_asd" in a single hash lookup;</li>
+ * <li>a uniform grid over the words' bounding boxes, used for region and
+ * nearest-neighbour queries.</li>
+ * </ul>
+ * Frames are immutable and safe to share between threads.
+ */
+public final class OcrFrame {
+
+    private static final int CELL_SIZE = 64;
+
+    private final OcrColumns columns;
+    private final Map<String, int[]> tokenIndex;
+
+    // Grid in compressed-row form: the words in cell c are cellWords[cellStart[c] .. cellStart[c + 1])
+    private final int gridX;
+    private final int gridY;
+    private final int gridColumns;
+    private final int gridRows;
+    private final int[] cellStart;
+    private final int[] cellWords;
+
+    private OcrFrame(OcrColumns columns) {
+        this.columns = columns;
+        this.tokenIndex = buildTokenIndex(columns);
+
+        int minX = 0;
+        int minY = 0;
+        int maxX = 0;
+        int maxY = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            minX = i == 0 ? columns.x(i) : Math.min(minX, columns.x(i));
+            minY = i == 0 ? columns.y(i) : Math.min(minY, columns.y(i));
+            maxX = i == 0 ? columns.x(i) + columns.width(i) : Math.max(maxX, columns.x(i) + columns.width(i));
+            maxY = i == 0 ? columns.y(i) + columns.height(i) : Math.max(maxY, columns.y(i) + columns.height(i));
+        }
+        this.gridX = minX;
+        this.gridY = minY;
+        this.gridColumns = Math.max(1, (maxX - minX + CELL_SIZE - 1) / CELL_SIZE);
+        this.gridRows = Math.max(1, (maxY - minY + CELL_SIZE - 1) / CELL_SIZE);
+
+        // Count pass, then fill pass
+        int[] counts = new int[gridColumns * gridRows + 1];
+        for (int i = 0; i < columns.size(); i++) {
+            for (int r = rowOf(columns.y(i)); r <= rowOf(columns.y(i) + columns.height(i) - 1); r++) {
+                for (int c = columnOf(columns.x(i)); c <= columnOf(columns.x(i) + columns.width(i) - 1); c++) {
+                    counts[r * gridColumns + c + 1]++;
+                }
+            }
+        }
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+        this.cellStart = counts.clone();
+        this.cellWords = new int[counts[counts.length - 1]];
+        for (int i = 0; i < columns.size(); i++) {
+            for (int r = rowOf(columns.y(i)); r <= rowOf(columns.y(i) + columns.height(i) - 1); r++) {
+                for (int c = columnOf(columns.x(i)); c <= columnOf(columns.x(i) + columns.width(i) - 1); c++) {
+                    cellWords[counts[r * gridColumns + c]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds and indexes a frame. Words with blank text are dropped.
+     */
+    public static OcrFrame of(List<OcrResult> words) {
+        return new OcrFrame(OcrColumns.fromResults(words));
+    }
+
+    /**
+     * Indexes a frame over columnar words.
+     */
+    public static OcrFrame of(OcrColumns columns) {
+        return new OcrFrame(columns);
+    }
+
+    /**
+     * Returns a copy of this frame with every bounding box moved by (dx, dy), e.g.
+     * from image to screen coordinates.
+     */
+    public OcrFrame translated(int dx, int dy) {
+        if (dx == 0 && dy == 0) {
+            return this;
+        }
+        return new OcrFrame(columns.translated(dx, dy));
+    }
+
+    /**
+     * The words in columnar form, including line-ordered traversal.
+     */
+    public OcrColumns columns() {
+        return columns;
+    }
+
+    /**
+     * All words in reading order, as a view that creates result objects on
+     * access.
+     */
+    public List<OcrResult> words() {
+        return columns.asResults();
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    /**
+     * Finds words containing the given token. OCR text is split on
+     * non-alphanumeric characters, so searching for "xyz" matches a word read as
+     * "xyz_asd". Matching is case-insensitive.
+     *
+     * @param token The word to look for.
+     * @return Matching words in reading order.
+     */
+    public List<OcrResult> findWord(String token) {
+        if (token == null || token.isEmpty()) {
+            return List.of();
+        }
+        int[] hits = tokenIndex.get(token.toLowerCase(Locale.ROOT));
+        if (hits == null) {
+            return List.of();
+        }
+        List<OcrResult> matches = new ArrayList<>(hits.length);
+        for (int index : hits) {
+            matches.add(columns.result(index));
+        }
+        return matches;
+    }
+
+    /**
+     * Returns true if any word contains the given token.
+     */
+    public boolean containsWord(String token) {
+        return token != null && tokenIndex.containsKey(token.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Finds a phrase, tolerating OCR errors, across adjacent words on a line.
+     *
+     * @param phrase The text to look for; may span several words.
+     * @return Matches ranked by edit distance, then confidence.
+     * @see PhraseMatcher
+     */
+    public List<PhraseMatcher.Match> findPhrase(String phrase) {
+        return findPhrase(PhraseMatcher.compile(phrase));
+    }
+
+    public List<PhraseMatcher.Match> findPhrase(PhraseMatcher matcher) {
+        return matcher.findAll(words());
+    }
+
+    /**
+     * Finds the words drawn in a color, e.g. blue links or red error messages,
+     * using the colors attached when the frame was built (see
+     * {@link WordColorAnalyzer}). No pixels are read.
+     *
+     * @param rgb       The color to look for, as 0xRRGGBB.
+     * @param tolerance The largest RGB distance that still counts as a match.
+     * @return Matching words in reading order; empty if the frame has no colors.
+     */
+    public List<OcrResult> wordsInColor(int rgb, int tolerance) {
+        List<OcrResult> matches = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            if (WordColorAnalyzer.isSimilar(columns.color(i), rgb, tolerance)) {
+                matches.add(columns.result(i));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the words whose bounding boxes intersect the region.
+     *
+     * @param region The region to search, in the frame's coordinates.
+     * @return Intersecting words in reading order.
+     */
+    public List<OcrResult> wordsIn(Rectangle region) {
+        if (columns.isEmpty() || region.isEmpty()) {
+            return List.of();
+        }
+        int c0 = columnOf(region.x);
+        int c1 = columnOf(region.x + region.width - 1);
+        int r0 = rowOf(region.y);
+        int r1 = rowOf(region.y + region.height - 1);
+
+        int[] hits = new int[16];
+        int hitCount = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * gridColumns + c;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int index = cellWords[i];
+                    // A word spanning several cells is reported only from the first cell both ranges share
+                    if (c == Math.max(c0, columnOf(columns.x(index))) && r == Math.max(r0, rowOf(columns.y(index)))
+                            && columns.intersects(index, region)) {
+                        if (hitCount == hits.length) {
+                            hits = Arrays.copyOf(hits, hitCount * 2);
+                        }
+                        hits[hitCount++] = index;
+                    }
+                }
+            }
+        }
+        Arrays.sort(hits, 0, hitCount);
+        List<OcrResult> result = new ArrayList<>(hitCount);
+        for (int i = 0; i < hitCount; i++) {
+            result.add(columns.result(hits[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the word closest to a point.
+     *
+     * @return The nearest word, or null if the frame is empty.
+     */
+    public OcrResult nearest(int x, int y) {
+        return nearest(x, y, word -> true);
+    }
+
+    /**
+     * Finds the word closest to a point among those accepted by the filter.
+     * Distance is measured to the nearest edge of each bounding box, so a point
+     * inside a box has distance 0.
+     *
+     * @return The nearest accepted word, or null if there is none.
+     */
+    public OcrResult nearest(int x, int y, Predicate<OcrResult> filter) {
+        if (columns.isEmpty()) {
+            return null;
+        }
+        int originColumn = Math.floorDiv(x - gridX, CELL_SIZE);
+        int originRow = Math.floorDiv(y - gridY, CELL_SIZE);
+        // Rings further out than this cover no grid cell at all
+        int maxRing = Math.max(
+                Math.max(Math.abs(originColumn), Math.abs(gridColumns - 1 - originColumn)),
+                Math.max(Math.abs(originRow), Math.abs(gridRows - 1 - originRow)));
+
+        int best = -1;
+        long bestDistanceSq = Long.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = originRow - ring; r <= originRow + ring; r++) {
+                if (r < 0 || r >= gridRows) {
+                    continue;
+                }
+                boolean edgeRow = r == originRow - ring || r == originRow + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int c = originColumn - ring; c <= originColumn + ring; c += step) {
+                    if (c < 0 || c >= gridColumns) {
+                        continue;
+                    }
+                    int cell = r * gridColumns + c;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int word = cellWords[i];
+                        long distanceSq = distanceSq(word, x, y);
+                        // Result objects are only created for words that would win
+                        if (distanceSq < bestDistanceSq && filter.test(columns.result(word))) {
+                            best = word;
+                            bestDistanceSq = distanceSq;
+                        }
+                    }
+                }
+            }
+            // Anything in the next ring is at least `ring` whole cells away
+            long ringDistance = (long) ring * CELL_SIZE;
+            if (best >= 0 && bestDistanceSq <= ringDistance * ringDistance) {
+                break;
+            }
+        }
+        return best >= 0 ? columns.result(best) : null;
+    }
+
+    private int columnOf(int x) {
+        return Math.min(gridColumns - 1, Math.max(0, (x - gridX) / CELL_SIZE));
+    }
+
+    private int rowOf(int y) {
+        return Math.min(gridRows - 1, Math.max(0, (y - gridY) / CELL_SIZE));
+    }
+
+    private long distanceSq(int word, int x, int y) {
+        int left = columns.x(word);
+        int top = columns.y(word);
+        long dx = x < left ? left - x : Math.max(0, x - (left + columns.width(word) - 1));
+        long dy = y < top ? top - y : Math.max(0, y - (top + columns.height(word) - 1));
+        return dx * dx + dy * dy;
+    }
+
+    private static Map<String, int[]> buildTokenIndex(OcrColumns columns) {
+        Map<String, List<Integer>> postings = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            int length = columns.textLength(i);
+            int start = -1;
+            for (int p = 0; p <= length; p++) {
+                boolean alphanumeric = p < length && isAsciiAlphanumeric(columns.charAt(i, p));
+                if (alphanumeric && start < 0) {
+                    start = p;
+                } else if (!alphanumeric && start >= 0) {
+                    String token = lowerCaseToken(columns, i, start, p);
+                    List<Integer> list = postings.computeIfAbsent(token, k -> new ArrayList<>(2));
+                    // A word repeating a token ("a-a") is listed once
+                    if (list.isEmpty() || list.get(list.size() - 1) != i) {
+                        list.add(i);
+                    }
+                    start = -1;
+                }
+            }
+        }
+
+        Map<String, int[]> index = new HashMap<>(postings.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : postings.entrySet()) {
+            List<Integer> list = entry.getValue();
+            int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = list.get(i);
+            }
+            index.put(entry.getKey(), array);
+        }
+        return index;
+    }
+
+    private static String lowerCaseToken(OcrColumns columns, int word, int start, int end) {
+        char[] token = new char[end - start];
+        for (int p = start; p < end; p++) {
+            char ch = columns.charAt(word, p);
+            token[p - start] = ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+        }
+        return new String(token);
+    }
+
+    private static boolean isAsciiAlphanumeric(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9');
+    }
+}
@@ -0,0 +1,119 @@
+package com.org.pp.finAgent.service.ocr;
+
+import net.sourceforge.tess4j.ITessAPI.TessOcrEngineMode;
+import net.sourceforge.tess4j.ITessAPI.TessPageSegMode;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Named bundles of Tesseract settings, so each OCR operation can trade speed for
+ * accuracy instead of every call using the same settings.
+ *
+ * A profile fixes the page segmentation mode, the OCR engine mode, the
+ * traineddata variant and a scale factor applied on top of
+ * {@code ocr.preprocess.scale}. Profiles that share a {@link Model} share pooled
+ * engines; the page segmentation mode and scale are applied per call.
+ */
+public enum OcrProfile {
+
+    /**
+     * Scattered short text such as link labels and buttons: sparse segmentation
+     * finds as much text as possible in no particular order, with the fast LSTM
+     * model at native resolution.
+     */
+    FAST_SPARSE("fast-sparse", TessPageSegMode.PSM_SPARSE_TEXT, TessOcrEngineMode.OEM_LSTM_ONLY,
+            TrainedData.FAST, 1.0),
+
+    /**
+     * Dense running text such as an article: full layout analysis with the best
+     * available model, upscaled so small body text is recognized reliably.
+     */
+    ACCURATE_BLOCK("accurate-block", TessPageSegMode.PSM_AUTO, TessOcrEngineMode.OEM_DEFAULT,
+            TrainedData.BEST, 1.5),
+
+    /**
+     * A region holding one line of text, such as a toolbar or a text field. Layout
+     * analysis is skipped and the line is upscaled, since such text is often small.
+     */
+    SINGLE_LINE("single-line", TessPageSegMode.PSM_SINGLE_LINE, TessOcrEngineMode.OEM_LSTM_ONLY,
+            TrainedData.FAST, 2.0);
+
+    /**
+     * Which traineddata files to load. The language names behind each variant are
+     * configured in {@link com.org.pp.finAgent.configuration.TesseractConfig}.
+     */
+    public enum TrainedData {
+        /** Integer-quantized models (tessdata_fast): quicker, slightly less accurate. */
+        FAST,
+        /** Float models (tessdata_best): slower, more accurate. */
+        BEST
+    }
+
+    /**
+     * What a native engine is initialised with. Changing either needs a new
+     * engine, so the pool keeps engines per model.
+     *
+     * @param trainedData The traineddata variant.
+     * @param engineMode  A {@link TessOcrEngineMode} constant.
+     */
+    public record Model(TrainedData trainedData, int engineMode) {
+    }
+
+    private final String profileName;
+    private final int pageSegMode;
+    private final Model model;
+    private final double scaleFactor;
+
+    OcrProfile(String profileName, int pageSegMode, int engineMode, TrainedData trainedData, double scaleFactor) {
+        this.profileName = profileName;
+        this.pageSegMode = pageSegMode;
+        this.model = new Model(trainedData, engineMode);
+        this.scaleFactor = scaleFactor;
+    }
+
+    /**
+     * Looks up a profile by name, e.g. "fast-sparse" or "ACCURATE_BLOCK". Case,
+     * dashes and underscores are ignored.
+     *
+     * @throws IllegalArgumentException if the name is not a known profile.
+     */
+    public static OcrProfile named(String name) {
+        String key = name == null ? "" : name.toLowerCase(Locale.ROOT).replaceAll("[\\s_-]+", "");
+        for (OcrProfile profile : values()) {
+            if (profile.profileName.replace("-", "").equals(key)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown OCR profile: " + name + ". Known profiles: "
+                + Arrays.stream(values()).map(OcrProfile::profileName).collect(Collectors.joining(", ")));
+    }
+
+    public String profileName() {
+        return profileName;
+    }
+
+    /**
+     * A {@link TessPageSegMode} constant.
+     */
+    public int pageSegMode() {
+        return pageSegMode;
+    }
+
+    public Model model() {
+        return model;
+    }
+
+    /**
+     * Multiplies {@code ocr.preprocess.scale} for this profile.
+     */
+    public double scaleFactor() {
+        return scaleFactor;
+    }
+
+    @Override
+    public String toString() {
+        return profileName;
+    }
+}
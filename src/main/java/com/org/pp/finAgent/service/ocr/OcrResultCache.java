@@ -0,0 +1,284 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.util.IntRasterView;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.Word;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A content-addressed LRU cache of OCR results, keyed by a 64-bit hash of the
+ * image's pixels. Agents often come back to identical screens (the same results
+ * page, a re-focused window), and those can skip OCR entirely.
+ *
+ * Entries are evicted when the cache exceeds {@code ocr.cache.max-entries} or
+ * when they are older than {@code ocr.cache.ttl-seconds}. If
+ * {@code ocr.cache.persist-path} is set, the cache is loaded from that file at
+ * startup and written back on shutdown, so a restarted agent starts warm.
+ */
+@Component
+public class OcrResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrResultCache.class);
+
+    private static final int FILE_MAGIC = 0x4F435243; // "OCRC"
+    private static final int FILE_VERSION = 2;
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Path persistPath;
+    private final Map<Key, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Identifies an image by its size and pixel hash, and the profile it was
+     * recognized with, since profiles read the same pixels differently.
+     */
+    public record Key(int width, int height, long pixelHash, OcrProfile profile) {
+    }
+
+    /**
+     * An immutable cached word, so cached results can never be mutated by callers.
+     */
+    private record CachedWord(String text, float confidence, int x, int y, int width, int height) {
+
+        Word toWord() {
+            return new Word(text, confidence, new Rectangle(x, y, width, height));
+        }
+
+        static CachedWord of(Word word) {
+            Rectangle box = word.getBoundingBox();
+            return new CachedWord(word.getText(), word.getConfidence(), box.x, box.y, box.width, box.height);
+        }
+    }
+
+    private record Entry(List<CachedWord> words, long createdAtMillis) {
+    }
+
+    /**
+     * A point-in-time view of the cache counters.
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    public OcrResultCache(@Value("${ocr.cache.enabled:true}") boolean enabled,
+            @Value("${ocr.cache.max-entries:64}") int maxEntries,
+            @Value("${ocr.cache.ttl-seconds:600}") long ttlSeconds,
+            @Value("${ocr.cache.persist-path:}") String persistPath) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.persistPath = persistPath == null || persistPath.isBlank() ? null : Paths.get(persistPath);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > OcrResultCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Computes the cache key for an image recognized with a profile.
+     */
+    public Key keyOf(BufferedImage image, OcrProfile profile) {
+        return new Key(image.getWidth(), image.getHeight(), pixelHash(image), profile);
+    }
+
+    /**
+     * Returns fresh copies of the cached words for the key, or null on a miss.
+     */
+    public List<Word> get(Key key) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && isExpired(entry, System.currentTimeMillis())) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        List<Word> words = new ArrayList<>(entry.words().size());
+        for (CachedWord word : entry.words()) {
+            words.add(word.toWord());
+        }
+        return words;
+    }
+
+    /**
+     * Stores a snapshot of the words for the key.
+     */
+    public void put(Key key, List<Word> words) {
+        if (!enabled) {
+            return;
+        }
+        List<CachedWord> snapshot = new ArrayList<>(words.size());
+        for (Word word : words) {
+            snapshot.add(CachedWord.of(word));
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(List.copyOf(snapshot), System.currentTimeMillis()));
+        }
+    }
+
+    public Stats getStats() {
+        synchronized (entries) {
+            return new Stats(hits.get(), misses.get(), evictions.get(), entries.size());
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlMillis > 0 && now - entry.createdAtMillis() > ttlMillis;
+    }
+
+    /**
+     * FNV-1a style 64-bit hash over every pixel, seeded with the image size.
+     */
+    static long pixelHash(BufferedImage image) {
+        IntRasterView raster = IntRasterView.ofConverted(image);
+        int[] pixels = raster.pixels();
+        long hash = 0xcbf29ce484222325L ^ (((long) raster.width() << 32) | raster.height());
+        for (int y = 0; y < raster.height(); y++) {
+            int index = raster.rowStart(y);
+            int end = index + raster.width();
+            for (int i = index; i < end; i++) {
+                hash ^= pixels[i] & 0xFFFFFF;
+                hash *= 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    @PostConstruct
+    void load() {
+        if (!enabled || persistPath == null || !Files.exists(persistPath)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(persistPath)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                log.warn("Ignoring OCR cache file with unknown format: {}", persistPath);
+                return;
+            }
+            int count = in.readInt();
+            synchronized (entries) {
+                for (int i = 0; i < count; i++) {
+                    Key key = new Key(in.readInt(), in.readInt(), in.readLong(), OcrProfile.named(in.readUTF()));
+                    long createdAt = in.readLong();
+                    int wordCount = in.readInt();
+                    List<CachedWord> words = new ArrayList<>(wordCount);
+                    for (int w = 0; w < wordCount; w++) {
+                        words.add(new CachedWord(in.readUTF(), in.readFloat(),
+                                in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+                    }
+                    Entry entry = new Entry(List.copyOf(words), createdAt);
+                    if (!isExpired(entry, now)) {
+                        entries.put(key, entry);
+                        loaded++;
+                    }
+                }
+            }
+            log.info("Loaded {} OCR cache entries from {}.", loaded, persistPath);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Failed to load OCR cache from {}: {}", persistPath, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void save() {
+        if (!enabled || persistPath == null) {
+            return;
+        }
+        List<Map.Entry<Key, Entry>> snapshot;
+        synchronized (entries) {
+            snapshot = new ArrayList<>(entries.entrySet());
+        }
+        long now = System.currentTimeMillis();
+        for (Iterator<Map.Entry<Key, Entry>> it = snapshot.iterator(); it.hasNext();) {
+            if (isExpired(it.next().getValue(), now)) {
+                it.remove();
+            }
+        }
+
+        try {
+            Path parent = persistPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            // Write to a temp file and move it into place so a crash never leaves a half-written cache
+            Path tempFile = persistPath.resolveSibling(persistPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<Key, Entry> e : snapshot) {
+                    Key key = e.getKey();
+                    out.writeInt(key.width());
+                    out.writeInt(key.height());
+                    out.writeLong(key.pixelHash());
+                    out.writeUTF(key.profile().profileName());
+                    out.writeLong(e.getValue().createdAtMillis());
+                    out.writeInt(e.getValue().words().size());
+                    for (CachedWord word : e.getValue().words()) {
+                        out.writeUTF(word.text());
+                        out.writeFloat(word.confidence());
+                        out.writeInt(word.x());
+                        out.writeInt(word.y());
+                        out.writeInt(word.width());
+                        out.writeInt(word.height());
+                    }
+                }
+            }
+            Files.move(tempFile, persistPath, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Saved {} OCR cache entries to {}.", snapshot.size(), persistPath);
+        } catch (IOException e) {
+            log.warn("Failed to save OCR cache to {}: {}", persistPath, e.getMessage());
+        }
+    }
+}
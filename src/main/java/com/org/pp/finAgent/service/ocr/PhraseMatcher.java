@@ -0,0 +1,393 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.service.OcrService.OcrResult;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds a target phrase among OCR'd words, tolerating OCR errors.
+ *
+ * Text is normalized to lower-case ASCII alphanumeric tokens separated by single
+ * spaces, the same tokens {@link OcrFrame} indexes. A phrase of k tokens is
+ * compared with every run of k-1 to k+1 adjacent tokens on a line, so words that
+ * OCR split or merged ("Signin") still match. The comparison is a bounded
+ * Levenshtein distance computed with Myers' bit-parallel algorithm (Hyyrö's
+ * formulation), one 64-bit word per phrase for phrases up to 64 characters.
+ *
+ * Candidates are ranked by distance, then by mean word confidence, then by
+ * reading order. Instances are immutable and thread-safe.
+ */
+public final class PhraseMatcher {
+
+    private static final int MAX_DEFAULT_EDITS = 3;
+    private static final int CHARS_PER_EDIT = 5;
+    // One edit turns many short words into other real words ("login" and "logic"), so they must match exactly
+    private static final int MIN_FUZZY_WORD_LENGTH = 8;
+    private static final int ALPHABET = 128;
+
+    // Adjacent words further apart than this many line heights are not part of one phrase
+    private static final double MAX_GAP_LINE_HEIGHTS = 1.5;
+
+    private final String pattern;
+    private final int patternTokens;
+    private final int maxEdits;
+    private final long[] peq;
+
+    /**
+     * A phrase found among the words.
+     *
+     * @param text        The matched words' text, space-separated.
+     * @param boundingBox The union of the matched words' boxes.
+     * @param confidence  Mean confidence of the matched words.
+     * @param distance    Edit distance between the phrase and the matched text.
+     * @param words       The matched words, left to right.
+     */
+    public record Match(String text, Rectangle boundingBox, float confidence, int distance, List<OcrResult> words) {
+
+        public OcrResult toResult() {
+            return new OcrResult(text, boundingBox, confidence);
+        }
+
+        public Match translated(int dx, int dy) {
+            Rectangle box = new Rectangle(boundingBox);
+            box.translate(dx, dy);
+            return new Match(text, box, confidence, distance, words);
+        }
+    }
+
+    /**
+     * A normalized token and the index of the word it came from.
+     */
+    private record Token(String text, int word) {
+    }
+
+    private PhraseMatcher(String pattern, int patternTokens, int maxEdits) {
+        this.pattern = pattern;
+        this.patternTokens = patternTokens;
+        this.maxEdits = maxEdits;
+        this.peq = new long[ALPHABET];
+        for (int i = 0; i < Math.min(64, pattern.length()); i++) {
+            peq[pattern.charAt(i)] |= 1L << i;
+        }
+    }
+
+    /**
+     * Compiles a phrase with a length-based error budget: exact for a single word
+     * shorter than {@link #MIN_FUZZY_WORD_LENGTH} characters, otherwise one edit
+     * per {@link #CHARS_PER_EDIT} characters, at most {@link #MAX_DEFAULT_EDITS}.
+     */
+    public static PhraseMatcher compile(String phrase) {
+        return compile(phrase, -1);
+    }
+
+    /**
+     * Compiles a phrase.
+     *
+     * @param phrase   The text to look for.
+     * @param maxEdits The largest edit distance accepted, or a negative value for
+     *                 the length-based default.
+     */
+    public static PhraseMatcher compile(String phrase, int maxEdits) {
+        List<String> tokens = tokenize(phrase == null ? "" : phrase);
+        String pattern = String.join(" ", tokens);
+        int edits = maxEdits >= 0 ? maxEdits : defaultEdits(pattern, tokens.size());
+        return new PhraseMatcher(pattern, tokens.size(), edits);
+    }
+
+    private static int defaultEdits(String pattern, int tokens) {
+        if (tokens == 1 && pattern.length() < MIN_FUZZY_WORD_LENGTH) {
+            return 0;
+        }
+        return Math.min(MAX_DEFAULT_EDITS, pattern.length() / CHARS_PER_EDIT);
+    }
+
+    public boolean isEmpty() {
+        return patternTokens == 0;
+    }
+
+    public int getMaxEdits() {
+        return maxEdits;
+    }
+
+    /**
+     * Finds all non-overlapping matches, best first.
+     *
+     * @param words Words in reading order.
+     * @return Ranked matches; empty if nothing is within the error budget.
+     */
+    public List<Match> findAll(List<OcrResult> words) {
+        List<Match> candidates = new ArrayList<>();
+        if (isEmpty()) {
+            return candidates;
+        }
+        for (List<OcrResult> segment : segments(words)) {
+            collect(segment, candidates);
+        }
+
+        candidates.sort(Comparator.comparingInt(Match::distance)
+                .thenComparing(Comparator.comparingDouble(Match::confidence).reversed()));
+
+        // Keep the best candidate for any group of words
+        List<Match> kept = new ArrayList<>();
+        for (Match candidate : candidates) {
+            boolean overlaps = false;
+            for (Match existing : kept) {
+                if (shareWord(existing, candidate)) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            if (!overlaps) {
+                kept.add(candidate);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Finds the best match, if any.
+     */
+    public Match findBest(List<OcrResult> words) {
+        List<Match> matches = findAll(words);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    private void collect(List<OcrResult> segment, List<Match> out) {
+        List<Token> tokens = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (int w = 0; w < segment.size(); w++) {
+            for (String token : tokenize(segment.get(w).text())) {
+                if (!tokens.isEmpty()) {
+                    line.append(' ');
+                }
+                tokens.add(new Token(token, w));
+                line.append(token);
+            }
+        }
+        // Every window is a substring of the segment's text, so none can beat this
+        if (searchDistance(line) > maxEdits) {
+            return;
+        }
+
+        StringBuilder window = new StringBuilder();
+        for (int start = 0; start < tokens.size(); start++) {
+            int bestEnd = -1;
+            int bestDistance = Integer.MAX_VALUE;
+            window.setLength(0);
+            for (int end = start + 1; end <= Math.min(tokens.size(), start + patternTokens + 1); end++) {
+                if (end > start + 1) {
+                    window.append(' ');
+                }
+                window.append(tokens.get(end - 1).text());
+                if (end - start < patternTokens - 1) {
+                    continue;
+                }
+                int distance = distance(window);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    bestEnd = end;
+                }
+            }
+            if (bestDistance <= maxEdits) {
+                out.add(toMatch(segment, tokens.get(start).word(), tokens.get(bestEnd - 1).word(), bestDistance));
+            }
+        }
+    }
+
+    private static Match toMatch(List<OcrResult> segment, int firstWord, int lastWord, int distance) {
+        List<OcrResult> words = List.copyOf(segment.subList(firstWord, lastWord + 1));
+        StringBuilder text = new StringBuilder();
+        Rectangle box = null;
+        float confidenceSum = 0;
+        for (OcrResult word : words) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(word.text());
+            box = box == null ? new Rectangle(word.boundingBox()) : box.union(word.boundingBox());
+            confidenceSum += word.confidence();
+        }
+        return new Match(text.toString(), box, confidenceSum / words.size(), distance, words);
+    }
+
+    private static boolean shareWord(Match a, Match b) {
+        for (OcrResult word : a.words()) {
+            for (OcrResult other : b.words()) {
+                if (word == other) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Levenshtein distance between the phrase and the whole text. Returns
+     * {@link Integer#MAX_VALUE} as soon as the result is known to exceed the
+     * error budget.
+     */
+    int distance(CharSequence text) {
+        int n = text.length();
+        int m = pattern.length();
+        if (Math.abs(n - m) > maxEdits) {
+            return Integer.MAX_VALUE;
+        }
+        if (m > 64) {
+            return boundedDynamicDistance(text);
+        }
+
+        long last = 1L << (m - 1);
+        long pv = -1L;
+        long mv = 0;
+        int score = m;
+        for (int j = 0; j < n; j++) {
+            long eq = peq(text.charAt(j));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            // Row 0 of the distance matrix grows by one per text character
+            ph = (ph << 1) | 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+            // The score can fall by at most one per remaining character
+            if (score - (n - j - 1) > maxEdits) {
+                return Integer.MAX_VALUE;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Smallest edit distance between the phrase and any substring of the text
+     * (Myers' search variant, where row 0 is all zeros).
+     */
+    int searchDistance(CharSequence text) {
+        int m = pattern.length();
+        if (m > 64) {
+            // Long phrases are rare; let the per-candidate check decide
+            return 0;
+        }
+        long last = 1L << (m - 1);
+        long pv = -1L;
+        long mv = 0;
+        int score = m;
+        int best = m;
+        for (int j = 0; j < text.length(); j++) {
+            long eq = peq(text.charAt(j));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            ph <<= 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+            best = Math.min(best, score);
+        }
+        return best;
+    }
+
+    private long peq(char c) {
+        return c < ALPHABET ? peq[c] : 0;
+    }
+
+    /**
+     * Classic two-row dynamic programming for phrases longer than one machine word.
+     */
+    private int boundedDynamicDistance(CharSequence text) {
+        int m = pattern.length();
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        for (int j = 1; j <= text.length(); j++) {
+            current[0] = j;
+            int rowMin = current[0];
+            for (int i = 1; i <= m; i++) {
+                int cost = pattern.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+                rowMin = Math.min(rowMin, current[i]);
+            }
+            if (rowMin > maxEdits) {
+                return Integer.MAX_VALUE;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+
+    /**
+     * Splits words into runs that sit on one line and are close enough together to
+     * form a phrase.
+     */
+    static List<List<OcrResult>> segments(List<OcrResult> words) {
+        List<List<OcrResult>> segments = new ArrayList<>();
+        List<OcrResult> current = new ArrayList<>();
+        OcrResult previous = null;
+        for (OcrResult word : words) {
+            if (previous != null && !continuesLine(previous, word)) {
+                segments.add(current);
+                current = new ArrayList<>();
+            }
+            current.add(word);
+            previous = word;
+        }
+        if (!current.isEmpty()) {
+            segments.add(current);
+        }
+        return segments;
+    }
+
+    private static boolean continuesLine(OcrResult previous, OcrResult next) {
+        Rectangle a = previous.boundingBox();
+        Rectangle b = next.boundingBox();
+        int overlap = Math.min(a.y + a.height, b.y + b.height) - Math.max(a.y, b.y);
+        int lineHeight = Math.max(a.height, b.height);
+        int gap = b.x - (a.x + a.width);
+        return overlap * 2 >= Math.min(a.height, b.height)
+                && gap >= -lineHeight / 2
+                && gap <= lineHeight * MAX_GAP_LINE_HEIGHTS;
+    }
+
+    static String normalize(String text) {
+        return String.join(" ", tokenize(text));
+    }
+
+    /**
+     * Lower-case ASCII alphanumeric runs, the same tokens {@link OcrFrame} indexes.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int p = 0; p <= text.length(); p++) {
+            char ch = p < text.length() ? text.charAt(p) : ' ';
+            boolean alphanumeric = (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9');
+            if (alphanumeric && start < 0) {
+                start = p;
+            } else if (!alphanumeric && start >= 0) {
+                tokens.add(text.substring(start, p).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,466 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.service.OcrService.OcrResult;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The words of one OCR pass grouped into the things a user would click: lines
+ * of text, link spans and buttons, each with a stable ID and a click point.
+ * Built once per screen read, so tools can act on element IDs without running
+ * OCR or regrouping words again.
+ *
+ * Words are assigned to the text lines and blocks found by Tesseract's layout
+ * analysis (see {@link TesseractEngine#analyseLayout}); words outside every
+ * Tesseract line fall back to the geometric lines of {@link OcrColumns}. Each
+ * line is then cut into spans wherever the horizontal gap between two words is
+ * wider than {@link #SPAN_GAP_LINE_HEIGHTS} line heights, or the text color
+ * changes. A span becomes
+ * <ul>
+ * <li>a {@link Kind#LINK} if its color differs from the page's body text color
+ * (the most common word color, weighted by text length). A link that ends one
+ * line and continues at the start of the next line of the same block, in the
+ * same color, is one element;</li>
+ * <li>a {@link Kind#BUTTON} if it is a short label alone in its block;</li>
+ * <li>otherwise plain {@link Kind#TEXT}, listed separately only when its line
+ * has several spans.</li>
+ * </ul>
+ *
+ * IDs are derived from the kind and text ("link-3fa2c1"), with "-2", "-3" and so
+ * on appended to repeated texts in reading order, so the same element keeps its
+ * ID across reads of the same screen, even after scrolling.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class ScreenLayout {
+
+    private static final double SPAN_GAP_LINE_HEIGHTS = 0.9;
+    // Wrapped lines of one link are at most this many line heights apart, top to top
+    private static final double WRAP_LINE_HEIGHTS = 1.8;
+    private static final int LINK_COLOR_TOLERANCE = 48;
+    private static final int BUTTON_MAX_WORDS = 3;
+    private static final int BUTTON_MAX_CHARS = 24;
+
+    private static final ScreenLayout EMPTY = new ScreenLayout(List.of());
+
+    public enum Kind {
+        /** A whole line of text. */
+        LINE("line"),
+        /** Part of a line, set apart from the rest by a wide gap or a color change. */
+        TEXT("text"),
+        /** Text in a color other than the body text, possibly wrapped over several lines. */
+        LINK("link"),
+        /** A short label alone in its layout block. */
+        BUTTON("button");
+
+        private final String prefix;
+
+        Kind(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public String prefix() {
+            return prefix;
+        }
+    }
+
+    /**
+     * One clickable element.
+     *
+     * @param id         A stable identifier, e.g. "link-3fa2c1".
+     * @param kind       What the element is.
+     * @param text       The element's words, space-separated.
+     * @param bounds     The union of the element's word boxes.
+     * @param clickX     Where to click: the centre of the first word, or of the
+     *                   bounds for a button.
+     * @param clickY     See clickX.
+     * @param color      The text color as 0xRRGGBB, or {@link OcrResult#NO_COLOR}.
+     * @param confidence Mean confidence of the element's words.
+     */
+    public record Element(String id, Kind kind, String text, Rectangle bounds, int clickX, int clickY, int color,
+            float confidence) {
+
+        public Element translated(int dx, int dy) {
+            Rectangle box = new Rectangle(bounds);
+            box.translate(dx, dy);
+            return new Element(id, kind, text, box, clickX + dx, clickY + dy, color, confidence);
+        }
+
+        /**
+         * The element as an OCR result, for code that clicks results.
+         */
+        public OcrResult toResult() {
+            return new OcrResult(text, new Rectangle(bounds), confidence, color);
+        }
+    }
+
+    private final List<Element> elements;
+    private final Map<String, Element> byId;
+
+    private ScreenLayout(List<Element> elements) {
+        this.elements = List.copyOf(elements);
+        this.byId = new HashMap<>(elements.size() * 2);
+        for (Element element : this.elements) {
+            byId.put(element.id(), element);
+        }
+    }
+
+    public static ScreenLayout empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Groups words into elements.
+     *
+     * @param words     The words of one OCR pass, ideally with colors attached
+     *                  (see {@link WordColorAnalyzer}); without colors no links
+     *                  are found.
+     * @param textLines Tesseract's text lines for the same image, in reading
+     *                  order and in the same coordinates as the words.
+     */
+    public static ScreenLayout build(OcrColumns words, List<TesseractEngine.TextLine> textLines) {
+        if (words.isEmpty()) {
+            return EMPTY;
+        }
+        int size = words.size();
+        int tesseractLines = textLines.size();
+
+        // 1. Assign words to Tesseract lines, or to a geometric line after them
+        int[] lineOf = new int[size];
+        for (int i = 0; i < size; i++) {
+            int line = lineContaining(textLines, words.centerX(i), words.centerY(i));
+            lineOf[i] = line >= 0 ? line : tesseractLines + words.lineOf(i);
+        }
+        int maxBlock = -1;
+        for (TesseractEngine.TextLine line : textLines) {
+            maxBlock = Math.max(maxBlock, line.block());
+        }
+
+        // 2. Order words by line, then left to right
+        int[] ordered = words.orderByLine(lineOf);
+
+        // 3. Cut lines into spans
+        int bodyColor = bodyColor(words);
+        List<Span> spans = new ArrayList<>();
+        Map<Integer, Integer> linesPerBlock = new HashMap<>();
+        int p = 0;
+        while (p < size) {
+            int line = lineOf[ordered[p]];
+            int end = p;
+            long heightSum = 0;
+            while (end < size && lineOf[ordered[end]] == line) {
+                heightSum += words.height(ordered[end]);
+                end++;
+            }
+            int block = line < tesseractLines ? textLines.get(line).block() : maxBlock + 1 + line - tesseractLines;
+            linesPerBlock.merge(block, 1, Integer::sum);
+            double lineHeight = (double) heightSum / (end - p);
+
+            int firstSpan = spans.size();
+            int spanStart = p;
+            for (int q = p + 1; q <= end; q++) {
+                if (q == end || startsNewSpan(words, ordered[q - 1], ordered[q], lineHeight)) {
+                    spans.add(new Span(spanStart, q, line, block, lineHeight, words.color(ordered[spanStart])));
+                    spanStart = q;
+                }
+            }
+            int spanCount = spans.size() - firstSpan;
+            for (int s = firstSpan; s < spans.size(); s++) {
+                spans.get(s).spansInLine = spanCount;
+            }
+            p = end;
+        }
+
+        for (Span span : spans) {
+            span.kind = kindOf(words, ordered, span, bodyColor, linesPerBlock.get(span.block));
+        }
+
+        // 4. Join links that wrap onto the next line of their block. Spans are in line order, so
+        // a following span on another line means this span ends its line and that one starts its own.
+        for (int s = 0; s + 1 < spans.size(); s++) {
+            Span span = spans.get(s);
+            Span next = spans.get(s + 1);
+            if (span.kind == Kind.LINK && next.kind == Kind.LINK && next.line != span.line
+                    && next.block == span.block && isWrapOf(words, ordered, span, next)) {
+                Span head = span.continues != null ? span.continues : span;
+                next.continues = head;
+                head.parts.add(next);
+            }
+        }
+
+        // 5. Emit lines and their spans in reading order
+        Map<String, Integer> idCounts = new HashMap<>();
+        List<Element> elements = new ArrayList<>();
+        int s = 0;
+        while (s < spans.size()) {
+            int line = spans.get(s).line;
+            int lineEnd = s;
+            while (lineEnd < spans.size() && spans.get(lineEnd).line == line) {
+                lineEnd++;
+            }
+            Span first = spans.get(s);
+            Span last = spans.get(lineEnd - 1);
+            elements.add(element(words, ordered, Kind.LINE, first.start, last.end, List.of(), idCounts));
+            for (int t = s; t < lineEnd; t++) {
+                Span span = spans.get(t);
+                boolean listed = span.kind != Kind.TEXT || span.spansInLine > 1;
+                if (listed && span.continues == null) {
+                    elements.add(element(words, ordered, span.kind, span.start, span.end, span.parts, idCounts));
+                }
+            }
+            s = lineEnd;
+        }
+        return new ScreenLayout(elements);
+    }
+
+    /**
+     * A run of words on one line, in positions of the line-ordered word array.
+     */
+    private static final class Span {
+        final int start;
+        final int end;
+        final int line;
+        final int block;
+        final double lineHeight;
+        final int color;
+        int spansInLine;
+        Kind kind;
+        // A wrapped link's first part lists the parts on following lines; those point back to it
+        final List<Span> parts = new ArrayList<>(0);
+        Span continues;
+
+        Span(int start, int end, int line, int block, double lineHeight, int color) {
+            this.start = start;
+            this.end = end;
+            this.line = line;
+            this.block = block;
+            this.lineHeight = lineHeight;
+            this.color = color;
+        }
+    }
+
+    private static int lineContaining(List<TesseractEngine.TextLine> lines, int x, int y) {
+        for (int l = 0; l < lines.size(); l++) {
+            if (lines.get(l).bounds().contains(x, y)) {
+                return l;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsNewSpan(OcrColumns words, int previous, int word, double lineHeight) {
+        int gap = words.x(word) - (words.x(previous) + words.width(previous));
+        if (gap > SPAN_GAP_LINE_HEIGHTS * lineHeight) {
+            return true;
+        }
+        int a = words.color(previous);
+        int b = words.color(word);
+        return a != OcrResult.NO_COLOR && b != OcrResult.NO_COLOR
+                && !WordColorAnalyzer.isSimilar(a, b, LINK_COLOR_TOLERANCE);
+    }
+
+    private static Kind kindOf(OcrColumns words, int[] ordered, Span span, int bodyColor, int blockLines) {
+        if (span.color != OcrResult.NO_COLOR && bodyColor != OcrResult.NO_COLOR
+                && !WordColorAnalyzer.isSimilar(span.color, bodyColor, LINK_COLOR_TOLERANCE)) {
+            return Kind.LINK;
+        }
+        if (blockLines == 1 && span.spansInLine == 1 && span.end - span.start <= BUTTON_MAX_WORDS) {
+            int chars = span.end - span.start - 1;
+            for (int p = span.start; p < span.end; p++) {
+                chars += words.textLength(ordered[p]);
+            }
+            if (chars <= BUTTON_MAX_CHARS) {
+                return Kind.BUTTON;
+            }
+        }
+        return Kind.TEXT;
+    }
+
+    /**
+     * Returns true if {@code next}, which starts the line after the one
+     * {@code span} ends, continues the same link: both share a color and the
+     * lines are close together.
+     */
+    private static boolean isWrapOf(OcrColumns words, int[] ordered, Span span, Span next) {
+        if (!WordColorAnalyzer.isSimilar(span.color, next.color, LINK_COLOR_TOLERANCE)) {
+            return false;
+        }
+        return wrapsOnto(words.y(ordered[span.start]), words.y(ordered[next.start]), span.lineHeight);
+    }
+
+    /**
+     * Returns true if a line of text in a link's color at {@code next} may
+     * continue the link whose line is at {@code line}, by the rule used to join
+     * wrapped links: it starts below, close enough to be the next line, and to
+     * the left of where the line ends. For callers that only have line boxes,
+     * such as regions found by their color.
+     */
+    public static boolean isWrappedLine(Rectangle line, Rectangle next) {
+        return next.x < line.x + line.width && wrapsOnto(line.y, next.y, line.height);
+    }
+
+    private static boolean wrapsOnto(int top, int nextTop, double lineHeight) {
+        return nextTop > top && nextTop - top <= WRAP_LINE_HEIGHTS * lineHeight;
+    }
+
+    /**
+     * The page's body text color: the mean color of the fullest
+     * {@link WordColorAnalyzer.Histogram} bin, weighted by text length.
+     */
+    private static int bodyColor(OcrColumns words) {
+        if (!words.hasColors()) {
+            return OcrResult.NO_COLOR;
+        }
+        WordColorAnalyzer.Histogram histogram = new WordColorAnalyzer.Histogram();
+        for (int i = 0; i < words.size(); i++) {
+            int rgb = words.color(i);
+            int length = words.textLength(i);
+            if (rgb != OcrResult.NO_COLOR && length > 0) {
+                histogram.add(rgb, length);
+            }
+        }
+        int fullest = histogram.fullestBin();
+        return fullest < 0 ? OcrResult.NO_COLOR : histogram.mean(fullest);
+    }
+
+    /**
+     * Creates the element for the words at positions [start, end), followed by
+     * the words of any wrapped parts.
+     */
+    private static Element element(OcrColumns words, int[] ordered, Kind kind, int start, int end, List<Span> parts,
+            Map<String, Integer> idCounts) {
+        ElementText text = new ElementText();
+        text.append(words, ordered, start, end);
+        for (Span part : parts) {
+            text.append(words, ordered, part.start, part.end);
+        }
+        int first = ordered[start];
+        Rectangle bounds = text.bounds;
+        int clickX = kind == Kind.BUTTON ? (int) bounds.getCenterX() : words.centerX(first);
+        int clickY = kind == Kind.BUTTON ? (int) bounds.getCenterY() : words.centerY(first);
+        String label = text.text.toString();
+        return new Element(idFor(kind, label, idCounts), kind, label, bounds, clickX, clickY, words.color(first),
+                (float) (text.confidenceSum / text.count));
+    }
+
+    /**
+     * Accumulates the text, bounds and confidence of an element's words.
+     */
+    private static final class ElementText {
+        final StringBuilder text = new StringBuilder();
+        Rectangle bounds;
+        double confidenceSum;
+        int count;
+
+        void append(OcrColumns words, int[] ordered, int start, int end) {
+            for (int p = start; p < end; p++) {
+                int word = ordered[p];
+                if (count > 0) {
+                    text.append(' ');
+                }
+                text.append(words.text(word));
+                bounds = bounds == null ? words.boundingBox(word) : bounds.union(words.boundingBox(word));
+                confidenceSum += words.confidence(word);
+                count++;
+            }
+        }
+    }
+
+    private static String idFor(Kind kind, String text, Map<String, Integer> idCounts) {
+        int hash = text.toLowerCase(Locale.ROOT).hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x45D9F3B;
+        hash ^= hash >>> 16;
+        String base = kind.prefix() + "-" + String.format("%06x", hash & 0xFFFFFF);
+        int seen = idCounts.merge(base, 1, Integer::sum);
+        return seen == 1 ? base : base + "-" + seen;
+    }
+
+    /**
+     * All elements in reading order: each line, followed by its links, buttons
+     * and separate text spans.
+     */
+    public List<Element> elements() {
+        return elements;
+    }
+
+    public List<Element> elements(Kind kind) {
+        List<Element> matches = new ArrayList<>();
+        for (Element element : elements) {
+            if (element.kind() == kind) {
+                matches.add(element);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Looks up an element by ID.
+     *
+     * @return The element, or null if this layout has none with that ID.
+     */
+    public Element element(String id) {
+        return id == null ? null : byId.get(id.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public boolean isEmpty() {
+        return elements.isEmpty();
+    }
+
+    /**
+     * Returns a copy with every element moved by (dx, dy), e.g. from image to
+     * screen coordinates.
+     */
+    public ScreenLayout translated(int dx, int dy) {
+        if (dx == 0 && dy == 0) {
+            return this;
+        }
+        List<Element> moved = new ArrayList<>(elements.size());
+        for (Element element : elements) {
+            moved.add(element.translated(dx, dy));
+        }
+        return new ScreenLayout(moved);
+    }
+
+    /**
+     * A compact listing for tool responses, one element per line, e.g.
+     * {@code link-3fa2c1 LINK "Bajaj Finance share price" at (412, 388)}.
+     *
+     * @param kinds       The kinds to list, or none for all.
+     * @param maxElements The most elements to list.
+     */
+    public String describe(int maxElements, Kind... kinds) {
+        Set<Kind> wanted = kinds.length == 0 ? EnumSet.allOf(Kind.class) : EnumSet.copyOf(Arrays.asList(kinds));
+        StringBuilder out = new StringBuilder();
+        int listed = 0;
+        int matching = 0;
+        for (Element element : elements) {
+            if (!wanted.contains(element.kind())) {
+                continue;
+            }
+            matching++;
+            if (listed < maxElements) {
+                out.append(element.id()).append(' ').append(element.kind()).append(" \"").append(element.text())
+                        .append("\" at (").append(element.clickX()).append(", ").append(element.clickY())
+                        .append(")\n");
+                listed++;
+            }
+        }
+        if (matching > listed) {
+            out.append("... and ").append(matching - listed).append(" more\n");
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,309 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.exception.OcrProcessingException;
+import com.sun.jna.Pointer;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.ITessAPI.TessBaseAPI;
+import net.sourceforge.tess4j.ITessAPI.TessPageIterator;
+import net.sourceforge.tess4j.ITessAPI.TessPageSegMode;
+import net.sourceforge.tess4j.ITessAPI.TessResultIterator;
+import net.sourceforge.tess4j.TessAPI1;
+import net.sourceforge.tess4j.Word;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A single Tesseract engine backed by a long-lived native handle.
+ *
+ * tess4j's {@code Tesseract} class creates, initialises and tears down a native
+ * TessBaseAPI (reloading the traineddata) on every call. This class initialises
+ * the handle once and only clears recognition state between images. Pixels are
+ * written into a per-engine {@link NativePixelBuffer} and handed to the native
+ * API in place, instead of going through tess4j's ImageIOHelper conversion.
+ *
+ * An engine is initialised for one {@link OcrProfile.Model}; the pool applies
+ * a profile's page segmentation mode and scale with {@link #use(OcrProfile)}
+ * before lending it out.
+ *
+ * Native handles are not thread-safe: an engine must only be used by one thread
+ * at a time, which {@link TesseractPool} guarantees.
+ */
+public class TesseractEngine implements AutoCloseable {
+
+    // Recognizing a line on its own needs a little margin around its layout box
+    private static final int LINE_PADDING = 4;
+
+    private final TessBaseAPI handle;
+    private final int id;
+    private final ImagePreprocessor preprocessor;
+    private final NativePixelBuffer pixels = new NativePixelBuffer();
+    private OcrProfile profile;
+
+    /**
+     * A text line found by layout analysis.
+     *
+     * @param bounds      The line's box.
+     * @param block       The index of the line's block, in reading order.
+     * @param blockBounds The block's box.
+     */
+    public record TextLine(Rectangle bounds, int block, Rectangle blockBounds) {
+    }
+
+    /**
+     * Creates a native handle and loads the traineddata for the given language.
+     *
+     * @param id           An identifier used in logs and metrics.
+     * @param datapath     The tessdata directory.
+     * @param language     The traineddata language, e.g. "eng".
+     * @param engineMode   A {@link ITessAPI.TessOcrEngineMode} constant.
+     * @param preprocessor Prepares each image before it is handed to Tesseract.
+     * @throws OcrProcessingException if the engine could not be initialised.
+     */
+    public TesseractEngine(int id, String datapath, String language, int engineMode,
+            ImagePreprocessor preprocessor) {
+        this.id = id;
+        this.preprocessor = preprocessor;
+        this.handle = TessAPI1.TessBaseAPICreate();
+        int status = TessAPI1.TessBaseAPIInit2(handle, datapath, language, engineMode);
+        if (status != 0) {
+            TessAPI1.TessBaseAPIDelete(handle);
+            throw new OcrProcessingException("Failed to initialise Tesseract engine " + id + " with language '"
+                    + language + "' (engine mode " + engineMode + ") from datapath '" + datapath + "'.");
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Applies a profile's page segmentation mode and scale to the following
+     * calls. The profile must use the model this engine was initialised with.
+     */
+    void use(OcrProfile profile) {
+        if (profile != this.profile) {
+            TessAPI1.TessBaseAPISetPageSegMode(handle, profile.pageSegMode());
+            this.profile = profile;
+        }
+    }
+
+    /**
+     * The profile applied by the pool, or null before the first one.
+     */
+    public OcrProfile getProfile() {
+        return profile;
+    }
+
+    private ImagePreprocessor.Prepared prepare(BufferedImage image) {
+        return preprocessor.prepareInto(image, pixels, profile == null ? 1.0 : profile.scaleFactor());
+    }
+
+    /**
+     * Recognizes the image and returns every result at the given iterator level.
+     *
+     * @param image The image to OCR.
+     * @param level A {@link ITessAPI.TessPageIteratorLevel} constant, e.g. RIL_WORD.
+     * @return The recognized words with their bounding boxes (in the image's
+     *         coordinates) and confidences.
+     */
+    public List<Word> getWords(BufferedImage image, int level) {
+        try {
+            ImagePreprocessor.Prepared prepared = prepare(image);
+            setImage();
+            TessAPI1.TessBaseAPIRecognize(handle, null);
+            List<Word> words = collectResults(level);
+            for (Word word : words) {
+                prepared.toSource(word.getBoundingBox());
+            }
+            return words;
+        } finally {
+            TessAPI1.TessBaseAPIClear(handle);
+        }
+    }
+
+    /**
+     * Searches the image line by line and stops at the first line for which
+     * {@code search} returns a result, so a match near the top of the screen does
+     * not pay for recognizing the rest of it.
+     *
+     * Layout analysis (which is cheap compared with recognition) finds the text
+     * lines first; each line is then recognized on its own with
+     * TessBaseAPISetRectangle.
+     *
+     * @param image  The image to search.
+     * @param search Sees the words of each line in reading order, left to right
+     *               with boxes in the image's coordinates, and returns non-null to
+     *               end the search.
+     * @return The first non-null result, or null if the whole image was searched
+     *         without one.
+     */
+    public <T> T searchLines(BufferedImage image, Function<List<Word>, T> search) {
+        try {
+            ImagePreprocessor.Prepared prepared = prepare(image);
+            setImage();
+            for (Rectangle line : layoutLines(prepared.width(), prepared.height())) {
+                TessAPI1.TessBaseAPISetRectangle(handle, line.x, line.y, line.width, line.height);
+                if (TessAPI1.TessBaseAPIRecognize(handle, null) != 0) {
+                    continue;
+                }
+                List<Word> words = collectResults(ITessAPI.TessPageIteratorLevel.RIL_WORD);
+                for (Word word : words) {
+                    prepared.toSource(word.getBoundingBox());
+                }
+                T result = search.apply(words);
+                if (result != null) {
+                    return result;
+                }
+            }
+            return null;
+        } finally {
+            TessAPI1.TessBaseAPIClear(handle);
+        }
+    }
+
+    /**
+     * Runs layout analysis only, with full automatic page segmentation whatever
+     * the current profile's mode, and returns the text lines with their blocks.
+     * Much cheaper than recognition; pair it with the words of a normal OCR pass
+     * to learn which words share a line and a block.
+     *
+     * @param image The image to analyse.
+     * @return The text lines in reading order, with boxes in the image's
+     *         coordinates.
+     */
+    public List<TextLine> analyseLayout(BufferedImage image) {
+        int pageSegMode = TessAPI1.TessBaseAPIGetPageSegMode(handle);
+        try {
+            ImagePreprocessor.Prepared prepared = prepare(image);
+            setImage();
+            TessAPI1.TessBaseAPISetPageSegMode(handle, TessPageSegMode.PSM_AUTO);
+            List<TextLine> lines = layoutTextLines(prepared.width(), prepared.height(), 0);
+            for (TextLine line : lines) {
+                prepared.toSource(line.bounds());
+                prepared.toSource(line.blockBounds());
+            }
+            return lines;
+        } finally {
+            TessAPI1.TessBaseAPISetPageSegMode(handle, pageSegMode);
+            TessAPI1.TessBaseAPIClear(handle);
+        }
+    }
+
+    /**
+     * Runs layout analysis only and returns the text-line boxes in reading order,
+     * padded by {@link #LINE_PADDING} pixels and clipped to the image.
+     */
+    private List<Rectangle> layoutLines(int width, int height) {
+        List<Rectangle> lines = new ArrayList<>();
+        for (TextLine line : layoutTextLines(width, height, LINE_PADDING)) {
+            lines.add(line.bounds());
+        }
+        return lines;
+    }
+
+    /**
+     * Runs layout analysis on the current image and returns its text lines in
+     * reading order, padded and clipped to the image. Every line gets its own
+     * block rectangle, so callers may modify them.
+     */
+    private List<TextLine> layoutTextLines(int width, int height, int padding) {
+        List<TextLine> lines = new ArrayList<>();
+        TessPageIterator iterator = TessAPI1.TessBaseAPIAnalyseLayout(handle);
+        if (iterator == null) {
+            return lines;
+        }
+        try {
+            int level = ITessAPI.TessPageIteratorLevel.RIL_TEXTLINE;
+            int blockLevel = ITessAPI.TessPageIteratorLevel.RIL_BLOCK;
+            IntBuffer left = IntBuffer.allocate(1);
+            IntBuffer top = IntBuffer.allocate(1);
+            IntBuffer right = IntBuffer.allocate(1);
+            IntBuffer bottom = IntBuffer.allocate(1);
+            Rectangle bounds = new Rectangle(0, 0, width, height);
+            int block = -1;
+            Rectangle blockBounds = new Rectangle();
+            do {
+                if (TessAPI1.TessPageIteratorIsAtBeginningOf(iterator, blockLevel) == ITessAPI.TRUE || block < 0) {
+                    block++;
+                    if (TessAPI1.TessPageIteratorBoundingBox(iterator, blockLevel, left, top, right,
+                            bottom) == ITessAPI.TRUE) {
+                        blockBounds = new Rectangle(left.get(0), top.get(0),
+                                right.get(0) - left.get(0), bottom.get(0) - top.get(0)).intersection(bounds);
+                    }
+                }
+                if (TessAPI1.TessPageIteratorBoundingBox(iterator, level, left, top, right, bottom) == ITessAPI.TRUE) {
+                    Rectangle line = new Rectangle(left.get(0), top.get(0),
+                            right.get(0) - left.get(0), bottom.get(0) - top.get(0));
+                    line.grow(padding, padding);
+                    line = line.intersection(bounds);
+                    if (!line.isEmpty()) {
+                        lines.add(new TextLine(line, block, new Rectangle(blockBounds)));
+                    }
+                }
+            } while (TessAPI1.TessPageIteratorNext(iterator, level) == ITessAPI.TRUE);
+        } finally {
+            TessAPI1.TessPageIteratorDelete(iterator);
+        }
+        return lines;
+    }
+
+    /**
+     * Points Tesseract at the engine's pixel buffer. The direct buffer is read in
+     * place by the native side; nothing is converted or copied here.
+     */
+    private void setImage() {
+        TessAPI1.TessBaseAPISetImage(handle, pixels.buffer(), pixels.width(), pixels.height(),
+                pixels.bytesPerPixel(), pixels.bytesPerLine());
+    }
+
+    /**
+     * Cumulative counters for the pixel handoff into this engine.
+     */
+    public NativePixelBuffer.Stats getHandoffStats() {
+        return pixels.getStats();
+    }
+
+    private List<Word> collectResults(int level) {
+        List<Word> words = new ArrayList<>();
+        TessResultIterator resultIterator = TessAPI1.TessBaseAPIGetIterator(handle);
+        if (resultIterator == null) {
+            return words;
+        }
+        try {
+            TessPageIterator pageIterator = TessAPI1.TessResultIteratorGetPageIterator(resultIterator);
+            IntBuffer left = IntBuffer.allocate(1);
+            IntBuffer top = IntBuffer.allocate(1);
+            IntBuffer right = IntBuffer.allocate(1);
+            IntBuffer bottom = IntBuffer.allocate(1);
+            do {
+                Pointer textPointer = TessAPI1.TessResultIteratorGetUTF8Text(resultIterator, level);
+                if (textPointer == null) {
+                    continue;
+                }
+                String text = textPointer.getString(0, "UTF-8");
+                TessAPI1.TessDeleteText(textPointer);
+                float confidence = TessAPI1.TessResultIteratorConfidence(resultIterator, level);
+                TessAPI1.TessPageIteratorBoundingBox(pageIterator, level, left, top, right, bottom);
+                words.add(new Word(text, confidence, new Rectangle(left.get(0), top.get(0),
+                        right.get(0) - left.get(0), bottom.get(0) - top.get(0))));
+            } while (TessAPI1.TessPageIteratorNext(pageIterator, level) == ITessAPI.TRUE);
+        } finally {
+            TessAPI1.TessResultIteratorDelete(resultIterator);
+        }
+        return words;
+    }
+
+    /**
+     * Releases the native handle. The engine must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        TessAPI1.TessBaseAPIEnd(handle);
+        TessAPI1.TessBaseAPIDelete(handle);
+    }
+}
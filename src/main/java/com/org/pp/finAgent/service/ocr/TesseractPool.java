@@ -0,0 +1,364 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.configuration.TesseractConfig;
+import com.org.pp.finAgent.exception.OcrProcessingException;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.ITessAPI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A bounded pool of pre-initialised {@link TesseractEngine}s.
+ *
+ * Tesseract handles are not thread-safe, so each caller checks out an engine for
+ * the duration of one OCR call and returns it afterwards. Callers block while
+ * all engines are busy. The pool size defaults to the number of available cores
+ * (capped at {@link #MAX_DEFAULT_SIZE} to bound memory) and can be overridden
+ * with the {@code ocr.pool.size} property.
+ *
+ * Engines are kept per {@link OcrProfile.Model}, since the traineddata and
+ * engine mode are fixed when a handle is initialised. The default profile's
+ * engines ({@code ocr.profile.default}) are created and warmed up on background
+ * threads, in parallel, so the application context does not wait for
+ * traineddata to load. The first OCR call blocks until that warm-up completes;
+ * {@link #ready()} exposes the same state. Engines for other models are created
+ * on first use, up to the same size.
+ */
+@Component
+public class TesseractPool {
+
+    private static final Logger log = LoggerFactory.getLogger(TesseractPool.class);
+
+    private static final int MAX_DEFAULT_SIZE = 8;
+
+    private final TesseractConfig tesseractConfig;
+    private final ImagePreprocessor preprocessor;
+    private final OcrProfile defaultProfile;
+    private final int size;
+    private final List<TesseractEngine> engines = new CopyOnWriteArrayList<>();
+    private final Map<OcrProfile.Model, ModelPool> pools = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final CompletableFuture<Void> ready;
+    private volatile boolean shutDown;
+
+    /**
+     * The engines initialised for one model. Engines are created on demand until
+     * there are {@link #size} of them.
+     */
+    private final class ModelPool {
+        private final OcrProfile.Model model;
+        private final BlockingQueue<TesseractEngine> idle;
+        private final AtomicInteger created = new AtomicInteger();
+
+        ModelPool(OcrProfile.Model model) {
+            this.model = model;
+            this.idle = new ArrayBlockingQueue<>(size);
+        }
+
+        /**
+         * Reserves a slot for a new engine, or returns false if the pool is full.
+         */
+        boolean reserve() {
+            return created.getAndUpdate(n -> n < size ? n + 1 : n) < size;
+        }
+
+        TesseractEngine borrow(OcrProfile profile) throws InterruptedException {
+            TesseractEngine engine = idle.poll();
+            if (engine == null && reserve()) {
+                try {
+                    engine = createEngine(model, profile);
+                } catch (RuntimeException | Error e) {
+                    created.decrementAndGet();
+                    throw e;
+                }
+                log.info("Created Tesseract engine {} for profile {} on demand.", engine.getId(), profile);
+            }
+            return engine != null ? engine : idle.take();
+        }
+    }
+
+    public TesseractPool(TesseractConfig tesseractConfig, ImagePreprocessor preprocessor,
+            @Value("${ocr.pool.size:0}") int configuredSize,
+            @Value("${ocr.profile.default:fast-sparse}") String defaultProfile) {
+        this.tesseractConfig = tesseractConfig;
+        this.preprocessor = preprocessor;
+        this.defaultProfile = OcrProfile.named(defaultProfile);
+        this.size = configuredSize > 0
+                ? configuredSize
+                : Math.min(MAX_DEFAULT_SIZE, Runtime.getRuntime().availableProcessors());
+
+        // Loading traineddata takes a while per engine. Do it in the background, one thread per
+        // engine, so Spring context startup (and the control panel window) is not held up.
+        long start = System.nanoTime();
+        ModelPool pool = poolFor(this.defaultProfile);
+        AtomicInteger warmed = new AtomicInteger();
+        List<CompletableFuture<Void>> warmUps = new ArrayList<>(size);
+        while (pool.reserve()) {
+            CompletableFuture<Void> warmUp = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    pool.idle.add(createEngine(pool.model, this.defaultProfile));
+                    warmed.incrementAndGet();
+                    warmUp.complete(null);
+                } catch (Throwable t) {
+                    // Give the slot back so the engine can be created on demand later
+                    pool.created.decrementAndGet();
+                    warmUp.completeExceptionally(t);
+                }
+            }, "tesseract-warmup-" + warmUps.size());
+            thread.setDaemon(true);
+            thread.start();
+            warmUps.add(warmUp);
+        }
+
+        CompletableFuture<Void> warmedUp = new CompletableFuture<>();
+        CompletableFuture.allOf(warmUps.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, failure) -> {
+                    long millis = (System.nanoTime() - start) / 1_000_000;
+                    if (failure == null) {
+                        log.info("Tesseract OCR initialized successfully with a pool of {} engine(s) for profile {} "
+                                + "in {} ms (background warm-up).", size, this.defaultProfile, millis);
+                        warmedUp.complete(null);
+                        return;
+                    }
+                    Throwable cause = rootCause(failure);
+                    if (warmed.get() > 0) {
+                        // The engines that did load are usable; the rest are retried on demand
+                        log.warn("Tesseract OCR initialized with {} of {} engine(s) for profile {} in {} ms; "
+                                + "the others failed to warm up: {}", warmed.get(), size, this.defaultProfile,
+                                millis, cause.getMessage(), cause);
+                        warmedUp.complete(null);
+                    } else {
+                        log.error("Tesseract OCR warm-up failed after {} ms: {}", millis, cause.getMessage(), cause);
+                        warmedUp.completeExceptionally(cause);
+                    }
+                });
+        this.ready = warmedUp;
+    }
+
+    /**
+     * Completes once every engine of the default profile has loaded its
+     * traineddata and run a warm-up recognition or failed to. Completes
+     * exceptionally only if no engine could be initialised; slots of engines
+     * that failed are filled on demand.
+     */
+    public CompletableFuture<Void> ready() {
+        return ready;
+    }
+
+    /**
+     * Blocks until the pool is ready.
+     *
+     * @throws OcrProcessingException if initialisation failed or the wait was
+     *                                interrupted.
+     */
+    public void awaitReady() {
+        try {
+            ready.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OcrProcessingException("Interrupted while waiting for Tesseract to initialize.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = rootCause(e);
+            if (cause instanceof UnsatisfiedLinkError || cause instanceof NoClassDefFoundError) {
+                throw new OcrProcessingException("Tesseract OCR native library not found. "
+                        + "Ensure 'tesseract' is installed (brew install tesseract) and "
+                        + "jna.library.path points to the lib directory.", cause);
+            }
+            if (cause instanceof OcrProcessingException ocrException) {
+                throw ocrException;
+            }
+            throw new OcrProcessingException("Tesseract OCR failed to initialize.", cause);
+        }
+    }
+
+    private static Throwable rootCause(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    private ModelPool poolFor(OcrProfile profile) {
+        return pools.computeIfAbsent(profile.model(), ModelPool::new);
+    }
+
+    /**
+     * Creates an engine for the model, applies the profile and warms it up.
+     */
+    private TesseractEngine createEngine(OcrProfile.Model model, OcrProfile profile) {
+        TesseractEngine engine = new TesseractEngine(nextId.getAndIncrement(), tesseractConfig.getTessDataPath(),
+                tesseractConfig.getLanguage(model.trainedData()), model.engineMode(), preprocessor);
+        engine.use(profile);
+        warmUp(engine);
+        engines.add(engine);
+        return engine;
+    }
+
+    /**
+     * Runs a trivial recognition so the engine's model is fully loaded before the
+     * first real request.
+     */
+    private void warmUp(TesseractEngine engine) {
+        try {
+            BufferedImage testImg = new BufferedImage(32, 32, BufferedImage.TYPE_BYTE_GRAY);
+            engine.getWords(testImg, ITessAPI.TessPageIteratorLevel.RIL_WORD);
+        } catch (RuntimeException e) {
+            // Non-fatal: Tesseract may reject a blank image, but the model is loaded either way
+            log.debug("Warm-up of Tesseract engine {} returned: {}", engine.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * The profile used when a caller does not choose one.
+     */
+    public OcrProfile defaultProfile() {
+        return defaultProfile;
+    }
+
+    /**
+     * Checks out an engine set up for the default profile.
+     *
+     * @see #borrow(OcrProfile)
+     */
+    public TesseractEngine borrow() throws InterruptedException {
+        return borrow(defaultProfile);
+    }
+
+    /**
+     * Checks out an engine set up for the given profile, waiting for warm-up to
+     * finish on first use and if all of the profile's engines are busy. The
+     * engine must be returned with {@link #release(TesseractEngine)}.
+     *
+     * @throws OcrProcessingException if the pool failed to initialise or has
+     *                                been shut down.
+     */
+    public TesseractEngine borrow(OcrProfile profile) throws InterruptedException {
+        awaitReady();
+        if (shutDown) {
+            throw new OcrProcessingException("The Tesseract pool has been shut down.");
+        }
+        TesseractEngine engine = poolFor(profile).borrow(profile);
+        engine.use(profile);
+        return engine;
+    }
+
+    /**
+     * Returns a previously borrowed engine to the pool, or closes it if the pool
+     * has been shut down while it was in use.
+     */
+    public void release(TesseractEngine engine) {
+        if (engine == null) {
+            return;
+        }
+        if (shutDown) {
+            close(engine);
+            return;
+        }
+        BlockingQueue<TesseractEngine> idle = poolFor(engine.getProfile()).idle;
+        idle.offer(engine);
+        // shutdown() may have drained the queue just before the offer; whoever removes the engine closes it
+        if (shutDown && idle.remove(engine)) {
+            close(engine);
+        }
+    }
+
+    /**
+     * Runs the given work with an exclusively borrowed engine for the default
+     * profile.
+     *
+     * @see #withEngine(OcrProfile, Function)
+     */
+    public <T> T withEngine(Function<TesseractEngine, T> work) {
+        return withEngine(defaultProfile, work);
+    }
+
+    /**
+     * Runs the given work with an exclusively borrowed engine, set up for the
+     * profile, and returns it to the pool afterwards.
+     *
+     * @param profile The settings to recognize with.
+     * @param work    The OCR work to perform.
+     * @return The work's result.
+     */
+    public <T> T withEngine(OcrProfile profile, Function<TesseractEngine, T> work) {
+        TesseractEngine engine;
+        try {
+            engine = borrow(profile);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OcrProcessingException("Interrupted while waiting for a Tesseract engine.", e);
+        }
+        try {
+            return work.apply(engine);
+        } finally {
+            release(engine);
+        }
+    }
+
+    /**
+     * Pixel handoff counters summed over all engines.
+     */
+    public NativePixelBuffer.Stats handoffStats() {
+        NativePixelBuffer.Stats total = new NativePixelBuffer.Stats(0, 0, 0, 0, 0);
+        for (TesseractEngine engine : engines) {
+            total = total.plus(engine.getHandoffStats());
+        }
+        return total;
+    }
+
+    /**
+     * The configured number of engines per model, known before warm-up finishes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Idle engines of the default profile's model.
+     */
+    public int idleCount() {
+        return poolFor(defaultProfile).idle.size();
+    }
+
+    /**
+     * Closes the idle engines. Engines that are still borrowed are closed when
+     * they are released, so no OCR call loses its handle mid-recognition.
+     */
+    @PreDestroy
+    public void shutdown() {
+        shutDown = true;
+        // Let an in-flight warm-up finish so no engine is created after its handles were freed
+        ready.exceptionally(failure -> null).join();
+        for (ModelPool pool : pools.values()) {
+            TesseractEngine engine;
+            while ((engine = pool.idle.poll()) != null) {
+                close(engine);
+            }
+        }
+        if (!engines.isEmpty()) {
+            log.info("{} Tesseract engine(s) still in use; closing them when they are released.", engines.size());
+        }
+    }
+
+    private void close(TesseractEngine engine) {
+        engines.remove(engine);
+        engine.close();
+    }
+}
@@ -0,0 +1,183 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.service.OcrService.OcrResult;
+import com.org.pp.finAgent.util.IntRasterView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Finds the dominant foreground (text) color of every word box, straight from
+ * the packed int raster, so color-based filters (blue links, red errors, green
+ * gains) are a lookup on the OCR result instead of another pass over pixels.
+ *
+ * Each box is reduced to a histogram over 512 bins (3 bits per channel) that
+ * also keeps per-bin channel sums. The fullest bin is taken to be the
+ * background. The foreground is the fullest of the remaining bins whose mean
+ * color differs from the background by at least {@link #MIN_CONTRAST}, which
+ * skips the blended pixels along anti-aliased glyph edges; its mean color is the
+ * word's color. Words without such a bin get {@link OcrResult#NO_COLOR}.
+ *
+ * The histogram arrays are allocated once per frame and reset per word by
+ * clearing only the bins that word touched; no objects are created per pixel.
+ */
+@Component
+public class WordColorAnalyzer {
+
+    private static final int BINS = 512;
+    // RGB distance between the background and anything counted as text
+    private static final int MIN_CONTRAST = 64;
+
+    private final boolean enabled;
+
+    public WordColorAnalyzer(@Value("${ocr.color.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Computes the foreground color of every word and returns the words with the
+     * colors attached. Returns the words unchanged when analysis is disabled.
+     *
+     * @param image The image the words were recognized in; boxes are in its
+     *              coordinates.
+     * @param words The recognized words.
+     */
+    public OcrColumns analyze(BufferedImage image, OcrColumns words) {
+        if (!enabled || words.isEmpty()) {
+            return words;
+        }
+        IntRasterView raster = IntRasterView.ofConverted(image);
+        Histogram histogram = new Histogram();
+        int[] colors = new int[words.size()];
+        for (int word = 0; word < words.size(); word++) {
+            colors[word] = dominantColor(raster, histogram, words.x(word), words.y(word), words.width(word),
+                    words.height(word));
+        }
+        return words.withColors(colors);
+    }
+
+    /**
+     * Returns the foreground color of one box, as 0xRRGGBB, or
+     * {@link OcrResult#NO_COLOR} if the box is empty or has a single color.
+     */
+    private static int dominantColor(IntRasterView raster, Histogram histogram, int x, int y, int width,
+            int height) {
+        int x0 = Math.max(0, x);
+        int y0 = Math.max(0, y);
+        int x1 = Math.min(raster.width(), x + width);
+        int y1 = Math.min(raster.height(), y + height);
+        if (x0 >= x1 || y0 >= y1) {
+            return OcrResult.NO_COLOR;
+        }
+
+        int[] pixels = raster.pixels();
+        for (int row = y0; row < y1; row++) {
+            int start = raster.rowStart(row);
+            for (int i = start + x0; i < start + x1; i++) {
+                histogram.add(pixels[i]);
+            }
+        }
+
+        int background = histogram.fullestBin();
+        int backgroundRgb = histogram.mean(background);
+
+        int foreground = -1;
+        int minContrastSq = MIN_CONTRAST * MIN_CONTRAST;
+        for (int t = 0; t < histogram.touchedCount; t++) {
+            int bin = histogram.touched[t];
+            if (bin != background
+                    && (foreground < 0 || histogram.counts[bin] > histogram.counts[foreground])
+                    && distanceSq(histogram.mean(bin), backgroundRgb) >= minContrastSq) {
+                foreground = bin;
+            }
+        }
+        int color = foreground < 0 ? OcrResult.NO_COLOR : histogram.mean(foreground);
+        histogram.clear();
+        return color;
+    }
+
+    /**
+     * Returns true if a color is within {@code tolerance} (Euclidean RGB
+     * distance) of a target. {@link OcrResult#NO_COLOR} matches nothing.
+     */
+    public static boolean isSimilar(int rgb, int targetRgb, int tolerance) {
+        return rgb != OcrResult.NO_COLOR && distanceSq(rgb, targetRgb) < (long) tolerance * tolerance;
+    }
+
+    private static int distanceSq(int a, int b) {
+        int dr = ((a >> 16) & 0xFF) - ((b >> 16) & 0xFF);
+        int dg = ((a >> 8) & 0xFF) - ((b >> 8) & 0xFF);
+        int db = (a & 0xFF) - (b & 0xFF);
+        return dr * dr + dg * dg + db * db;
+    }
+
+    /**
+     * A quantized color histogram with per-bin channel sums, reused across the
+     * words of one frame. Also used to find the page's body text color in
+     * {@link ScreenLayout}.
+     */
+    static final class Histogram {
+        final int[] counts = new int[BINS];
+        final long[] redSums = new long[BINS];
+        final long[] greenSums = new long[BINS];
+        final long[] blueSums = new long[BINS];
+        final int[] touched = new int[BINS];
+        int touchedCount;
+
+        void add(int rgb) {
+            add(rgb, 1);
+        }
+
+        /**
+         * Counts a color {@code weight} times; the weight must be positive.
+         */
+        void add(int rgb, int weight) {
+            int r = (rgb >> 16) & 0xFF;
+            int g = (rgb >> 8) & 0xFF;
+            int b = rgb & 0xFF;
+            int bin = ((r >> 5) << 6) | ((g >> 5) << 3) | (b >> 5);
+            if (counts[bin] == 0) {
+                touched[touchedCount++] = bin;
+            }
+            counts[bin] += weight;
+            redSums[bin] += (long) r * weight;
+            greenSums[bin] += (long) g * weight;
+            blueSums[bin] += (long) b * weight;
+        }
+
+        /**
+         * The bin with the highest count, or -1 if nothing was added.
+         */
+        int fullestBin() {
+            int fullest = -1;
+            for (int t = 0; t < touchedCount; t++) {
+                int bin = touched[t];
+                if (fullest < 0 || counts[bin] > counts[fullest]) {
+                    fullest = bin;
+                }
+            }
+            return fullest;
+        }
+
+        int mean(int bin) {
+            int count = counts[bin];
+            return (int) ((redSums[bin] / count) << 16 | (greenSums[bin] / count) << 8 | blueSums[bin] / count);
+        }
+
+        void clear() {
+            for (int t = 0; t < touchedCount; t++) {
+                int bin = touched[t];
+                counts[bin] = 0;
+                redSums[bin] = 0;
+                greenSums[bin] = 0;
+                blueSums[bin] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.org.pp.finAgent.util;
+
+import com.sun.jna.platform.win32.User32;
+import com.sun.jna.platform.win32.WinDef.HWND;
+import com.sun.jna.platform.win32.WinDef.RECT;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utility class for finding the screen bounds of the focused window on
+ * different platforms
+ */
+public class ActiveWindowLocator {
+
+    private final boolean isWindows;
+    private final boolean isMac;
+
+    public ActiveWindowLocator() {
+        String os = System.getProperty("os.name").toLowerCase();
+        this.isWindows = os.contains("win");
+        this.isMac = os.contains("mac");
+    }
+
+    /**
+     * Returns the screen-space bounds of the foreground window.
+     *
+     * @return The window bounds, or empty if they could not be determined
+     */
+    public Optional<Rectangle> focusedWindowBounds() {
+        try {
+            if (isWindows) {
+                HWND hwnd = User32.INSTANCE.GetForegroundWindow();
+                if (hwnd == null) {
+                    return Optional.empty();
+                }
+                RECT rect = new RECT();
+                if (!User32.INSTANCE.GetWindowRect(hwnd, rect)) {
+                    return Optional.empty();
+                }
+                return nonEmpty(rect.toRectangle());
+            } else if (isMac) {
+                // AppleScript returns "x, y, width, height" of the frontmost app's front window
+                String script = "tell application \"System Events\" to tell (first application process whose frontmost is true) "
+                        + "to get (position of front window) & (size of front window)";
+                ProcessBuilder pb = new ProcessBuilder("osascript", "-e", script);
+                Process process = pb.start();
+                if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                    process.destroy();
+                    return Optional.empty();
+                }
+                String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+                return parseBounds(output);
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (RuntimeException | UnsatisfiedLinkError e) {
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Rectangle> parseBounds(String output) {
+        String[] parts = output.split("\\s*,\\s*");
+        if (parts.length != 4) {
+            return Optional.empty();
+        }
+        try {
+            return nonEmpty(new Rectangle(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                    Integer.parseInt(parts[2]), Integer.parseInt(parts[3])));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Rectangle> nonEmpty(Rectangle rect) {
+        return rect.isEmpty() ? Optional.empty() : Optional.of(rect);
+    }
+}
@@ -0,0 +1,95 @@
+package com.org.pp.finAgent.util;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocation and GC counters for screen capture, so we can confirm that a
+ * steady-state capture allocates (close to) nothing.
+ *
+ * Only the Windows GDI path captures into pooled buffers. Elsewhere each capture
+ * is a fresh Robot raster, since Robot cannot fill an existing image; those
+ * captures are counted separately so the allocation figures are not mistaken
+ * for a pooling failure.
+ */
+public class CaptureMetrics {
+
+    private final AtomicLong captures = new AtomicLong();
+    private final AtomicLong unpooledCaptures = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong lastAllocatedBytes = new AtomicLong();
+
+    /**
+     * A point-in-time view of the capture counters.
+     *
+     * @param captures               Number of captures taken.
+     * @param unpooledCaptures       Captures that allocated a fresh raster because
+     *                               no pooled capture path exists on this
+     *                               platform (everywhere but Windows).
+     * @param bufferAllocations      Frame buffers newly allocated by the pools.
+     * @param bufferReuses           Frame buffers served from the pools.
+     * @param totalAllocatedBytes    Heap bytes allocated by the capturing threads while capturing.
+     * @param lastAllocatedBytes     Heap bytes allocated by the most recent capture.
+     * @param gcCount                Total collections across all collectors since JVM start.
+     * @param gcTimeMillis           Total collection time across all collectors since JVM start.
+     */
+    public record Snapshot(long captures, long unpooledCaptures, long bufferAllocations, long bufferReuses,
+            long totalAllocatedBytes, long lastAllocatedBytes, long gcCount, long gcTimeMillis) {
+
+        public long averageAllocatedBytesPerCapture() {
+            return captures == 0 ? 0 : totalAllocatedBytes / captures;
+        }
+
+        /**
+         * True if every capture went through the pooled path, so the allocation
+         * figures reflect pool efficiency rather than per-capture rasters.
+         */
+        public boolean pooled() {
+            return unpooledCaptures == 0;
+        }
+    }
+
+    /**
+     * Returns the heap bytes allocated so far by the current thread, or -1 if the
+     * JVM does not support per-thread allocation accounting.
+     */
+    static long currentThreadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean hotspot
+                && hotspot.isThreadAllocatedMemorySupported()) {
+            return hotspot.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    void recordCapture(long allocatedBefore, long allocatedAfter, boolean pooled) {
+        captures.incrementAndGet();
+        if (!pooled) {
+            unpooledCaptures.incrementAndGet();
+        }
+        if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+            long delta = allocatedAfter - allocatedBefore;
+            allocatedBytes.addAndGet(delta);
+            lastAllocatedBytes.set(delta);
+        }
+    }
+
+    Snapshot snapshot(FrameBufferPool... pools) {
+        long bufferAllocations = 0;
+        long bufferReuses = 0;
+        for (FrameBufferPool pool : pools) {
+            bufferAllocations += pool.getAllocationCount();
+            bufferReuses += pool.getReuseCount();
+        }
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcTime += Math.max(0, gc.getCollectionTime());
+        }
+        return new Snapshot(captures.get(), unpooledCaptures.get(), bufferAllocations, bufferReuses,
+                allocatedBytes.get(), lastAllocatedBytes.get(), gcCount, gcTime);
+    }
+}
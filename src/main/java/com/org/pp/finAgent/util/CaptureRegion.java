@@ -0,0 +1,162 @@
+package com.org.pp.finAgent.util;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.HeadlessException;
+import java.awt.Rectangle;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Describes which part of the screen to capture and OCR. OCR cost grows with
+ * pixel count, so tools should capture the smallest region that contains what
+ * they are looking for.
+ *
+ * @param kind      How the region is determined.
+ * @param rectangle The screen rectangle for {@link Kind#EXPLICIT} regions; null otherwise.
+ */
+public record CaptureRegion(Kind kind, Rectangle rectangle) {
+
+    /**
+     * Approximate height of Chrome's tab strip plus toolbar, in screen pixels.
+     * Everything below it is the page viewport.
+     */
+    static final int BROWSER_TOOLBAR_HEIGHT = 88;
+
+    /**
+     * Approximate height of Chrome's tab strip alone, in screen pixels.
+     */
+    static final int BROWSER_TAB_STRIP_HEIGHT = 44;
+
+    private static final ActiveWindowLocator WINDOW_LOCATOR = new ActiveWindowLocator();
+
+    public enum Kind {
+        /** The whole primary screen. */
+        FULL_SCREEN,
+        /** A caller-supplied screen rectangle. */
+        EXPLICIT,
+        /** The bounds of the currently focused window. */
+        FOCUSED_WINDOW,
+        /** The focused (browser) window without its tab strip and toolbar. */
+        BROWSER_CONTENT,
+        /** The tab strip along the top of the focused (browser) window. */
+        BROWSER_TAB_STRIP
+    }
+
+    public static CaptureRegion fullScreen() {
+        return new CaptureRegion(Kind.FULL_SCREEN, null);
+    }
+
+    public static CaptureRegion of(Rectangle rectangle) {
+        return new CaptureRegion(Kind.EXPLICIT, new Rectangle(rectangle));
+    }
+
+    public static CaptureRegion focusedWindow() {
+        return new CaptureRegion(Kind.FOCUSED_WINDOW, null);
+    }
+
+    public static CaptureRegion browserContent() {
+        return new CaptureRegion(Kind.BROWSER_CONTENT, null);
+    }
+
+    public static CaptureRegion browserTabStrip() {
+        return new CaptureRegion(Kind.BROWSER_TAB_STRIP, null);
+    }
+
+    /**
+     * The bounds of the currently focused window, if they can be determined. Look
+     * the window up once and pin several regions to it with {@link #inWindow} when
+     * they must all describe the same window.
+     */
+    public static Optional<Rectangle> focusedWindowBounds() {
+        return WINDOW_LOCATOR.focusedWindowBounds();
+    }
+
+    /**
+     * Pins this region to the given window, as if that window had focus. Regions
+     * that do not depend on the focused window are returned unchanged.
+     *
+     * @param window The window's screen bounds.
+     * @return An {@link Kind#EXPLICIT} region for window-relative kinds; this region otherwise.
+     */
+    public CaptureRegion inWindow(Rectangle window) {
+        return switch (kind) {
+            case FULL_SCREEN, EXPLICIT -> this;
+            case FOCUSED_WINDOW -> of(window);
+            case BROWSER_CONTENT -> of(withoutBrowserToolbar(window));
+            case BROWSER_TAB_STRIP -> of(browserTabStrip(window));
+        };
+    }
+
+    /**
+     * Looks up a region preset by name, e.g. "browser content area", "focused-window"
+     * or "full_screen". Case, spaces, dashes and underscores are ignored.
+     *
+     * @param name The preset name.
+     * @return The matching region.
+     * @throws IllegalArgumentException if the name is not a known preset.
+     */
+    public static CaptureRegion named(String name) {
+        String key = name == null ? "" : name.toLowerCase(Locale.ROOT).replaceAll("[\\s_-]+", "");
+        return switch (key) {
+            case "fullscreen", "screen", "desktop" -> fullScreen();
+            case "focusedwindow", "activewindow", "window" -> focusedWindow();
+            case "browsercontent", "browsercontentarea", "browserviewport", "viewport" -> browserContent();
+            case "browsertabstrip", "browsertabs", "tabstrip", "tabs" -> browserTabStrip();
+            default -> throw new IllegalArgumentException("Unknown capture region preset: " + name);
+        };
+    }
+
+    /**
+     * Resolves this region to a concrete screen rectangle, clipped to the desktop
+     * spanned by all monitors, so windows on a second monitor can be captured.
+     * Falls back to the given screen if the region cannot be determined (e.g. no
+     * focused window) or lies entirely off-screen.
+     *
+     * @param screenBounds The bounds of the primary screen, used for
+     *                     {@link Kind#FULL_SCREEN} and as the fallback.
+     * @return The rectangle to capture, never empty.
+     */
+    public Rectangle resolve(Rectangle screenBounds) {
+        Rectangle target = switch (kind) {
+            case FULL_SCREEN -> screenBounds;
+            case EXPLICIT -> rectangle;
+            case FOCUSED_WINDOW -> WINDOW_LOCATOR.focusedWindowBounds().orElse(screenBounds);
+            case BROWSER_CONTENT -> WINDOW_LOCATOR.focusedWindowBounds()
+                    .map(CaptureRegion::withoutBrowserToolbar)
+                    .orElse(screenBounds);
+            case BROWSER_TAB_STRIP -> WINDOW_LOCATOR.focusedWindowBounds()
+                    .map(CaptureRegion::browserTabStrip)
+                    .orElse(screenBounds);
+        };
+        Rectangle clipped = target.intersection(desktopBounds(screenBounds));
+        return clipped.isEmpty() ? new Rectangle(screenBounds) : clipped;
+    }
+
+    /**
+     * The union of every monitor's bounds, or the given screen if the monitors
+     * cannot be listed (e.g. headless).
+     */
+    private static Rectangle desktopBounds(Rectangle screenBounds) {
+        try {
+            Rectangle desktop = new Rectangle(screenBounds);
+            for (GraphicsDevice device : GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices()) {
+                GraphicsConfiguration configuration = device.getDefaultConfiguration();
+                desktop = desktop.union(configuration.getBounds());
+            }
+            return desktop;
+        } catch (HeadlessException e) {
+            return screenBounds;
+        }
+    }
+
+    private static Rectangle browserTabStrip(Rectangle window) {
+        return new Rectangle(window.x, window.y, window.width, Math.min(BROWSER_TAB_STRIP_HEIGHT, window.height));
+    }
+
+    private static Rectangle withoutBrowserToolbar(Rectangle window) {
+        int toolbar = Math.min(BROWSER_TOOLBAR_HEIGHT, window.height / 2);
+        return new Rectangle(window.x, window.y + toolbar, window.width, window.height - toolbar);
+    }
+}
@@ -0,0 +1,76 @@
+package com.org.pp.finAgent.util;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+
+/**
+ * A single screen capture kept in memory, together with the screen-space
+ * rectangle it was taken from. Frames are handed straight from
+ * {@link ScreenCapture} to the OCR layer without being encoded to disk.
+ *
+ * Frames may be backed by a pooled buffer; close the frame (ideally with
+ * try-with-resources) once OCR is done so the buffer can be reused. The image
+ * must not be used after the frame is closed.
+ *
+ * @param image           The captured pixels.
+ * @param bounds          The screen rectangle the image covers.
+ * @param capturedAtNanos The {@link System#nanoTime()} value at capture time.
+ * @param pool            The pool the image came from, or null if it is not pooled.
+ */
+public record CapturedFrame(BufferedImage image, Rectangle bounds, long capturedAtNanos, FrameBufferPool pool)
+        implements AutoCloseable {
+
+    public CapturedFrame(BufferedImage image, Rectangle bounds, long capturedAtNanos) {
+        this(image, bounds, capturedAtNanos, null);
+    }
+
+    public int width() {
+        return image.getWidth();
+    }
+
+    public int height() {
+        return image.getHeight();
+    }
+
+    /**
+     * Translates a rectangle in image coordinates to screen coordinates.
+     *
+     * @param imageRect A rectangle relative to this frame's image.
+     * @return The same rectangle positioned on screen.
+     */
+    public Rectangle toScreen(Rectangle imageRect) {
+        return new Rectangle(imageRect.x + bounds.x, imageRect.y + bounds.y, imageRect.width, imageRect.height);
+    }
+
+    /**
+     * Writes this frame as a PNG to the given path. This is the only place a
+     * capture touches the file system, so callers decide when a file is needed
+     * and own its lifecycle.
+     *
+     * @param target The file to write.
+     * @return The absolute path of the written file.
+     * @throws IOException if the image could not be written.
+     */
+    public Path writePng(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        ImageIO.write(image, "png", target.toFile());
+        return target.toAbsolutePath();
+    }
+
+    /**
+     * Returns the backing buffer to its pool, if any.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.release(image);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.org.pp.finAgent.util;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds the regions of an image drawn in (roughly) one color, such as the blue
+ * titles on a search results page, so that only those regions need to be OCR'd.
+ *
+ * The packed int raster is scanned once. On each row, pixels within
+ * {@code tolerance} (Euclidean RGB distance) of the target color are joined into
+ * runs, bridging gaps of up to {@code maxGapX} pixels so the letters and words
+ * of one line become one run. Runs on nearby rows (at most {@code maxGapY} rows
+ * apart) that overlap horizontally are then merged with union-find into
+ * connected components, whose bounding boxes are returned. Lines of text are
+ * normally further apart than {@code maxGapY}, so each box holds a single line;
+ * two links on the same row stay separate as long as they are more than
+ * {@code maxGapX} apart.
+ *
+ * Boxes are returned in reading order: a box is on the line of the first box
+ * whose vertical extent contains its centre, lines go top to bottom, and the
+ * boxes of a line left to right, whatever their exact top rows.
+ *
+ * Instances hold no per-call state and are safe to share between threads.
+ */
+public class ColorRegionDetector {
+
+    private static final int DEFAULT_TOLERANCE = 40;
+    private static final int DEFAULT_MAX_GAP_X = 14;
+    private static final int DEFAULT_MAX_GAP_Y = 3;
+    private static final int DEFAULT_MIN_HEIGHT = 6;
+    private static final int DEFAULT_MAX_HEIGHT = 96;
+    private static final int DEFAULT_PADDING = 6;
+    // Boxes narrower than this hold a bullet or an icon, not a readable label
+    private static final int MIN_WIDTH = 8;
+
+    private final int tolerance;
+    private final int maxGapX;
+    private final int maxGapY;
+    private final int minHeight;
+    private final int maxHeight;
+    private final int padding;
+
+    public ColorRegionDetector() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_GAP_X, DEFAULT_MAX_GAP_Y, DEFAULT_MIN_HEIGHT, DEFAULT_MAX_HEIGHT,
+                DEFAULT_PADDING);
+    }
+
+    /**
+     * @param tolerance The largest RGB distance from the target color that still
+     *                  counts as a match.
+     * @param maxGapX   The widest horizontal gap bridged within one region.
+     * @param maxGapY   The most rows a region may skip, e.g. between an "i" and
+     *                  its dot.
+     * @param minHeight Regions shorter than this are ignored as noise.
+     * @param maxHeight Regions taller than this (buttons, images, colored
+     *                  panels) are ignored.
+     * @param padding   Margin added around each returned box, so the OCR engine
+     *                  sees anti-aliased edges and some background.
+     */
+    public ColorRegionDetector(int tolerance, int maxGapX, int maxGapY, int minHeight, int maxHeight, int padding) {
+        this.tolerance = tolerance;
+        this.maxGapX = Math.max(1, maxGapX);
+        this.maxGapY = Math.max(1, maxGapY);
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+        this.padding = padding;
+    }
+
+    /**
+     * Finds the regions drawn in the target color.
+     *
+     * @param image     The image to scan.
+     * @param targetRgb The color to look for, as 0xRRGGBB (alpha is ignored).
+     * @return Padded bounding boxes in image coordinates, clipped to the image,
+     *         in reading order.
+     */
+    public List<Rectangle> detect(BufferedImage image, int targetRgb) {
+        IntRasterView raster = IntRasterView.ofConverted(image);
+        int width = raster.width();
+        int height = raster.height();
+        int[] pixels = raster.pixels();
+        int targetR = (targetRgb >> 16) & 0xFF;
+        int targetG = (targetRgb >> 8) & 0xFF;
+        int targetB = targetRgb & 0xFF;
+        int toleranceSq = tolerance * tolerance;
+
+        // Runs in scan order; the runs of row y are [rowRuns[y] .. rowRuns[y + 1])
+        Runs runs = new Runs();
+        int[] rowRuns = new int[height + 1];
+        for (int y = 0; y < height; y++) {
+            rowRuns[y] = runs.count;
+            int rowStart = raster.rowStart(y);
+            int runStart = -1;
+            int lastMatch = Integer.MIN_VALUE;
+            for (int x = 0; x < width; x++) {
+                int rgb = pixels[rowStart + x];
+                int dr = ((rgb >> 16) & 0xFF) - targetR;
+                int dg = ((rgb >> 8) & 0xFF) - targetG;
+                int db = (rgb & 0xFF) - targetB;
+                if (dr * dr + dg * dg + db * db >= toleranceSq) {
+                    continue;
+                }
+                if (runStart >= 0 && x - lastMatch > maxGapX) {
+                    addRun(runs, y, runStart, lastMatch + 1, rowRuns);
+                    runStart = -1;
+                }
+                if (runStart < 0) {
+                    runStart = x;
+                }
+                lastMatch = x;
+            }
+            if (runStart >= 0) {
+                addRun(runs, y, runStart, lastMatch + 1, rowRuns);
+            }
+        }
+        rowRuns[height] = runs.count;
+
+        return boxes(runs, width, height);
+    }
+
+    /**
+     * Appends a run and merges it with overlapping runs on the previous
+     * {@code maxGapY} rows.
+     */
+    private void addRun(Runs runs, int y, int x0, int x1, int[] rowRuns) {
+        int run = runs.add(y, x0, x1);
+        for (int row = Math.max(0, y - maxGapY); row < y; row++) {
+            for (int other = rowRuns[row]; other < rowRuns[row + 1]; other++) {
+                if (runs.x0[other] >= x1) {
+                    break;
+                }
+                if (runs.x1[other] > x0) {
+                    runs.union(run, other);
+                }
+            }
+        }
+    }
+
+    private List<Rectangle> boxes(Runs runs, int width, int height) {
+        int[] componentOf = new int[runs.count];
+        Arrays.fill(componentOf, -1);
+        int[] minX = new int[runs.count];
+        int[] minY = new int[runs.count];
+        int[] maxX = new int[runs.count];
+        int[] maxY = new int[runs.count];
+        int components = 0;
+        for (int run = 0; run < runs.count; run++) {
+            int root = runs.find(run);
+            int c = componentOf[root];
+            if (c < 0) {
+                c = components++;
+                componentOf[root] = c;
+                minX[c] = runs.x0[run];
+                minY[c] = runs.y[run];
+                maxX[c] = runs.x1[run];
+                maxY[c] = runs.y[run] + 1;
+            } else {
+                minX[c] = Math.min(minX[c], runs.x0[run]);
+                maxX[c] = Math.max(maxX[c], runs.x1[run]);
+                maxY[c] = runs.y[run] + 1; // Runs arrive top to bottom
+            }
+        }
+
+        List<Rectangle> boxes = new ArrayList<>();
+        for (int c = 0; c < components; c++) {
+            int boxHeight = maxY[c] - minY[c];
+            if (boxHeight < minHeight || boxHeight > maxHeight || maxX[c] - minX[c] < MIN_WIDTH) {
+                continue;
+            }
+            int x0 = Math.max(0, minX[c] - padding);
+            int y0 = Math.max(0, minY[c] - padding);
+            int x1 = Math.min(width, maxX[c] + padding);
+            int y1 = Math.min(height, maxY[c] + padding);
+            boxes.add(new Rectangle(x0, y0, x1 - x0, y1 - y0));
+        }
+        return inReadingOrder(boxes);
+    }
+
+    /**
+     * Sorts boxes into lines by their centres, as {@code OcrColumns} does for
+     * words, and each line left to right. Components are numbered by their first
+     * run, so two links whose top rows differ by a pixel would otherwise come out
+     * in top-row order rather than left to right.
+     */
+    private static List<Rectangle> inReadingOrder(List<Rectangle> boxes) {
+        boxes.sort(Comparator.comparingDouble(Rectangle::getCenterY).thenComparingInt(box -> box.x));
+        int lineStart = 0;
+        while (lineStart < boxes.size()) {
+            Rectangle first = boxes.get(lineStart);
+            int lineEnd = lineStart + 1;
+            while (lineEnd < boxes.size() && boxes.get(lineEnd).getCenterY() < first.y + first.height) {
+                lineEnd++;
+            }
+            boxes.subList(lineStart, lineEnd).sort(Comparator.comparingInt(box -> box.x));
+            lineStart = lineEnd;
+        }
+        return boxes;
+    }
+
+    /**
+     * Horizontal runs of matching pixels in parallel arrays, with a union-find
+     * forest over them.
+     */
+    private static final class Runs {
+        int count;
+        int[] y = new int[256];
+        int[] x0 = new int[256];
+        int[] x1 = new int[256];
+        int[] parent = new int[256];
+
+        int add(int row, int start, int end) {
+            if (count == y.length) {
+                int capacity = count * 2;
+                y = Arrays.copyOf(y, capacity);
+                x0 = Arrays.copyOf(x0, capacity);
+                x1 = Arrays.copyOf(x1, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+            }
+            y[count] = row;
+            x0[count] = start;
+            x1[count] = end;
+            parent[count] = count;
+            return count++;
+        }
+
+        int find(int run) {
+            while (parent[run] != run) {
+                parent[run] = parent[parent[run]]; // Path halving
+                run = parent[run];
+            }
+            return run;
+        }
+
+        void union(int a, int b) {
+            int rootA = find(a);
+            int rootB = find(b);
+            // The older run becomes the root, so a component is numbered by its first run
+            if (rootA < rootB) {
+                parent[rootB] = rootA;
+            } else if (rootB < rootA) {
+                parent[rootA] = rootB;
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.org.pp.finAgent.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Writes debug screenshots to disk on a background thread so that debug output
+ * never adds latency to the capture path.
+ *
+ * Frames are queued as already-encoded PNG bytes. The queue is bounded; when it
+ * is full the oldest pending frame is dropped in favour of the newest one. After
+ * every write the folder is pruned so it never holds more than
+ * {@code maxFiles} screenshots or {@code maxBytes} in total.
+ */
+public class DebugFrameSink {
+
+    private static final Logger LOGGER = Logger.getLogger(DebugFrameSink.class.getName());
+
+    private static final Path DEFAULT_DIRECTORY = Paths.get("debug_screenshots");
+    private static final int DEFAULT_QUEUE_CAPACITY = 4;
+    private static final int DEFAULT_MAX_FILES = 200;
+    private static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+    private static final String FILE_PREFIX = "capture-";
+    private static final String FILE_SUFFIX = ".png";
+
+    private static volatile DebugFrameSink shared;
+
+    private final Path directory;
+    private final int maxFiles;
+    private final long maxBytes;
+    private final BlockingQueue<PendingFrame> queue;
+    // Frames captured in the same millisecond would otherwise share a file name
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong pruned = new AtomicLong();
+
+    private record PendingFrame(String fileName, byte[] png) {
+    }
+
+    public DebugFrameSink(Path directory, int queueCapacity, int maxFiles, long maxBytes) {
+        this.directory = directory;
+        this.maxFiles = maxFiles;
+        this.maxBytes = maxBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Thread writer = new Thread(this::drainLoop, "debug-frame-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the process-wide sink writing to the 'debug_screenshots' folder.
+     */
+    public static DebugFrameSink shared() {
+        DebugFrameSink sink = shared;
+        if (sink == null) {
+            synchronized (DebugFrameSink.class) {
+                sink = shared;
+                if (sink == null) {
+                    sink = new DebugFrameSink(DEFAULT_DIRECTORY, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_FILES,
+                            DEFAULT_MAX_BYTES);
+                    shared = sink;
+                }
+            }
+        }
+        return sink;
+    }
+
+    /**
+     * Queues an encoded PNG for writing and returns immediately. The byte array is
+     * written as-is, so callers must not modify it afterwards.
+     *
+     * @param png The PNG-encoded frame.
+     */
+    public void submit(byte[] png) {
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        String fileName = String.format("%s%s-%06d%s", FILE_PREFIX, timestamp, sequence.incrementAndGet(),
+                FILE_SUFFIX);
+        PendingFrame frame = new PendingFrame(fileName, png);
+        // Drop-oldest: make room for the newest frame rather than blocking the caller
+        while (!queue.offer(frame)) {
+            if (queue.poll() != null) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getPrunedCount() {
+        return pruned.get();
+    }
+
+    private void drainLoop() {
+        while (true) {
+            try {
+                PendingFrame frame = queue.take();
+                write(frame);
+                enforceRetention();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to write debug screenshot.", e);
+            }
+        }
+    }
+
+    private void write(PendingFrame frame) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(frame.fileName());
+        Files.write(target, frame.png());
+        written.incrementAndGet();
+        LOGGER.fine("Debug screenshot saved to: " + target.toAbsolutePath());
+    }
+
+    /**
+     * Deletes the oldest screenshots until both the file-count and total-size
+     * limits are met. File names are a timestamp followed by a sequence number,
+     * so name order is age order.
+     */
+    private void enforceRetention() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = new ArrayList<>(listing
+                    .filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+                    })
+                    .sorted(Comparator.comparing(p -> p.getFileName().toString()))
+                    .toList());
+        }
+
+        long totalBytes = 0;
+        long[] sizes = new long[files.size()];
+        for (int i = 0; i < files.size(); i++) {
+            sizes[i] = Files.size(files.get(i));
+            totalBytes += sizes[i];
+        }
+
+        int remaining = files.size();
+        for (int i = 0; i < files.size() && (remaining > maxFiles || totalBytes > maxBytes); i++) {
+            if (Files.deleteIfExists(files.get(i))) {
+                pruned.incrementAndGet();
+            }
+            totalBytes -= sizes[i];
+            remaining--;
+        }
+    }
+}
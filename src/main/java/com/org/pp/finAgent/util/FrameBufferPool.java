@@ -0,0 +1,70 @@
+package com.org.pp.finAgent.util;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small pool of pre-sized {@code TYPE_INT_RGB} frame buffers. A full 4K frame is
+ * about 33 MB of int raster, so recycling a handful of buffers keeps busy capture
+ * loops from churning the young generation.
+ */
+public class FrameBufferPool {
+
+    private final int capacity;
+    private final Deque<BufferedImage> free = new ArrayDeque<>();
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong reuses = new AtomicLong();
+
+    public FrameBufferPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns a pooled buffer of exactly the given size, or allocates a new one if
+     * none is free. The contents of a reused buffer are stale and must be
+     * overwritten by the caller.
+     */
+    public synchronized BufferedImage acquire(int width, int height) {
+        Iterator<BufferedImage> it = free.iterator();
+        while (it.hasNext()) {
+            BufferedImage candidate = it.next();
+            if (candidate.getWidth() == width && candidate.getHeight() == height) {
+                it.remove();
+                reuses.incrementAndGet();
+                return candidate;
+            }
+        }
+        allocations.incrementAndGet();
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Returns a buffer to the pool. When the pool is full the least recently
+     * released buffer is discarded.
+     */
+    public synchronized void release(BufferedImage buffer) {
+        if (buffer == null || buffer.getType() != BufferedImage.TYPE_INT_RGB) {
+            return;
+        }
+        for (BufferedImage pooled : free) {
+            if (pooled == buffer) {
+                return; // Already released
+            }
+        }
+        if (free.size() >= capacity) {
+            free.removeLast();
+        }
+        free.addFirst(buffer);
+    }
+
+    public long getAllocationCount() {
+        return allocations.get();
+    }
+
+    public long getReuseCount() {
+        return reuses.get();
+    }
+}
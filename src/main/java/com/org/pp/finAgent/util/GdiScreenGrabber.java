@@ -0,0 +1,166 @@
+package com.org.pp.finAgent.util;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.GDI32;
+import com.sun.jna.platform.win32.User32;
+import com.sun.jna.platform.win32.WinDef.HBITMAP;
+import com.sun.jna.platform.win32.WinDef.HDC;
+import com.sun.jna.platform.win32.WinGDI;
+import com.sun.jna.platform.win32.WinNT.HANDLE;
+import com.sun.jna.ptr.PointerByReference;
+import com.sun.jna.win32.StdCallLibrary;
+import com.sun.jna.win32.W32APIOptions;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Windows-only screen grabber that copies the desktop into a reused DIB section
+ * with GDI BitBlt and then straight into a caller-supplied int raster.
+ *
+ * Unlike {@link java.awt.Robot#createScreenCapture}, which allocates a new int[]
+ * for every call, this keeps the native bitmap alive between captures so a
+ * steady-state capture allocates nothing on the Java heap.
+ *
+ * The JDK is DPI-aware, so the screen DC works in physical pixels while capture
+ * regions (like everything else in AWT) are in logical pixels. Regions are
+ * scaled by the ratio of the desktop's physical resolution to its logical size
+ * and, when scaling is active, halftone-stretched down into a bitmap of the
+ * logical size, so frames line up with screen coordinates for clicking just as
+ * Robot captures do. The ratio is the primary monitor's; on setups mixing
+ * scale factors across monitors, regions on the others may be slightly off.
+ */
+class GdiScreenGrabber {
+
+    // GetDeviceCaps indexes missing from JNA's WinGDI
+    private static final int DESKTOPVERTRES = 117;
+    private static final int DESKTOPHORZRES = 118;
+    private static final int HALFTONE = 4;
+
+    /**
+     * The GDI calls JNA's GDI32 does not map.
+     */
+    private interface Gdi32Scaling extends StdCallLibrary {
+        Gdi32Scaling INSTANCE = Native.load("gdi32", Gdi32Scaling.class, W32APIOptions.DEFAULT_OPTIONS);
+
+        int SetStretchBltMode(HDC hdc, int mode);
+
+        boolean StretchBlt(HDC dest, int destX, int destY, int destWidth, int destHeight,
+                HDC source, int sourceX, int sourceY, int sourceWidth, int sourceHeight, int rop);
+    }
+
+    private HDC memoryDC;
+    private HBITMAP bitmap;
+    private HANDLE previousObject;
+    private Pointer bits;
+    private int width;
+    private int height;
+
+    static boolean isSupported() {
+        return System.getProperty("os.name").toLowerCase().contains("win");
+    }
+
+    /**
+     * Copies the given screen area into the target image, shrinking it if the
+     * target is smaller than the area.
+     *
+     * @param area   The screen rectangle to capture, in logical pixels.
+     * @param target A {@code TYPE_INT_RGB} image of the area's size, or smaller
+     *               for a reduced capture.
+     */
+    synchronized void grab(Rectangle area, BufferedImage target) {
+        int targetWidth = target.getWidth();
+        int targetHeight = target.getHeight();
+        ensureBitmap(targetWidth, targetHeight);
+
+        HDC screenDC = User32.INSTANCE.GetDC(null);
+        try {
+            Dimension logical = Toolkit.getDefaultToolkit().getScreenSize();
+            double scaleX = scale(GDI32.INSTANCE.GetDeviceCaps(screenDC, DESKTOPHORZRES), logical.width);
+            double scaleY = scale(GDI32.INSTANCE.GetDeviceCaps(screenDC, DESKTOPVERTRES), logical.height);
+            int sourceX = (int) Math.round(area.x * scaleX);
+            int sourceY = (int) Math.round(area.y * scaleY);
+            int sourceWidth = (int) Math.round(area.width * scaleX);
+            int sourceHeight = (int) Math.round(area.height * scaleY);
+
+            boolean copied;
+            if (sourceWidth == targetWidth && sourceHeight == targetHeight) {
+                copied = GDI32.INSTANCE.BitBlt(memoryDC, 0, 0, targetWidth, targetHeight,
+                        screenDC, sourceX, sourceY, GDI32.SRCCOPY);
+            } else {
+                // Halftone averages the source pixels, which keeps small text legible for OCR
+                Gdi32Scaling.INSTANCE.SetStretchBltMode(memoryDC, HALFTONE);
+                copied = Gdi32Scaling.INSTANCE.StretchBlt(memoryDC, 0, 0, targetWidth, targetHeight,
+                        screenDC, sourceX, sourceY, sourceWidth, sourceHeight, GDI32.SRCCOPY);
+            }
+            if (!copied) {
+                throw new IllegalStateException("Copying the screen into the capture bitmap failed.");
+            }
+        } finally {
+            User32.INSTANCE.ReleaseDC(null, screenDC);
+        }
+
+        // 32bpp BI_RGB pixels are stored as B,G,R,X bytes, which read back as 0xXXRRGGBB ints
+        int[] raster = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+        bits.read(0, raster, 0, targetWidth * targetHeight);
+    }
+
+    /**
+     * Physical pixels per logical pixel, or 1 if the device does not report its
+     * physical resolution.
+     */
+    private static double scale(int physical, int logical) {
+        return physical > 0 && logical > 0 ? (double) physical / logical : 1.0;
+    }
+
+    private void ensureBitmap(int newWidth, int newHeight) {
+        if (bitmap != null && width == newWidth && height == newHeight) {
+            return;
+        }
+        dispose();
+
+        HDC screenDC = User32.INSTANCE.GetDC(null);
+        try {
+            memoryDC = GDI32.INSTANCE.CreateCompatibleDC(screenDC);
+
+            WinGDI.BITMAPINFO info = new WinGDI.BITMAPINFO();
+            info.bmiHeader.biWidth = newWidth;
+            info.bmiHeader.biHeight = -newHeight; // Negative height = top-down rows, matching BufferedImage
+            info.bmiHeader.biPlanes = 1;
+            info.bmiHeader.biBitCount = 32;
+            info.bmiHeader.biCompression = WinGDI.BI_RGB;
+
+            PointerByReference bitsRef = new PointerByReference();
+            bitmap = GDI32.INSTANCE.CreateDIBSection(screenDC, info, WinGDI.DIB_RGB_COLORS, bitsRef, null, 0);
+            if (bitmap == null) {
+                throw new IllegalStateException("CreateDIBSection failed for " + newWidth + "x" + newHeight);
+            }
+            bits = bitsRef.getValue();
+            previousObject = GDI32.INSTANCE.SelectObject(memoryDC, bitmap);
+            width = newWidth;
+            height = newHeight;
+        } finally {
+            User32.INSTANCE.ReleaseDC(null, screenDC);
+        }
+    }
+
+    synchronized void dispose() {
+        if (memoryDC != null) {
+            if (previousObject != null) {
+                GDI32.INSTANCE.SelectObject(memoryDC, previousObject);
+            }
+            GDI32.INSTANCE.DeleteDC(memoryDC);
+        }
+        if (bitmap != null) {
+            GDI32.INSTANCE.DeleteObject(bitmap);
+        }
+        memoryDC = null;
+        bitmap = null;
+        previousObject = null;
+        bits = null;
+    }
+}
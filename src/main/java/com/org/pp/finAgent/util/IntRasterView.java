@@ -0,0 +1,66 @@
+package com.org.pp.finAgent.util;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+/**
+ * Direct, copy-free access to the packed int pixels behind a {@code TYPE_INT_RGB}
+ * or {@code TYPE_INT_ARGB} image, including sub-images that share their parent's
+ * raster. Pixel (x, y) lives at {@code pixels[offset + y * stride + x]}.
+ *
+ * @param pixels The backing int array (shared, not copied).
+ * @param offset Index of pixel (0, 0).
+ * @param stride Number of ints between the starts of two rows.
+ * @param width  Image width.
+ * @param height Image height.
+ */
+public record IntRasterView(int[] pixels, int offset, int stride, int width, int height) {
+
+    /**
+     * Returns a view over the image's pixels, or null if the image is not backed by
+     * a single-pixel-packed int raster.
+     */
+    public static IntRasterView of(BufferedImage image) {
+        Raster raster = image.getRaster();
+        if (!(raster.getDataBuffer() instanceof DataBufferInt dataBuffer)
+                || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel sampleModel)) {
+            return null;
+        }
+        int stride = sampleModel.getScanlineStride();
+        // Sub-images share the parent's buffer and shift their origin via the translate values
+        int offset = dataBuffer.getOffset()
+                - raster.getSampleModelTranslateY() * stride
+                - raster.getSampleModelTranslateX();
+        return new IntRasterView(dataBuffer.getData(), offset, stride, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Returns a view over the image's pixels, converting the image to
+     * {@code TYPE_INT_RGB} first if it is not int-packed.
+     */
+    public static IntRasterView ofConverted(BufferedImage image) {
+        IntRasterView view = of(image);
+        if (view != null) {
+            return view;
+        }
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = converted.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return of(converted);
+    }
+
+    public int rgb(int x, int y) {
+        return pixels[offset + y * stride + x];
+    }
+
+    public int rowStart(int y) {
+        return offset + y * stride;
+    }
+}
@@ -0,0 +1,48 @@
+package com.org.pp.finAgent.util;
+
+import java.awt.AWTException;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.Robot;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out one shared {@link Robot} per display. Creating a Robot is expensive
+ * (it opens a native peer), so capture and input code reuse the same instance
+ * instead of building a new one per call.
+ */
+public final class RobotProvider {
+
+    private static final Map<String, Robot> ROBOTS = new ConcurrentHashMap<>();
+
+    private RobotProvider() {
+    }
+
+    /**
+     * Returns the cached Robot for the primary display, creating it on first use.
+     */
+    public static Robot forDefaultScreen() throws AWTException {
+        return forDevice(GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice());
+    }
+
+    /**
+     * Returns the cached Robot for the given display, creating it on first use.
+     *
+     * @param device The display the Robot should be bound to.
+     */
+    public static Robot forDevice(GraphicsDevice device) throws AWTException {
+        Robot robot = ROBOTS.get(device.getIDstring());
+        if (robot != null) {
+            return robot;
+        }
+        synchronized (ROBOTS) {
+            robot = ROBOTS.get(device.getIDstring());
+            if (robot == null) {
+                robot = new Robot(device);
+                ROBOTS.put(device.getIDstring(), robot);
+            }
+            return robot;
+        }
+    }
+}
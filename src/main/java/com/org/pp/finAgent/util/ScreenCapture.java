@@ -1,54 +1,179 @@
 package com.org.pp.finAgent.util;
 
 import java.awt.AWTException;
+import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.awt.Robot;
+import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import javax.imageio.ImageIO;
 
 public class ScreenCapture {
 
+    private static final FrameBufferPool FRAME_POOL = new FrameBufferPool(3);
+    // Reduced frames for change detection, kept apart so they never evict full-size buffers
+    private static final FrameBufferPool REDUCED_POOL = new FrameBufferPool(2);
+    private static final CaptureMetrics METRICS = new CaptureMetrics();
+    private static final GdiScreenGrabber GDI_GRABBER = GdiScreenGrabber.isSupported() ? new GdiScreenGrabber() : null;
+
     /**
-     * Captures the entire screen, saves a timestamped debug copy to the 'debug_screenshots' folder,
-     * and returns the image as a raw byte array (PNG format).
+     * Captures the entire screen and returns the image as a raw byte array (PNG format).
+     * The same encoded bytes are handed to the {@link DebugFrameSink}, which writes a
+     * timestamped copy to the 'debug_screenshots' folder in the background.
      *
      * @return A byte array containing the raw PNG image data of the screen capture.
+     *         The array is shared with the debug writer and must not be modified.
      * @throws AWTException     if the platform configuration does not allow low-level input control.
-     * @throws IOException      if an error occurs during writing the image.
+     * @throws IOException      if an error occurs during encoding the image.
      * @throws RuntimeException if screen access is denied (e.g., on macOS without permissions).
      */
     public static byte[] captureAsBytes() throws AWTException, IOException {
         // 1. Get the captured image from the helper method
         BufferedImage capture = performScreenCapture();
 
-        // 2. Save a debug copy with a unique timestamp
-        String timestamp = new java.text.SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new java.util.Date());
-        File debugFile = new File("debug_screenshots/capture-" + timestamp + ".png");
-        debugFile.getParentFile().mkdirs(); // Ensure the directory exists
-        ImageIO.write(capture, "png", debugFile);
-        System.out.println("Debug screenshot saved to: " + debugFile.getAbsolutePath());
-
-        // 3. Convert the same image to a byte array and return it
+        // 2. Encode once; the same bytes serve both the caller and the debug copy
+        byte[] png;
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             ImageIO.write(capture, "png", baos);
-            return baos.toByteArray();
+            png = baos.toByteArray();
         }
+
+        // 3. Queue the debug copy without waiting for the disk write
+        DebugFrameSink.shared().submit(png);
+        return png;
     }
 
     /**
      * Private helper to perform the actual screen capture and handle errors.
-     * This avoids code duplication in the public methods.
+     * This avoids code duplication in the public methods. The returned image is
+     * freshly allocated and not pooled.
      */
     public static BufferedImage performScreenCapture() throws AWTException, IOException {
+        return RobotProvider.forDefaultScreen().createScreenCapture(screenBounds());
+    }
+
+    /**
+     * Captures the entire screen and returns it as an in-memory frame. This is the
+     * preferred entry point for OCR: the raster is passed straight to the caller
+     * with no PNG encode/decode and no temporary file.
+     *
+     * @return The captured frame and the screen rectangle it covers.
+     */
+    public static CapturedFrame captureFrame() throws AWTException, IOException {
+        return captureFrame(CaptureRegion.fullScreen());
+    }
+
+    /**
+     * Captures only the given region of the screen. The frame's bounds record where
+     * the region sits on screen, so image coordinates can be translated back to
+     * screen coordinates for clicking.
+     *
+     * On Windows the pixels are copied into a pooled buffer via GDI, so the frame
+     * must be closed to recycle it. Elsewhere the frame wraps the Robot capture,
+     * which allocates a new raster every time; {@link #metrics()} counts those
+     * captures as unpooled.
+     *
+     * @param region The part of the screen to capture.
+     * @return The captured frame and the screen rectangle it covers.
+     */
+    public static CapturedFrame captureFrame(CaptureRegion region) throws AWTException, IOException {
+        long allocatedBefore = CaptureMetrics.currentThreadAllocatedBytes();
+        long capturedAt = System.nanoTime();
+        Rectangle captureRect = region.resolve(screenBounds());
+
+        CapturedFrame frame;
+        if (GDI_GRABBER != null) {
+            BufferedImage buffer = FRAME_POOL.acquire(captureRect.width, captureRect.height);
+            GDI_GRABBER.grab(captureRect, buffer);
+            frame = new CapturedFrame(buffer, captureRect, capturedAt, FRAME_POOL);
+        } else {
+            BufferedImage image = RobotProvider.forDefaultScreen().createScreenCapture(captureRect);
+            frame = new CapturedFrame(image, captureRect, capturedAt);
+        }
+
+        METRICS.recordCapture(allocatedBefore, CaptureMetrics.currentThreadAllocatedBytes(), frame.pool() != null);
+        return frame;
+    }
+
+    /**
+     * Resolves a region to its current screen rectangle once, for callers that
+     * capture the same place many times in a row. Regions that follow a window
+     * look it up on every capture, which on macOS means running osascript.
+     *
+     * @param region The part of the screen to pin.
+     * @return A region fixed at where the given one is now.
+     */
+    public static CaptureRegion pin(CaptureRegion region) {
+        return CaptureRegion.of(region.resolve(screenBounds()));
+    }
+
+    /**
+     * Captures a region shrunk by the given factor, for callers that only look
+     * for changes (see {@link ScreenSettleDetector}). On Windows the shrinking
+     * happens during the GDI copy, so the full-size raster is never built.
+     * Elsewhere the Robot capture is scaled down into a pooled buffer.
+     *
+     * The frame's bounds are the captured screen rectangle but its image is
+     * smaller, so {@link CapturedFrame#toScreen(Rectangle)} does not apply.
+     *
+     * @param region  The part of the screen to capture.
+     * @param divisor How many screen pixels, in each direction, map to one image
+     *                pixel.
+     */
+    static CapturedFrame captureReducedFrame(CaptureRegion region, int divisor) throws AWTException {
+        long allocatedBefore = CaptureMetrics.currentThreadAllocatedBytes();
+        long capturedAt = System.nanoTime();
+        Rectangle captureRect = region.resolve(screenBounds());
+        int width = Math.max(1, captureRect.width / divisor);
+        int height = Math.max(1, captureRect.height / divisor);
+
+        BufferedImage reduced = REDUCED_POOL.acquire(width, height);
+        if (GDI_GRABBER != null) {
+            GDI_GRABBER.grab(captureRect, reduced);
+        } else {
+            BufferedImage image = RobotProvider.forDefaultScreen().createScreenCapture(captureRect);
+            Graphics2D g = reduced.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+        }
+        CapturedFrame frame = new CapturedFrame(reduced, captureRect, capturedAt, REDUCED_POOL);
+
+        METRICS.recordCapture(allocatedBefore, CaptureMetrics.currentThreadAllocatedBytes(), GDI_GRABBER != null);
+        return frame;
+    }
+
+    /**
+     * Captures the entire screen and writes it as a PNG to the given path. Only use
+     * this when a file is explicitly needed (e.g. for debugging or sharing); the
+     * caller is responsible for deleting the file.
+     *
+     * @param target The file to write.
+     * @return The absolute path of the written file.
+     */
+    public static String captureToFile(Path target) throws IOException, AWTException {
+        try (CapturedFrame frame = captureFrame()) {
+            return frame.writePng(target).toString();
+        }
+    }
+
+    /**
+     * Returns the current capture, buffer-pool and GC counters. The buffer counts
+     * cover both the full-size frames and the reduced change-detection frames.
+     */
+    public static CaptureMetrics.Snapshot metrics() {
+        return METRICS.snapshot(FRAME_POOL, REDUCED_POOL);
+    }
+
+    private static Rectangle screenBounds() {
         try {
-            Rectangle screenRect = new Rectangle(Toolkit.getDefaultToolkit().getScreenSize());
-            return new Robot().createScreenCapture(screenRect);
+            return new Rectangle(Toolkit.getDefaultToolkit().getScreenSize());
         } catch (NullPointerException e) {
             // This handles the common macOS permission issue gracefully by providing a clear error
             throw new RuntimeException(
@@ -57,22 +182,4 @@ public class ScreenCapture {
                             "System Settings > Privacy & Security > Screen Recording", e);
         }
     }
-
-    public static String captureToFile() throws IOException, AWTException {
-        // 1. Perform the screen capture using the helper method to avoid duplicating code.
-        BufferedImage screenCapture = performScreenCapture();
-
-        // 2. Create a temporary file with a random name in the system's temp directory.
-        //    This is the standard, safe way to handle temporary files.
-        Path tempFile = Files.createTempFile("finagent_capture_", ".png");
-
-        // 3. Ensure the file is automatically deleted when the application exits.
-        tempFile.toFile().deleteOnExit();
-
-        // 4. Write the captured image to the temporary file.
-        ImageIO.write(screenCapture, "png", tempFile.toFile());
-
-        // 5. Return the absolute path of the created file.
-        return tempFile.toFile().getAbsolutePath();
-    }
-}
\ No newline at end of file
+}
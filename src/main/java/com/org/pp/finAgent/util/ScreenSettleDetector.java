@@ -0,0 +1,249 @@
+package com.org.pp.finAgent.util;
+
+import java.awt.image.BufferedImage;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Waits until the screen stops changing instead of sleeping for a fixed time.
+ *
+ * The screen is sampled every {@code pollIntervalMillis} as a frame captured at a
+ * quarter of the screen resolution ({@link ScreenCapture#captureReducedFrame});
+ * each sample is reduced to a small grid of tile hashes computed over a sparse
+ * pixel lattice. Once no
+ * more than {@link #NOISY_TILE_ALLOWANCE} tiles have changed for
+ * {@code quietPeriodMillis} (so a blinking caret does not count as activity) the
+ * screen is considered settled.
+ *
+ * Only on Windows is the sample shrunk while it is copied off the screen.
+ * Elsewhere Robot can only capture at full resolution, so every poll still
+ * copies the whole region (about 8 MB for a 1080p screen) before scaling it
+ * down, and shows up as an unpooled capture in {@link ScreenCapture#metrics()}.
+ * On those platforms watch a narrow region, such as the tab strip, or poll less
+ * often where that is good enough.
+ */
+public class ScreenSettleDetector {
+
+    private static final Logger LOGGER = Logger.getLogger(ScreenSettleDetector.class.getName());
+
+    private static final int GRID_COLUMNS = 16;
+    private static final int GRID_ROWS = 9;
+    private static final int SAMPLE_DIVISOR = 4; // Sample frames at a quarter of the screen resolution
+    private static final int SAMPLE_STEP = 2; // Hash every 2nd pixel of the reduced frame in each direction
+    private static final int NOISY_TILE_ALLOWANCE = 2;
+
+    private static final long DEFAULT_POLL_INTERVAL_MILLIS = 50;
+    private static final long DEFAULT_QUIET_PERIOD_MILLIS = 250;
+    private static final long DEFAULT_MAX_WAIT_MILLIS = 3000;
+
+    private final CaptureRegion region;
+    private final long pollIntervalMillis;
+    private final long quietPeriodMillis;
+    private final long defaultMaxWaitMillis;
+
+    /**
+     * The outcome of a wait.
+     *
+     * @param settled       True if the screen went quiet before the timeout.
+     * @param changed       True if the screen changed at all during the wait.
+     * @param elapsedMillis How long the wait actually took.
+     * @param samples       Number of frames sampled.
+     */
+    public record SettleResult(boolean settled, boolean changed, long elapsedMillis, int samples) {
+
+        /**
+         * A short human-readable summary suitable for tool responses.
+         */
+        public String describe() {
+            if (settled) {
+                return "screen settled in " + elapsedMillis + " ms";
+            }
+            return changed
+                    ? "screen still changing after " + elapsedMillis + " ms"
+                    : "screen unchanged after " + elapsedMillis + " ms";
+        }
+    }
+
+    public ScreenSettleDetector() {
+        this(DEFAULT_POLL_INTERVAL_MILLIS, DEFAULT_QUIET_PERIOD_MILLIS, DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    public ScreenSettleDetector(long pollIntervalMillis, long quietPeriodMillis, long defaultMaxWaitMillis) {
+        this(CaptureRegion.fullScreen(), pollIntervalMillis, quietPeriodMillis, defaultMaxWaitMillis);
+    }
+
+    /**
+     * A detector that watches only part of the screen, e.g. the browser's tab
+     * strip, so changes elsewhere do not count.
+     */
+    public ScreenSettleDetector(CaptureRegion region, long pollIntervalMillis, long quietPeriodMillis,
+            long defaultMaxWaitMillis) {
+        this.region = region;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.defaultMaxWaitMillis = defaultMaxWaitMillis;
+    }
+
+    /**
+     * Waits until the screen has been stable for the quiet period, or the default
+     * timeout elapses.
+     */
+    public SettleResult waitForStableScreen() {
+        return waitForStableScreen(defaultMaxWaitMillis);
+    }
+
+    /**
+     * Waits until the screen has been stable for the quiet period, or the given
+     * timeout elapses.
+     *
+     * @param maxWaitMillis The longest time to wait.
+     */
+    public SettleResult waitForStableScreen(long maxWaitMillis) {
+        return await(maxWaitMillis, false, null);
+    }
+
+    /**
+     * Waits for the screen to change at least once and then settle. Use this after
+     * actions whose effect appears with a delay (e.g. launching an application),
+     * where an unchanged screen means "not yet" rather than "done".
+     *
+     * @param maxWaitMillis The longest time to wait.
+     */
+    public SettleResult waitForChangeThenStable(long maxWaitMillis) {
+        return await(maxWaitMillis, true, null);
+    }
+
+    /**
+     * Samples the watched region now, as the baseline for
+     * {@link #waitForChangeSince(long[], long)}.
+     *
+     * @return The sample, or null if the screen could not be captured.
+     */
+    public long[] sampleNow() {
+        try {
+            return sample();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Screen sampling failed.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Like {@link #waitForChangeThenStable(long)}, but measured against a sample
+     * taken before the action, so a change that happened before this call (e.g.
+     * while a batch of clicks was being sent) still counts.
+     *
+     * @param baseline      A sample from {@link #sampleNow()}; if null, behaves
+     *                      like {@link #waitForChangeThenStable(long)}.
+     * @param maxWaitMillis The longest time to wait.
+     */
+    public SettleResult waitForChangeSince(long[] baseline, long maxWaitMillis) {
+        return waitForChangeSince(baseline, maxWaitMillis, maxWaitMillis);
+    }
+
+    /**
+     * Like {@link #waitForChangeSince(long[], long)}, but gives up early if the
+     * screen has not changed at all within {@code changeTimeoutMillis}. Use this
+     * after actions that usually repaint the screen but may legitimately not
+     * (e.g. a key press the focused application ignores).
+     *
+     * @param baseline            A sample from {@link #sampleNow()}.
+     * @param changeTimeoutMillis How long to wait for the first change.
+     * @param maxWaitMillis       The longest time to wait in total.
+     */
+    public SettleResult waitForChangeSince(long[] baseline, long changeTimeoutMillis, long maxWaitMillis) {
+        return await(maxWaitMillis, true, baseline, changeTimeoutMillis);
+    }
+
+    private SettleResult await(long maxWaitMillis, boolean requireChange, long[] baseline) {
+        return await(maxWaitMillis, requireChange, baseline, maxWaitMillis);
+    }
+
+    private SettleResult await(long maxWaitMillis, boolean requireChange, long[] baseline,
+            long changeTimeoutMillis) {
+        long start = System.currentTimeMillis();
+        int samples = 0;
+        boolean changed = false;
+        try {
+            long[] previous = baseline;
+            if (previous == null) {
+                previous = sample();
+                samples++;
+            }
+            long lastChange = start;
+
+            while (true) {
+                Thread.sleep(pollIntervalMillis);
+                long[] current = sample();
+                samples++;
+                long now = System.currentTimeMillis();
+
+                if (changedTiles(previous, current) > NOISY_TILE_ALLOWANCE) {
+                    lastChange = now;
+                    changed = true;
+                }
+                previous = current;
+
+                if ((changed || !requireChange) && now - lastChange >= quietPeriodMillis) {
+                    return new SettleResult(true, changed, now - start, samples);
+                }
+                if (now - start >= maxWaitMillis || (!changed && now - start >= changeTimeoutMillis)) {
+                    return new SettleResult(false, changed, now - start, samples);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Capture failed (e.g. missing permissions); fall back to a plain sleep
+            LOGGER.log(Level.WARNING, "Screen sampling failed; falling back to a fixed wait.", e);
+            sleepQuietly(Math.max(0, Math.min(maxWaitMillis, 1000) - (System.currentTimeMillis() - start)));
+        }
+        return new SettleResult(false, changed, System.currentTimeMillis() - start, samples);
+    }
+
+    private long[] sample() throws Exception {
+        try (CapturedFrame frame = ScreenCapture.captureReducedFrame(region, SAMPLE_DIVISOR)) {
+            return tileHashes(frame.image());
+        }
+    }
+
+    /**
+     * Hashes a sparse lattice of pixels in each grid tile of the image.
+     */
+    static long[] tileHashes(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long[] hashes = new long[GRID_COLUMNS * GRID_ROWS];
+
+        IntRasterView raster = IntRasterView.of(image);
+
+        for (int y = 0; y < height; y += SAMPLE_STEP) {
+            int row = Math.min(GRID_ROWS - 1, y * GRID_ROWS / height);
+            for (int x = 0; x < width; x += SAMPLE_STEP) {
+                int column = Math.min(GRID_COLUMNS - 1, x * GRID_COLUMNS / width);
+                int rgb = raster != null ? raster.rgb(x, y) : image.getRGB(x, y);
+                int tile = row * GRID_COLUMNS + column;
+                hashes[tile] = hashes[tile] * 31 + (rgb & 0xFFFFFF);
+            }
+        }
+        return hashes;
+    }
+
+    private static int changedTiles(long[] previous, long[] current) {
+        int changed = 0;
+        for (int i = 0; i < previous.length; i++) {
+            if (previous[i] != current[i]) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
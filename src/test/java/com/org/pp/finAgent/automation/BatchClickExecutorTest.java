@@ -0,0 +1,97 @@
+package com.org.pp.finAgent.automation;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchClickExecutorTest {
+
+    private static List<Point> randomPoints(Random random, int count) {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            points.add(new Point(random.nextInt(1920), random.nextInt(1080)));
+        }
+        return points;
+    }
+
+    private static double travel(List<Point> targets, int[] order, Point start) {
+        double total = 0;
+        Point current = start;
+        for (int index : order) {
+            total += current.distance(targets.get(index));
+            current = targets.get(index);
+        }
+        return total;
+    }
+
+    private static void assertPermutation(int[] order, int size) {
+        assertEquals(size, order.length);
+        boolean[] seen = new boolean[size];
+        for (int index : order) {
+            assertFalse(seen[index], "target clicked twice: " + index);
+            seen[index] = true;
+        }
+    }
+
+    @Test
+    void handlesNoTargetsAndOneTarget() {
+        assertArrayEquals(new int[0], BatchClickExecutor.order(List.of(), new Point(0, 0)));
+        assertArrayEquals(new int[] { 0 }, BatchClickExecutor.order(List.of(new Point(5, 5)), new Point(0, 0)));
+    }
+
+    @Test
+    void visitsAColumnOfResultsTopToBottom() {
+        List<Point> targets = List.of(new Point(200, 300), new Point(200, 100), new Point(200, 400),
+                new Point(200, 200));
+
+        assertArrayEquals(new int[] { 1, 3, 0, 2 }, BatchClickExecutor.order(targets, new Point(200, 0)));
+    }
+
+    @Test
+    void reversesAStretchThatNearestNeighbourGetsWrong() {
+        // Nearest neighbour goes 1 -> -2 -> 4 (10 px); going left first is 8 px
+        List<Point> targets = List.of(new Point(1, 0), new Point(-2, 0), new Point(4, 0));
+
+        assertArrayEquals(new int[] { 1, 0, 2 }, BatchClickExecutor.order(targets, new Point(0, 0)));
+    }
+
+    @Test
+    void leavesNoTwoOptMoveThatShortensThePath() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            List<Point> targets = randomPoints(random, 2 + random.nextInt(12));
+            Point start = new Point(random.nextInt(1920), random.nextInt(1080));
+            int[] order = BatchClickExecutor.order(targets, start);
+            assertPermutation(order, targets.size());
+
+            double length = travel(targets, order, start);
+            for (int i = 0; i < order.length - 1; i++) {
+                for (int j = i + 1; j < order.length; j++) {
+                    int[] reversed = order.clone();
+                    for (int a = i, b = j; a < b; a++, b--) {
+                        int tmp = reversed[a];
+                        reversed[a] = reversed[b];
+                        reversed[b] = tmp;
+                    }
+                    assertTrue(travel(targets, reversed, start) >= length - 1e-6,
+                            "round " + round + ": reversing " + i + ".." + j + " is shorter");
+                }
+            }
+        }
+    }
+
+    @Test
+    void keepsEveryTargetBeyondTheImprovementLimit() {
+        List<Point> targets = randomPoints(new Random(3), 300);
+
+        assertPermutation(BatchClickExecutor.order(targets, new Point(0, 0)), targets.size());
+    }
+}
@@ -0,0 +1,321 @@
+package com.org.pp.finAgent.automation;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumDescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumValueDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.OneofDescriptorProto;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.DescriptorValidationException;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.awt.event.KeyEvent;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputCommandCodecTest {
+
+    private static final String PACKAGE = "finagent.input";
+
+    private static final List<InputCommand> COMMANDS = List.of(
+            new InputCommand.MoveMouse(0, 0),
+            new InputCommand.MoveMouse(-120, 2160),
+            InputCommand.click(640, 480),
+            InputCommand.modifierClick(12, 34),
+            new InputCommand.Click(-5, 7, MouseButton.RIGHT, 2, false),
+            new InputCommand.Click(300, 200, MouseButton.MIDDLE, 3, true),
+            new InputCommand.Scroll(-3),
+            new InputCommand.Scroll(5),
+            new InputCommand.TypeText("Bajaj Finance share price", KeyboardMovement.TypingStrategy.KEYSTROKES),
+            new InputCommand.TypeText("Grüße ✓", KeyboardMovement.TypingStrategy.CLIPBOARD_PASTE),
+            new InputCommand.PressKey(KeyEvent.VK_ENTER),
+            new InputCommand.PressKeyCombination(List.of(KeyEvent.VK_CONTROL, KeyEvent.VK_SHIFT, KeyEvent.VK_N)),
+            new InputCommand.PressKeyCombination(List.of(KeyEvent.VK_META, 0xFFFF)));
+
+    private static FileDescriptor schema;
+
+    @BeforeAll
+    static void loadSchema() throws IOException, DescriptorValidationException {
+        schema = parseSchema(readSchema());
+    }
+
+    @Test
+    void roundTripsEveryCommandType() throws InvalidProtocolBufferException {
+        Set<Class<?>> types = new HashSet<>();
+        for (InputCommand command : COMMANDS) {
+            assertEquals(command, InputCommandCodec.decode(InputCommandCodec.encode(command)));
+            types.add(command.getClass());
+        }
+        assertEquals(InputCommand.class.getPermittedSubclasses().length, types.size());
+    }
+
+    @Test
+    void roundTripsBatches() throws InvalidProtocolBufferException {
+        assertEquals(COMMANDS, InputCommandCodec.decodeBatch(InputCommandCodec.encodeBatch(COMMANDS)));
+        assertEquals(List.of(), InputCommandCodec.decodeBatch(InputCommandCodec.encodeBatch(List.of())));
+    }
+
+    @Test
+    void encodesExactlyWhatTheSchemaEncodes() throws InvalidProtocolBufferException {
+        for (InputCommand command : COMMANDS) {
+            byte[] expected = fromSchema(command).toByteArray();
+            assertArrayEquals(expected, InputCommandCodec.encode(command), command.toString());
+            assertEquals(command, InputCommandCodec.decode(expected));
+        }
+    }
+
+    @Test
+    void decodesABatchEncodedFromTheSchema() throws InvalidProtocolBufferException {
+        DynamicMessage.Builder batch = DynamicMessage.newBuilder(type("InputBatch"));
+        FieldDescriptor commands = type("InputBatch").findFieldByName("commands");
+        for (InputCommand command : COMMANDS) {
+            batch.addRepeatedField(commands, fromSchema(command));
+        }
+        byte[] bytes = batch.build().toByteArray();
+
+        assertArrayEquals(bytes, InputCommandCodec.encodeBatch(COMMANDS));
+        assertEquals(COMMANDS, InputCommandCodec.decodeBatch(bytes));
+    }
+
+    @Test
+    void readsTheCodecsBytesWithTheSchema() throws InvalidProtocolBufferException {
+        InputCommand command = new InputCommand.Click(-5, 7, MouseButton.RIGHT, 2, true);
+        DynamicMessage message = DynamicMessage.parseFrom(type("InputCommand"), InputCommandCodec.encode(command));
+
+        DynamicMessage click = (DynamicMessage) message.getField(type("InputCommand").findFieldByName("click"));
+        Descriptor clickType = type("Click");
+        assertEquals(-5, click.getField(clickType.findFieldByName("x")));
+        assertEquals(7, click.getField(clickType.findFieldByName("y")));
+        assertEquals("RIGHT", ((EnumValueDescriptor) click.getField(clickType.findFieldByName("button"))).getName());
+        assertEquals(2, click.getField(clickType.findFieldByName("count")));
+        assertEquals(true, click.getField(clickType.findFieldByName("with_modifier")));
+        assertTrue(message.getUnknownFields().asMap().isEmpty());
+    }
+
+    @Test
+    void acceptsUnpackedKeyCodes() throws IOException {
+        // press_key_combination { key_codes: 17 key_codes: 78 }, written one tag per value
+        byte[] body = bytes(out -> {
+            out.writeUInt32(1, KeyEvent.VK_CONTROL);
+            out.writeUInt32(1, KeyEvent.VK_N);
+        });
+
+        assertEquals(new InputCommand.PressKeyCombination(List.of(KeyEvent.VK_CONTROL, KeyEvent.VK_N)),
+                InputCommandCodec.decode(envelope(6, body)));
+    }
+
+    @Test
+    void rejectsKeyCodesWithAnotherWireType() throws IOException {
+        byte[] body = bytes(out -> out.writeFixed32(1, KeyEvent.VK_ENTER));
+
+        assertThrows(InvalidProtocolBufferException.class, () -> InputCommandCodec.decode(envelope(6, body)));
+    }
+
+    @Test
+    void rejectsMalformedAndInvalidCommands() throws IOException {
+        assertThrows(InvalidProtocolBufferException.class, () -> InputCommandCodec.decode(new byte[0]));
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> InputCommandCodec.decode(envelope(2, bytes(out -> out.writeEnum(3, 7)))));
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> InputCommandCodec.decode(new byte[] { 0x12, 0x05, 0x08 }));
+        // Well-formed, but a click count of 4 is not allowed
+        assertThrows(IllegalArgumentException.class,
+                () -> InputCommandCodec.decode(envelope(2, bytes(out -> out.writeUInt32(4, 4)))));
+    }
+
+    @Test
+    void skipsFieldsItDoesNotKnow() throws IOException {
+        byte[] body = bytes(out -> {
+            out.writeSInt32(1, 10);
+            out.writeString(9, "from a newer schema");
+            out.writeSInt32(2, 20);
+        });
+
+        assertEquals(new InputCommand.MoveMouse(10, 20), InputCommandCodec.decode(envelope(1, body)));
+    }
+
+    // ---- The schema, built from proto/input_command.proto
+
+    private static Descriptor type(String name) {
+        Descriptor type = schema.findMessageTypeByName(name);
+        assertNotNull(type, "schema has no message " + name);
+        return type;
+    }
+
+    private static DynamicMessage fromSchema(InputCommand command) {
+        DynamicMessage action = switch (command) {
+            case InputCommand.MoveMouse move -> message("MoveMouse", "x", move.x(), "y", move.y());
+            case InputCommand.Click click -> message("Click", "x", click.x(), "y", click.y(),
+                    "button", click.button().name(), "count", click.count() == 1 ? 0 : click.count(),
+                    "with_modifier", click.withModifier());
+            case InputCommand.Scroll scroll -> message("Scroll", "amount", scroll.amount());
+            case InputCommand.TypeText type -> message("TypeText", "text", type.text(),
+                    "strategy", type.strategy().name());
+            case InputCommand.PressKey key -> message("PressKey", "key_code", key.keyCode());
+            case InputCommand.PressKeyCombination combination -> message("PressKeyCombination",
+                    "key_codes", combination.keyCodes());
+        };
+        String field = switch (command) {
+            case InputCommand.MoveMouse move -> "move_mouse";
+            case InputCommand.Click click -> "click";
+            case InputCommand.Scroll scroll -> "scroll";
+            case InputCommand.TypeText type -> "type_text";
+            case InputCommand.PressKey key -> "press_key";
+            case InputCommand.PressKeyCombination combination -> "press_key_combination";
+        };
+        return message("InputCommand", field, action);
+    }
+
+    /**
+     * Builds a message from field names and values; enum values are given by
+     * name, and default scalar values are left unset, as proto3 does.
+     */
+    private static DynamicMessage message(String typeName, Object... fieldsAndValues) {
+        Descriptor type = type(typeName);
+        DynamicMessage.Builder builder = DynamicMessage.newBuilder(type);
+        for (int i = 0; i < fieldsAndValues.length; i += 2) {
+            FieldDescriptor field = type.findFieldByName((String) fieldsAndValues[i]);
+            assertNotNull(field, typeName + " has no field " + fieldsAndValues[i]);
+            Object value = fieldsAndValues[i + 1];
+            if (value instanceof List<?> values) {
+                values.forEach(v -> builder.addRepeatedField(field, v));
+            } else if (field.getType() == FieldDescriptor.Type.ENUM) {
+                if (!value.equals(field.getEnumType().getValues().get(0).getName())) {
+                    builder.setField(field, field.getEnumType().findValueByName((String) value));
+                }
+            } else if (field.getType() == FieldDescriptor.Type.MESSAGE || !value.equals(field.getDefaultValue())) {
+                builder.setField(field, value);
+            }
+        }
+        return builder.build();
+    }
+
+    private static String readSchema() throws IOException {
+        try (InputStream in = InputCommandCodecTest.class.getResourceAsStream("/proto/input_command.proto")) {
+            assertNotNull(in, "proto/input_command.proto is not on the classpath");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A parser for the subset of proto3 the schema uses: top-level messages and
+     * enums, scalar, enum and message fields, repeated fields and oneofs.
+     */
+    private static FileDescriptor parseSchema(String source) throws DescriptorValidationException {
+        Pattern block = Pattern.compile("^(message|enum|oneof)\\s+(\\w+)\\s*\\{$");
+        Pattern field = Pattern.compile("^(repeated\\s+)?(\\w+)\\s+(\\w+)\\s*=\\s*(\\d+);$");
+        Pattern enumValue = Pattern.compile("^(\\w+)\\s*=\\s*(\\d+);$");
+
+        Set<String> enums = new HashSet<>();
+        Matcher enumNames = Pattern.compile("(?m)^\\s*enum\\s+(\\w+)").matcher(source);
+        while (enumNames.find()) {
+            enums.add(enumNames.group(1));
+        }
+
+        FileDescriptorProto.Builder file = FileDescriptorProto.newBuilder()
+                .setName("input_command.proto").setPackage(PACKAGE).setSyntax("proto3");
+        DescriptorProto.Builder message = null;
+        EnumDescriptorProto.Builder enumType = null;
+        int oneof = -1;
+        List<String> unparsed = new ArrayList<>();
+        for (String raw : source.split("\n")) {
+            String line = raw.replaceAll("//.*", "").trim();
+            Matcher m;
+            if (line.isEmpty() || line.startsWith("syntax") || line.startsWith("package")) {
+                continue;
+            } else if ((m = block.matcher(line)).matches()) {
+                switch (m.group(1)) {
+                    case "message" -> message = DescriptorProto.newBuilder().setName(m.group(2));
+                    case "enum" -> enumType = EnumDescriptorProto.newBuilder().setName(m.group(2));
+                    default -> {
+                        oneof = message.getOneofDeclCount();
+                        message.addOneofDecl(OneofDescriptorProto.newBuilder().setName(m.group(2)));
+                    }
+                }
+            } else if (line.equals("}")) {
+                if (oneof >= 0) {
+                    oneof = -1;
+                } else if (message != null) {
+                    file.addMessageType(message);
+                    message = null;
+                } else if (enumType != null) {
+                    file.addEnumType(enumType);
+                    enumType = null;
+                }
+            } else if (enumType != null && (m = enumValue.matcher(line)).matches()) {
+                enumType.addValue(EnumValueDescriptorProto.newBuilder()
+                        .setName(m.group(1)).setNumber(Integer.parseInt(m.group(2))));
+            } else if (message != null && (m = field.matcher(line)).matches()) {
+                FieldDescriptorProto.Builder f = FieldDescriptorProto.newBuilder()
+                        .setName(m.group(3))
+                        .setNumber(Integer.parseInt(m.group(4)))
+                        .setLabel(m.group(1) != null
+                                ? FieldDescriptorProto.Label.LABEL_REPEATED
+                                : FieldDescriptorProto.Label.LABEL_OPTIONAL);
+                switch (m.group(2)) {
+                    case "sint32" -> f.setType(FieldDescriptorProto.Type.TYPE_SINT32);
+                    case "uint32" -> f.setType(FieldDescriptorProto.Type.TYPE_UINT32);
+                    case "bool" -> f.setType(FieldDescriptorProto.Type.TYPE_BOOL);
+                    case "string" -> f.setType(FieldDescriptorProto.Type.TYPE_STRING);
+                    default -> f.setType(enums.contains(m.group(2))
+                            ? FieldDescriptorProto.Type.TYPE_ENUM
+                            : FieldDescriptorProto.Type.TYPE_MESSAGE)
+                            .setTypeName("." + PACKAGE + "." + m.group(2));
+                }
+                if (oneof >= 0) {
+                    f.setOneofIndex(oneof);
+                }
+                message.addField(f);
+            } else {
+                unparsed.add(line);
+            }
+        }
+        assertEquals(List.of(), unparsed, "schema lines the test parser does not understand");
+        return FileDescriptor.buildFrom(file.build(), new FileDescriptor[0]);
+    }
+
+    // ---- Hand-built wire bytes
+
+    private interface Writer {
+        void write(CodedOutputStream out) throws IOException;
+    }
+
+    private static byte[] bytes(Writer writer) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(buffer);
+        writer.write(out);
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    private static byte[] envelope(int field, byte[] body) throws IOException {
+        return bytes(out -> {
+            out.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(body.length);
+            out.writeRawBytes(body);
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package com.org.pp.finAgent.automation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.awt.event.KeyEvent.VK_1;
+import static java.awt.event.KeyEvent.VK_A;
+import static java.awt.event.KeyEvent.VK_B;
+import static java.awt.event.KeyEvent.VK_ENTER;
+import static java.awt.event.KeyEvent.VK_H;
+import static java.awt.event.KeyEvent.VK_I;
+import static java.awt.event.KeyEvent.VK_MINUS;
+import static java.awt.event.KeyEvent.VK_QUOTE;
+import static java.awt.event.KeyEvent.VK_SEMICOLON;
+import static java.awt.event.KeyEvent.VK_SHIFT;
+import static java.awt.event.KeyEvent.VK_SPACE;
+import static java.awt.event.KeyEvent.VK_TAB;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeystrokeProgramTest {
+
+    private static String down(int keyCode) {
+        return "down " + keyCode;
+    }
+
+    private static String up(int keyCode) {
+        return "up " + keyCode;
+    }
+
+    private static List<String> tap(int keyCode) {
+        return List.of(down(keyCode), up(keyCode));
+    }
+
+    @SafeVarargs
+    private static List<String> events(List<String>... parts) {
+        List<String> events = new ArrayList<>();
+        for (List<String> part : parts) {
+            events.addAll(part);
+        }
+        return events;
+    }
+
+    private static List<String> events(KeystrokeProgram program) {
+        List<String> events = new ArrayList<>();
+        for (int i = 0; i < program.length(); i++) {
+            int event = program.event(i);
+            int keyCode = KeystrokeProgram.keyCode(event);
+            events.add(KeystrokeProgram.isPress(event) ? down(keyCode) : up(keyCode));
+        }
+        return events;
+    }
+
+    @Test
+    void holdsShiftAcrossARunOfCapitals() {
+        KeystrokeProgram program = KeystrokeProgram.compile("HIa");
+
+        assertEquals(events(List.of(down(VK_SHIFT)), tap(VK_H), tap(VK_I), List.of(up(VK_SHIFT)), tap(VK_A)),
+                events(program));
+        assertEquals(3, program.characters());
+        assertEquals(0, program.skipped());
+    }
+
+    @Test
+    void togglesShiftForMixedCase() {
+        KeystrokeProgram program = KeystrokeProgram.compile("aBa");
+
+        assertEquals(events(tap(VK_A), List.of(down(VK_SHIFT)), tap(VK_B), List.of(up(VK_SHIFT)), tap(VK_A)),
+                events(program));
+    }
+
+    @Test
+    void typesShiftedDigitsAndPunctuationOnTheirBaseKeys() {
+        KeystrokeProgram program = KeystrokeProgram.compile("!_: 1-;\"");
+
+        assertEquals(events(
+                List.of(down(VK_SHIFT)), tap(VK_1), tap(VK_MINUS), tap(VK_SEMICOLON), List.of(up(VK_SHIFT)),
+                tap(VK_SPACE), tap(VK_1), tap(VK_MINUS), tap(VK_SEMICOLON),
+                List.of(down(VK_SHIFT)), tap(VK_QUOTE), List.of(up(VK_SHIFT))), events(program));
+    }
+
+    @Test
+    void typesTabsAndLineBreaksWithTheirKeys() {
+        KeystrokeProgram program = KeystrokeProgram.compile("a\tb\nA\r\nb\r");
+
+        assertEquals(events(tap(VK_A), tap(VK_TAB), tap(VK_B), tap(VK_ENTER),
+                List.of(down(VK_SHIFT)), tap(VK_A), List.of(up(VK_SHIFT)), tap(VK_ENTER),
+                tap(VK_B), tap(VK_ENTER)), events(program));
+        assertEquals(8, program.characters());
+        assertEquals(0, program.skipped());
+    }
+
+    @Test
+    void leavesOutCharactersWithNoKey() {
+        KeystrokeProgram program = KeystrokeProgram.compile("aé€\u0000B✓");
+
+        assertEquals(events(tap(VK_A), List.of(down(VK_SHIFT)), tap(VK_B), List.of(up(VK_SHIFT))),
+                events(program));
+        assertEquals(2, program.characters());
+        assertEquals(4, program.skipped());
+        assertFalse(KeystrokeProgram.canType('é'));
+        assertFalse(KeystrokeProgram.canType('\u007F'));
+        assertTrue(KeystrokeProgram.canType('~'));
+    }
+
+    @Test
+    void coversAllOfPrintableAscii() {
+        for (char c = 0x20; c <= 0x7E; c++) {
+            assertTrue(KeystrokeProgram.canType(c), "no key for '" + c + "'");
+            KeystrokeProgram program = KeystrokeProgram.compile(String.valueOf(c));
+            boolean shifted = program.length() == 4;
+            assertEquals(shifted ? 4 : 2, program.length(), "events for '" + c + "'");
+            assertEquals(Character.isUpperCase(c) || "~!@#$%^&*()_+{}|:\"<>?".indexOf(c) >= 0, shifted,
+                    "shift for '" + c + "'");
+        }
+        assertEquals(0, KeystrokeProgram.compile("").length());
+    }
+}
@@ -0,0 +1,145 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.service.OcrService.OcrResult;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OcrColumnsTest {
+
+    private static OcrResult word(String text, int x, int y, int width, int height) {
+        return new OcrResult(text, new Rectangle(x, y, width, height), 90f);
+    }
+
+    /** The words' texts in line order, one list per line. */
+    private static List<List<String>> lines(OcrColumns columns) {
+        List<List<String>> lines = new ArrayList<>();
+        for (int line = 0; line < columns.lineCount(); line++) {
+            List<String> words = new ArrayList<>();
+            for (int p = columns.lineStart(line); p < columns.lineEnd(line); p++) {
+                words.add(columns.text(columns.lineWord(p)));
+            }
+            lines.add(words);
+        }
+        return lines;
+    }
+
+    @Test
+    void dropsBlankWordsAndEmptyBoxesKeepingTextAligned() {
+        OcrColumns columns = OcrColumns.fromResults(List.of(
+                word("Sign", 10, 10, 40, 20),
+                word("  ", 60, 10, 10, 20),
+                word("in", 80, 10, 20, 20),
+                word("ghost", 120, 10, 0, 20),
+                word("now", 110, 10, 30, 20)));
+
+        assertEquals(3, columns.size());
+        assertEquals("Sign", columns.text(0));
+        assertEquals("in", columns.text(1));
+        assertEquals("now", columns.text(2));
+        assertEquals(3, columns.textLength(2));
+        assertEquals('w', columns.charAt(2, 2));
+        assertEquals(new Rectangle(110, 10, 30, 20), columns.boundingBox(2));
+    }
+
+    @Test
+    void emptyInputHasNoLines() {
+        OcrColumns columns = OcrColumns.fromResults(List.of(word(" ", 0, 0, 5, 5)));
+
+        assertTrue(columns.isEmpty());
+        assertEquals(0, columns.lineCount());
+    }
+
+    @Test
+    void ordersLinesTopToBottomAndWordsLeftToRight() {
+        OcrColumns columns = OcrColumns.fromResults(List.of(
+                word("world", 70, 12, 50, 20),
+                word("second", 10, 50, 60, 20),
+                word("hello", 10, 10, 50, 20),
+                word("line", 80, 52, 40, 20)));
+
+        assertEquals(List.of(List.of("hello", "world"), List.of("second", "line")), lines(columns));
+        assertEquals(0, columns.lineOf(0));
+        assertEquals(1, columns.lineOf(1));
+    }
+
+    @Test
+    void startsANewLineOnceTheCentreLeavesTheFirstWordsBox() {
+        // "first" spans y 10..29; a centre at 29 still joins it, a centre at 30 does not
+        OcrColumns columns = OcrColumns.fromResults(List.of(
+                word("first", 10, 10, 40, 20),
+                word("joins", 60, 19, 40, 20),
+                word("next", 110, 20, 40, 20)));
+
+        assertEquals(List.of(List.of("first", "joins"), List.of("next")), lines(columns));
+    }
+
+    @Test
+    void breaksEqualCentreTiesByXThenByInsertionOrder() {
+        OcrColumns columns = OcrColumns.fromResults(List.of(
+                word("c", 200, 10, 20, 20),
+                word("a", 0, 10, 20, 20),
+                word("b1", 100, 10, 20, 20),
+                word("b2", 100, 10, 20, 20)));
+
+        assertEquals(List.of(List.of("a", "b1", "b2", "c")), lines(columns));
+    }
+
+    @Test
+    void clampsXOffsetsBeyondTheKeyRangeWithoutCorruptingIndexes() {
+        int far = 1 << 22; // Twice the 21 bits an x offset gets in the sort key
+        OcrColumns columns = OcrColumns.fromResults(List.of(
+                word("farther", far + 500, 10, 40, 20),
+                word("near", 0, 10, 40, 20),
+                word("far", far, 10, 40, 20),
+                word("below", 0, 100, 40, 20)));
+
+        List<List<String>> lines = lines(columns);
+        assertEquals(2, lines.size());
+        // Both far words clamp to the same key, so they keep insertion order after the near one
+        assertEquals(List.of("near", "farther", "far"), lines.get(0));
+        assertEquals(List.of("below"), lines.get(1));
+
+        Set<Integer> seen = new HashSet<>();
+        for (int p = 0; p < columns.size(); p++) {
+            int word = columns.lineWord(p);
+            assertTrue(word >= 0 && word < columns.size());
+            assertTrue(seen.add(word), "word listed twice: " + word);
+        }
+    }
+
+    @Test
+    void translatedMovesBoxesAndKeepsLines() {
+        OcrColumns columns = OcrColumns.fromResults(List.of(
+                word("b", 60, 10, 20, 20),
+                word("a", 10, 10, 20, 20)));
+        List<List<String>> before = lines(columns);
+
+        OcrColumns moved = columns.translated(100, -5);
+
+        assertEquals(new Rectangle(160, 5, 20, 20), moved.boundingBox(0));
+        assertEquals(before, lines(moved));
+        assertSame(columns, columns.translated(0, 0));
+    }
+
+    @Test
+    void withColorsAttachesAColorPerWord() {
+        OcrColumns columns = OcrColumns.fromResults(List.of(word("link", 0, 0, 30, 10)));
+        assertFalse(columns.hasColors());
+
+        OcrColumns colored = columns.withColors(new int[] { 0x1A0DAB });
+
+        assertTrue(colored.hasColors());
+        assertEquals(0x1A0DAB, colored.color(0));
+        assertEquals(OcrResult.NO_COLOR, columns.color(0));
+    }
+}
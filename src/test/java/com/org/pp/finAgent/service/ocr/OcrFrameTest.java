@@ -0,0 +1,127 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.service.OcrService.OcrResult;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OcrFrameTest {
+
+    private static OcrResult word(String text, int x, int y, int width, int height) {
+        return new OcrResult(text, new Rectangle(x, y, width, height), 90f);
+    }
+
+    private static List<String> texts(List<OcrResult> results) {
+        return results.stream().map(OcrResult::text).toList();
+    }
+
+    @Test
+    void reportsAWordSpanningManyCellsOnce() {
+        // 64-pixel cells: the banner covers five columns and two rows of them
+        OcrFrame frame = OcrFrame.of(List.of(
+                word("banner", 0, 0, 300, 100),
+                word("corner", 310, 110, 20, 20)));
+
+        assertEquals(List.of("banner", "corner"), texts(frame.wordsIn(new Rectangle(0, 0, 400, 200))));
+        assertEquals(List.of("banner"), texts(frame.wordsIn(new Rectangle(130, 70, 100, 20))));
+    }
+
+    @Test
+    void returnsRegionHitsInReadingOrder() {
+        OcrFrame frame = OcrFrame.of(List.of(
+                word("one", 200, 10, 30, 20),
+                word("two", 10, 200, 30, 20),
+                word("three", 100, 100, 30, 20)));
+
+        assertEquals(List.of("one", "two", "three"), texts(frame.wordsIn(new Rectangle(0, 0, 300, 300))));
+    }
+
+    @Test
+    void findsNothingInRegionsOutsideTheGrid() {
+        OcrFrame frame = OcrFrame.of(List.of(word("inside", 100, 100, 40, 20)));
+
+        assertTrue(frame.wordsIn(new Rectangle(-500, -500, 100, 100)).isEmpty());
+        assertTrue(frame.wordsIn(new Rectangle(1000, 1000, 50, 50)).isEmpty());
+        assertTrue(frame.wordsIn(new Rectangle(100, 100, 0, 10)).isEmpty());
+        assertEquals(List.of("inside"), texts(frame.wordsIn(new Rectangle(-500, -500, 620, 620))));
+    }
+
+    @Test
+    void nearestIsZeroDistanceInsideABox() {
+        OcrFrame frame = OcrFrame.of(List.of(
+                word("left", 0, 0, 50, 20),
+                word("right", 400, 0, 50, 20)));
+
+        assertEquals("right", frame.nearest(420, 10).text());
+        assertEquals("left", frame.nearest(49, 19).text());
+    }
+
+    @Test
+    void nearestHandlesQueriesOutsideTheGrid() {
+        OcrFrame frame = OcrFrame.of(List.of(
+                word("top", 100, 100, 40, 20),
+                word("bottom", 100, 900, 40, 20)));
+
+        assertEquals("top", frame.nearest(-5000, -5000).text());
+        assertEquals("bottom", frame.nearest(120, 20000).text());
+    }
+
+    @Test
+    void nearestAppliesTheFilter() {
+        OcrFrame frame = OcrFrame.of(List.of(
+                word("near", 10, 10, 40, 20),
+                word("far", 600, 600, 40, 20)));
+
+        assertEquals("far", frame.nearest(10, 10, w -> w.text().equals("far")).text());
+        assertNull(frame.nearest(10, 10, w -> false));
+        assertNull(OcrFrame.of(List.of()).nearest(0, 0));
+    }
+
+    @Test
+    void nearestAgreesWithABruteForceSearch() {
+        Random random = new Random(42);
+        List<OcrResult> words = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            words.add(word("w" + i, random.nextInt(2000), random.nextInt(1200), 5 + random.nextInt(150),
+                    5 + random.nextInt(30)));
+        }
+        OcrFrame frame = OcrFrame.of(words);
+
+        for (int q = 0; q < 500; q++) {
+            int x = random.nextInt(2600) - 300;
+            int y = random.nextInt(1800) - 300;
+            long best = Long.MAX_VALUE;
+            for (OcrResult w : words) {
+                best = Math.min(best, distanceSq(w.boundingBox(), x, y));
+            }
+            OcrResult found = frame.nearest(x, y);
+            assertEquals(best, distanceSq(found.boundingBox(), x, y), "query (" + x + ", " + y + ")");
+        }
+    }
+
+    @Test
+    void findsTokensInsideWords() {
+        OcrFrame frame = OcrFrame.of(List.of(
+                word("xyz_asd", 0, 0, 60, 20),
+                word("Login", 100, 0, 50, 20)));
+
+        assertEquals(List.of("xyz_asd"), texts(frame.findWord("xyz")));
+        assertEquals(List.of("Login"), texts(frame.findWord("LOGIN")));
+        assertTrue(frame.containsWord("asd"));
+        assertFalse(frame.containsWord("xyz_asd"));
+    }
+
+    private static long distanceSq(Rectangle box, int x, int y) {
+        long dx = x < box.x ? box.x - x : Math.max(0, x - (box.x + box.width - 1));
+        long dy = y < box.y ? box.y - y : Math.max(0, y - (box.y + box.height - 1));
+        return dx * dx + dy * dy;
+    }
+}
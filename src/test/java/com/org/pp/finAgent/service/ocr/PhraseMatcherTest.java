@@ -0,0 +1,192 @@
+package com.org.pp.finAgent.service.ocr;
+
+import com.org.pp.finAgent.service.OcrService.OcrResult;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PhraseMatcherTest {
+
+    private static OcrResult word(String text, int x, int y, int width, float confidence) {
+        return new OcrResult(text, new Rectangle(x, y, width, 20), confidence);
+    }
+
+    private static OcrResult word(String text, int x, int y, int width) {
+        return word(text, x, y, width, 90f);
+    }
+
+    private static List<String> texts(List<PhraseMatcher.Match> matches) {
+        return matches.stream().map(PhraseMatcher.Match::text).toList();
+    }
+
+    /** Plain Levenshtein distance. */
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    /** Smallest distance between the pattern and any substring of the text. */
+    private static int bestSubstringDistance(String pattern, String text) {
+        int best = pattern.length();
+        for (int from = 0; from <= text.length(); from++) {
+            for (int to = from; to <= text.length(); to++) {
+                best = Math.min(best, levenshtein(pattern, text.substring(from, to)));
+            }
+        }
+        return best;
+    }
+
+    private static String randomText(Random random, int length) {
+        String alphabet = "abcde ";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void distanceAgreesWithLevenshteinWithinTheBudget() {
+        Random random = new Random(11);
+        for (int round = 0; round < 2000; round++) {
+            String pattern = randomText(random, 1 + random.nextInt(12)).trim();
+            if (pattern.isEmpty() || pattern.contains("  ")) {
+                continue;
+            }
+            int budget = random.nextInt(4);
+            PhraseMatcher matcher = PhraseMatcher.compile(pattern, budget);
+            String text = randomText(random, random.nextInt(14));
+
+            int expected = levenshtein(pattern, text);
+            int actual = matcher.distance(text);
+            if (expected <= budget) {
+                assertEquals(expected, actual, "'" + pattern + "' vs '" + text + "'");
+            } else {
+                assertTrue(actual > budget, "'" + pattern + "' vs '" + text + "'");
+            }
+        }
+    }
+
+    @Test
+    void distanceHandlesPhrasesLongerThanAMachineWord() {
+        String phrase = "the quick brown fox jumps over the lazy dog and keeps running far away";
+        assertTrue(phrase.length() > 64);
+        PhraseMatcher matcher = PhraseMatcher.compile(phrase, 3);
+
+        assertEquals(0, matcher.distance(phrase));
+        assertEquals(2, matcher.distance(phrase.replace("quick", "quack").replace("lazy", "lazzy")));
+        assertEquals(Integer.MAX_VALUE, matcher.distance(phrase.replace("the", "a")));
+    }
+
+    @Test
+    void searchDistanceFindsTheClosestSubstring() {
+        Random random = new Random(5);
+        for (int round = 0; round < 300; round++) {
+            String pattern = randomText(random, 1 + random.nextInt(6)).trim();
+            if (pattern.isEmpty() || pattern.contains("  ")) {
+                continue;
+            }
+            PhraseMatcher matcher = PhraseMatcher.compile(pattern, 0);
+            String text = randomText(random, random.nextInt(16));
+
+            assertEquals(bestSubstringDistance(pattern, text), matcher.searchDistance(text),
+                    "'" + pattern + "' in '" + text + "'");
+        }
+    }
+
+    @Test
+    void shortSingleWordsMatchExactlyByDefault() {
+        PhraseMatcher login = PhraseMatcher.compile("Login");
+        assertEquals(0, login.getMaxEdits());
+        assertNull(login.findBest(List.of(word("logic", 0, 0, 50))));
+        assertEquals("Login", login.findBest(List.of(word("Login", 0, 0, 50))).text());
+
+        assertEquals(1, PhraseMatcher.compile("settings").getMaxEdits());
+        assertEquals(1, PhraseMatcher.compile("Sign in").getMaxEdits());
+        assertEquals(2, PhraseMatcher.compile("password reset").getMaxEdits());
+        assertEquals(3, PhraseMatcher.compile("Bajaj Finance share price today").getMaxEdits());
+        assertEquals(2, PhraseMatcher.compile("Login", 2).getMaxEdits());
+    }
+
+    @Test
+    void matchesWordsThatOcrMergedOrSplit() {
+        PhraseMatcher signIn = PhraseMatcher.compile("Sign in");
+        PhraseMatcher.Match merged = signIn.findBest(List.of(word("Signin", 10, 10, 60)));
+        assertEquals("Signin", merged.text());
+        assertEquals(1, merged.distance());
+
+        PhraseMatcher settings = PhraseMatcher.compile("settings");
+        PhraseMatcher.Match split = settings.findBest(List.of(word("sett", 10, 10, 40), word("ings", 52, 10, 40)));
+        assertEquals("sett ings", split.text());
+        assertEquals(new Rectangle(10, 10, 82, 20), split.boundingBox());
+    }
+
+    @Test
+    void phrasesDoNotSpanLinesOrWideGaps() {
+        PhraseMatcher signIn = PhraseMatcher.compile("Sign in", 0);
+
+        // "Sign" ends one line and "in" starts the next
+        assertNull(signIn.findBest(List.of(word("Sign", 400, 10, 40), word("in", 10, 40, 20))));
+        // On one line, but further apart than 1.5 line heights
+        assertNull(signIn.findBest(List.of(word("Sign", 10, 10, 40), word("in", 90, 10, 20))));
+        assertEquals("Sign in", signIn.findBest(List.of(word("Sign", 10, 10, 40), word("in", 58, 12, 20))).text());
+
+        List<List<OcrResult>> segments = PhraseMatcher.segments(List.of(
+                word("a", 10, 10, 20), word("b", 35, 10, 20), word("c", 10, 40, 20), word("d", 200, 40, 20)));
+        assertEquals(List.of(2, 1, 1), segments.stream().map(List::size).toList());
+    }
+
+    @Test
+    void ranksByDistanceThenConfidenceThenReadingOrder() {
+        PhraseMatcher matcher = PhraseMatcher.compile("checkout", 1);
+        List<OcrResult> words = List.of(
+                word("checkovt", 10, 10, 80, 95f),
+                word("checkout", 10, 100, 80, 60f),
+                word("checkout", 10, 200, 80, 90f),
+                word("checkout", 10, 300, 80, 90f));
+
+        List<PhraseMatcher.Match> matches = matcher.findAll(words);
+
+        assertEquals(List.of("checkout", "checkout", "checkout", "checkovt"), texts(matches));
+        assertEquals(200, matches.get(0).boundingBox().y);
+        assertEquals(300, matches.get(1).boundingBox().y);
+        assertEquals(100, matches.get(2).boundingBox().y);
+        assertEquals(1, matches.get(3).distance());
+    }
+
+    @Test
+    void keepsOnlyTheBestOfOverlappingCandidates() {
+        PhraseMatcher matcher = PhraseMatcher.compile("open account", 2);
+        List<PhraseMatcher.Match> matches = matcher.findAll(List.of(
+                word("open", 10, 10, 40), word("account", 58, 10, 70), word("now", 136, 10, 30)));
+
+        assertEquals(List.of("open account"), texts(matches));
+        assertEquals(0, matches.get(0).distance());
+    }
+
+    @Test
+    void emptyPhrasesMatchNothing() {
+        PhraseMatcher matcher = PhraseMatcher.compile(" -- ");
+
+        assertTrue(matcher.isEmpty());
+        assertTrue(matcher.findAll(List.of(word("anything", 0, 0, 50))).isEmpty());
+    }
+}
@@ -0,0 +1,104 @@
+package com.org.pp.finAgent.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ColorRegionDetectorTest {
+
+    private static final int BLUE = 0x1A0DAB;
+    private static final int WHITE = 0xFFFFFF;
+
+    /** No padding and no size limits beyond the fixed minimum width, so boxes are exact. */
+    private static ColorRegionDetector detector(int maxGapX, int maxGapY) {
+        return new ColorRegionDetector(40, maxGapX, maxGapY, 1, 100, 0);
+    }
+
+    private static BufferedImage page(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        fill(image, 0, 0, width, height, WHITE);
+        return image;
+    }
+
+    private static void fill(BufferedImage image, int x, int y, int width, int height, int rgb) {
+        for (int row = y; row < y + height; row++) {
+            for (int col = x; col < x + width; col++) {
+                image.setRGB(col, row, rgb);
+            }
+        }
+    }
+
+    @Test
+    void bridgesHorizontalGapsUpToMaxGapX() {
+        BufferedImage bridged = page(100, 40);
+        fill(bridged, 10, 10, 10, 8, BLUE);
+        fill(bridged, 24, 10, 10, 8, BLUE); // 4 blank columns: the next match is 5 past the last
+
+        assertEquals(List.of(new Rectangle(10, 10, 24, 8)), detector(5, 2).detect(bridged, BLUE));
+
+        BufferedImage split = page(100, 40);
+        fill(split, 10, 10, 10, 8, BLUE);
+        fill(split, 25, 10, 10, 8, BLUE);
+
+        assertEquals(List.of(new Rectangle(10, 10, 10, 8), new Rectangle(25, 10, 10, 8)),
+                detector(5, 2).detect(split, BLUE));
+    }
+
+    @Test
+    void mergesRowsAtMostMaxGapYApart() {
+        // Rows 10..14, then two blank rows, then 17..21: the runs are three rows apart
+        BufferedImage image = page(60, 40);
+        fill(image, 10, 10, 20, 5, BLUE);
+        fill(image, 12, 17, 20, 5, BLUE);
+
+        assertEquals(List.of(new Rectangle(10, 10, 22, 12)), detector(5, 3).detect(image, BLUE));
+        assertEquals(List.of(new Rectangle(10, 10, 20, 5), new Rectangle(12, 17, 20, 5)),
+                detector(5, 2).detect(image, BLUE));
+    }
+
+    @Test
+    void unitesComponentsThatMeetFurtherDown() {
+        // A "U": two bars that only join at the bottom start as separate components
+        BufferedImage image = page(80, 60);
+        fill(image, 10, 10, 10, 30, BLUE);
+        fill(image, 50, 10, 10, 30, BLUE);
+        fill(image, 10, 40, 50, 5, BLUE);
+
+        assertEquals(List.of(new Rectangle(10, 10, 50, 35)), detector(5, 2).detect(image, BLUE));
+    }
+
+    @Test
+    void returnsBoxesInReadingOrderWhateverTheirTopRows() {
+        BufferedImage image = page(300, 100);
+        fill(image, 200, 10, 40, 12, BLUE); // Highest, but rightmost
+        fill(image, 10, 12, 40, 12, BLUE);
+        fill(image, 100, 11, 40, 12, BLUE);
+        fill(image, 10, 60, 40, 12, BLUE); // Next line
+
+        assertEquals(List.of(
+                new Rectangle(10, 12, 40, 12),
+                new Rectangle(100, 11, 40, 12),
+                new Rectangle(200, 10, 40, 12),
+                new Rectangle(10, 60, 40, 12)), detector(5, 2).detect(image, BLUE));
+    }
+
+    @Test
+    void dropsBoxesOutsideTheSizeLimitsAndPadsTheRest() {
+        BufferedImage image = page(200, 200);
+        fill(image, 10, 10, 5, 10, BLUE); // Narrower than a label
+        fill(image, 40, 10, 30, 3, BLUE); // Shorter than minHeight
+        fill(image, 100, 10, 30, 60, BLUE); // Taller than maxHeight
+        fill(image, 0, 150, 30, 10, BLUE); // Padding is clipped at the edge
+        fill(image, 60, 150, 30, 10, 0x2A1DBB); // Within the tolerance
+
+        ColorRegionDetector detector = new ColorRegionDetector(40, 5, 2, 6, 48, 4);
+
+        assertEquals(List.of(new Rectangle(0, 146, 34, 18), new Rectangle(56, 146, 38, 18)),
+                detector.detect(image, BLUE));
+        assertEquals(List.of(), detector.detect(image, 0xFF0000));
+    }
+}